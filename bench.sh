@@ -0,0 +1,6 @@
+#!/bin/bash
+mkdir -p bin-test
+javac -d bin-test -sourcepath src test/service/*.java test/ui/*.java || exit 1
+java -cp bin-test service.StartupBenchmark "$@" || exit 1
+java -Xmx3g -cp bin-test service.SearchBenchmark || exit 1
+java -cp bin-test ui.RendererBenchmark
@@ -2,6 +2,7 @@ package app;
 
 import service.AuthService;
 import ui.LoginFrame;
+import util.FrameTimeMonitor;
 import javax.swing.*;
 
 public class MainApp {
@@ -13,6 +14,7 @@ public class MainApp {
         }
         
         SwingUtilities.invokeLater(() -> {
+            FrameTimeMonitor.installIfEnabled();
             AuthService authService = new AuthService();
             LoginFrame loginFrame = new LoginFrame(authService);
             loginFrame.setVisible(true);
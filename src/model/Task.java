@@ -1,14 +1,16 @@
 package model;
 
+import java.time.LocalDate;
+
 public class Task {
     private int id;
     private String title;
     private String description;
-    private String status;
+    private TaskStatus status;
     private String assignedTo;
-    private String createdDate;
+    private LocalDate createdDate;
     
-    public Task(int id, String title, String description, String status, String assignedTo, String createdDate) {
+    public Task(int id, String title, String description, TaskStatus status, String assignedTo, LocalDate createdDate) {
         this.id = id;
         this.title = title;
         this.description = description;
@@ -41,11 +43,11 @@ public class Task {
         this.description = description;
     }
     
-    public String getStatus() {
+    public TaskStatus getStatus() {
         return status;
     }
     
-    public void setStatus(String status) {
+    public void setStatus(TaskStatus status) {
         this.status = status;
     }
     
@@ -57,11 +59,11 @@ public class Task {
         this.assignedTo = assignedTo;
     }
     
-    public String getCreatedDate() {
+    public LocalDate getCreatedDate() {
         return createdDate;
     }
     
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(LocalDate createdDate) {
         this.createdDate = createdDate;
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package model;
+
+public enum TaskStatus {
+    PENDING("Pending"),
+    PROGRESS("Progress"),
+    DONE("Done");
+
+    private static final TaskStatus[] VALUES = values();
+
+    private final String label;
+
+    TaskStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * The name stored in tasks.csv and shown in the UI.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the status with the given label, or {@code null} if there is
+     * none.
+     */
+    public static TaskStatus fromLabel(String label) {
+        for (TaskStatus status : VALUES) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    public static TaskStatus fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,244 @@
+package service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map from assignee to the {@link IdRun} of their tasks, sorted
+ * the way the assignee column sorts. Names are kept in chunks like the ids
+ * of an {@code IdRun}: {@link #with} and {@link #without} copy one chunk
+ * plus the chunk directory and share the rest, instead of the whole map.
+ */
+final class AssigneeIndex {
+    private static final int CHUNK_SIZE = 64;
+
+    static final Comparator<String> ORDER = Comparator.nullsFirst(TaskSnapshot.TEXT_ORDER);
+    static final AssigneeIndex EMPTY = new AssigneeIndex(new String[0][], new IdRun[0][], 0);
+
+    private final String[][] names;
+    private final IdRun[][] runs;
+    private final int size;
+
+    private AssigneeIndex(String[][] names, IdRun[][] runs, int size) {
+        this.names = names;
+        this.runs = runs;
+        this.size = size;
+    }
+
+    /**
+     * Builds an index from each assignee's ids, already sorted and distinct.
+     */
+    static AssigneeIndex of(Map<String, int[]> ids) {
+        String[] sorted = ids.keySet().toArray(new String[0]);
+        Arrays.sort(sorted, ORDER);
+        String[][] names = new String[(sorted.length + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+        IdRun[][] runs = new IdRun[names.length][];
+        for (int c = 0; c < names.length; c++) {
+            names[c] = Arrays.copyOfRange(sorted, c * CHUNK_SIZE, Math.min(sorted.length, (c + 1) * CHUNK_SIZE));
+            runs[c] = new IdRun[names[c].length];
+            for (int i = 0; i < runs[c].length; i++) {
+                int[] group = ids.get(names[c][i]);
+                runs[c][i] = IdRun.of(group, group.length);
+            }
+        }
+        return new AssigneeIndex(names, runs, sorted.length);
+    }
+
+    /**
+     * Number of assignees with at least one task.
+     */
+    int size() {
+        return size;
+    }
+
+    IdRun get(String name) {
+        if (names.length == 0) {
+            return IdRun.EMPTY;
+        }
+        int c = chunkFor(name);
+        int at = Arrays.binarySearch(names[c], name, ORDER);
+        return at >= 0 ? runs[c][at] : IdRun.EMPTY;
+    }
+
+    /**
+     * A read-only view of each assignee's task count, in name order. Taking
+     * it costs nothing; lookups are binary searches.
+     */
+    Map<String, Integer> counts() {
+        return new AbstractMap<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public Integer get(Object key) {
+                if (key != null && !(key instanceof String)) {
+                    return null;
+                }
+                IdRun run = AssigneeIndex.this.get((String) key);
+                return run.size() > 0 ? run.size() : null;
+            }
+
+            @Override
+            public Set<Entry<String, Integer>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+
+                    @Override
+                    public Iterator<Entry<String, Integer>> iterator() {
+                        return new Iterator<>() {
+                            private int chunk;
+                            private int at;
+
+                            @Override
+                            public boolean hasNext() {
+                                return chunk < names.length;
+                            }
+
+                            @Override
+                            public Entry<String, Integer> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                Entry<String, Integer> entry =
+                                        new SimpleImmutableEntry<>(names[chunk][at], runs[chunk][at].size());
+                                if (++at == names[chunk].length) {
+                                    chunk++;
+                                    at = 0;
+                                }
+                                return entry;
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Every assignee's run, in name order.
+     */
+    IdRun[] runs() {
+        IdRun[] all = new IdRun[size];
+        int count = 0;
+        for (IdRun[] chunk : runs) {
+            System.arraycopy(chunk, 0, all, count, chunk.length);
+            count += chunk.length;
+        }
+        return all;
+    }
+
+    AssigneeIndex with(String name, int id) {
+        if (names.length == 0) {
+            return new AssigneeIndex(new String[][] { { name } }, new IdRun[][] { { IdRun.EMPTY.with(id) } }, 1);
+        }
+        int c = chunkFor(name);
+        String[] chunk = names[c];
+        int at = Arrays.binarySearch(chunk, name, ORDER);
+        if (at >= 0) {
+            IdRun[] replaced = runs[c].clone();
+            replaced[at] = replaced[at].with(id);
+            return replaceChunk(c, chunk, replaced, size);
+        }
+        at = -at - 1;
+        String[] grown = new String[chunk.length + 1];
+        IdRun[] grownRuns = new IdRun[chunk.length + 1];
+        System.arraycopy(chunk, 0, grown, 0, at);
+        System.arraycopy(runs[c], 0, grownRuns, 0, at);
+        grown[at] = name;
+        grownRuns[at] = IdRun.EMPTY.with(id);
+        System.arraycopy(chunk, at, grown, at + 1, chunk.length - at);
+        System.arraycopy(runs[c], at, grownRuns, at + 1, chunk.length - at);
+        if (grown.length <= 2 * CHUNK_SIZE) {
+            return replaceChunk(c, grown, grownRuns, size + 1);
+        }
+
+        String[][] split = new String[names.length + 1][];
+        IdRun[][] splitRuns = new IdRun[runs.length + 1][];
+        System.arraycopy(names, 0, split, 0, c);
+        System.arraycopy(runs, 0, splitRuns, 0, c);
+        split[c] = Arrays.copyOfRange(grown, 0, CHUNK_SIZE);
+        splitRuns[c] = Arrays.copyOfRange(grownRuns, 0, CHUNK_SIZE);
+        split[c + 1] = Arrays.copyOfRange(grown, CHUNK_SIZE, grown.length);
+        splitRuns[c + 1] = Arrays.copyOfRange(grownRuns, CHUNK_SIZE, grown.length);
+        System.arraycopy(names, c + 1, split, c + 2, names.length - c - 1);
+        System.arraycopy(runs, c + 1, splitRuns, c + 2, runs.length - c - 1);
+        return new AssigneeIndex(split, splitRuns, size + 1);
+    }
+
+    AssigneeIndex without(String name, int id) {
+        if (names.length == 0) {
+            return this;
+        }
+        int c = chunkFor(name);
+        String[] chunk = names[c];
+        int at = Arrays.binarySearch(chunk, name, ORDER);
+        if (at < 0) {
+            return this;
+        }
+        IdRun run = runs[c][at].without(id);
+        if (run.size() > 0) {
+            IdRun[] replaced = runs[c].clone();
+            replaced[at] = run;
+            return replaceChunk(c, chunk, replaced, size);
+        }
+        if (chunk.length > 1) {
+            String[] shrunk = new String[chunk.length - 1];
+            IdRun[] shrunkRuns = new IdRun[chunk.length - 1];
+            System.arraycopy(chunk, 0, shrunk, 0, at);
+            System.arraycopy(runs[c], 0, shrunkRuns, 0, at);
+            System.arraycopy(chunk, at + 1, shrunk, at, chunk.length - at - 1);
+            System.arraycopy(runs[c], at + 1, shrunkRuns, at, chunk.length - at - 1);
+            return replaceChunk(c, shrunk, shrunkRuns, size - 1);
+        }
+
+        String[][] remaining = new String[names.length - 1][];
+        IdRun[][] remainingRuns = new IdRun[runs.length - 1][];
+        System.arraycopy(names, 0, remaining, 0, c);
+        System.arraycopy(runs, 0, remainingRuns, 0, c);
+        System.arraycopy(names, c + 1, remaining, c, names.length - c - 1);
+        System.arraycopy(runs, c + 1, remainingRuns, c, runs.length - c - 1);
+        return new AssigneeIndex(remaining, remainingRuns, size - 1);
+    }
+
+    private AssigneeIndex replaceChunk(int c, String[] chunk, IdRun[] chunkRuns, int newSize) {
+        String[][] copy = names.clone();
+        IdRun[][] copyRuns = runs.clone();
+        copy[c] = chunk;
+        copyRuns[c] = chunkRuns;
+        return new AssigneeIndex(copy, copyRuns, newSize);
+    }
+
+    /**
+     * Returns the last chunk whose first name does not sort after
+     * {@code name}, or the first chunk if there is none.
+     */
+    private int chunkFor(String name) {
+        int low = 0;
+        int high = names.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (ORDER.compare(names[mid][0], name) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
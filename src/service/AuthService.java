@@ -2,22 +2,54 @@ package service;
 
 import model.User;
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Accounts and the logged-in session. Accounts are read from
+ * {@code users.csv} once into a map keyed by username, so logging in
+ * touches no file. The file is kept as a log: registering appends a line
+ * and changing a password appends another line for the same user, the
+ * last one winning when the file is read. Once superseded lines outnumber
+ * live ones, the file is rewritten.
+ *
+ * <p>A watch on the file's directory marks the map stale when the file is
+ * changed; the next lookup reloads it unless its length and modification
+ * time are still the ones this service last read or wrote. Where the file
+ * cannot be watched, every lookup makes that check.
+ */
 public class AuthService {
     private static final String USERS_FILE = "users.csv";
+    private static final String HEADER = "username,password";
+
+    private final File file = new File(USERS_FILE);
+    private final Map<String, User> users = new LinkedHashMap<>();
+    // User lines in the file, superseded ones included.
+    private int lineCount;
+    private long knownLength = -1;
+    private long knownModified = -1;
+    private volatile boolean stale = true;
+    private volatile boolean watching;
     private User currentUser;
 
     public AuthService() {
         initializeUsersFile();
+        watchUsersFile();
+        ensureCurrent();
     }
 
     private void initializeUsersFile() {
         File file = new File(USERS_FILE);
         if (!file.exists()) {
             try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-                writer.println("username,password");
+                writer.println(HEADER);
                 writer.println("admin,admin123");
             } catch (IOException e) {
                 e.printStackTrace();
@@ -25,13 +57,62 @@ public class AuthService {
         }
     }
 
-    public boolean login(String username, String password) {
-        List<User> users = loadUsers();
-        for (User user : users) {
-            if (user.getUsername().equals(username) && user.getPassword().equals(password)) {
-                currentUser = user;
-                return true;
+    private void watchUsersFile() {
+        try {
+            Path dir = file.getAbsoluteFile().toPath().getParent();
+            WatchService watcher = dir.getFileSystem().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            Thread thread = new Thread(() -> watch(watcher), "users-file-watcher");
+            thread.setDaemon(true);
+            thread.start();
+            watching = true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void watch(WatchService watcher) {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || file.getName().equals(String.valueOf(event.context()))) {
+                        stale = true;
+                    }
+                }
+                if (!key.reset()) {
+                    watching = false;
+                    return;
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reloads the map if the file changed since it was last read or written.
+     * Costs nothing while the watch reports no change.
+     */
+    private void ensureCurrent() {
+        if (watching && !stale) {
+            return;
+        }
+        // Cleared before looking, so a change made meanwhile marks it again.
+        stale = false;
+        if (file.length() != knownLength || file.lastModified() != knownModified) {
+            loadUsers();
+        }
+    }
+
+    public synchronized boolean login(String username, String password) {
+        ensureCurrent();
+        User user = users.get(username);
+        if (user != null && user.getPassword().equals(password)) {
+            currentUser = user;
+            return true;
         }
         return false;
     }
@@ -48,67 +129,88 @@ public class AuthService {
         return currentUser != null;
     }
 
-    private List<User> loadUsers() {
-        List<User> users = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(USERS_FILE))) {
+    private void loadUsers() {
+        users.clear();
+        lineCount = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line = reader.readLine();
             while ((line = reader.readLine()) != null) {
                 String[] parts = line.split(",");
                 if (parts.length == 2) {
-                    users.add(new User(parts[0], parts[1]));
+                    users.put(parts[0], new User(parts[0], parts[1]));
+                    lineCount++;
                 }
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
-        return users;
+        rememberFile();
     }
 
-    public boolean registerUser(String username, String password) {
-        List<User> users = loadUsers();
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                return false;
-            }
-        }
+    private void rememberFile() {
+        knownLength = file.length();
+        knownModified = file.lastModified();
+    }
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(USERS_FILE, true))) {
-            writer.println(username + "," + password);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
+    public synchronized boolean registerUser(String username, String password) {
+        ensureCurrent();
+        if (users.containsKey(username) || !append(username, password)) {
             return false;
         }
+        users.put(username, new User(username, password));
+        return true;
     }
 
-    public boolean updatePassword(String username, String newPassword) {
-        List<User> users = loadUsers();
-        boolean found = false;
-
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                user.setPassword(newPassword);
-                found = true;
-                break;
-            }
+    public synchronized boolean updatePassword(String username, String newPassword) {
+        ensureCurrent();
+        User user = users.get(username);
+        if (user == null || !append(username, newPassword)) {
+            return false;
+        }
+        user.setPassword(newPassword);
+        // Update current user session if applicable
+        if (currentUser != null && currentUser.getUsername().equals(username)) {
+            currentUser.setPassword(newPassword);
+        }
+        if (lineCount > 2 * users.size()) {
+            compact();
         }
+        return true;
+    }
 
-        if (!found)
+    private boolean append(String username, String password) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file, true))) {
+            writer.println(username + "," + password);
+        } catch (IOException e) {
+            e.printStackTrace();
             return false;
+        }
+        lineCount++;
+        rememberFile();
+        return true;
+    }
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(USERS_FILE))) {
-            writer.println("username,password");
-            for (User user : users) {
+    /**
+     * Rewrites the file with one line per user, in registration order.
+     */
+    private void compact() {
+        File tmp = new File(USERS_FILE + ".tmp");
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(tmp)))) {
+            writer.println(HEADER);
+            for (User user : users.values()) {
                 writer.println(user.getUsername() + "," + user.getPassword());
             }
-            // Update current user session if applicable
-            if (currentUser != null && currentUser.getUsername().equals(username)) {
-                currentUser.setPassword(newPassword);
-            }
-            return true;
         } catch (IOException e) {
             e.printStackTrace();
-            return false;
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            lineCount = users.size();
+            rememberFile();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package service;
+
+import model.Task;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable index of task ids by created date. The distinct epoch days are
+ * kept sorted in one array, each with the {@link IdRun} of tasks created
+ * that day, so a date range takes two binary searches and yields its ids in
+ * (createdDate, id) order. A running total of the run sizes turns a
+ * range count into those two searches as well. A change copies the day
+ * directory and one run and shares the rest.
+ */
+final class CreatedIndex {
+    static final CreatedIndex EMPTY = new CreatedIndex(new int[0], new IdRun[0], new int[0]);
+
+    private final int[] days;
+    private final IdRun[] runs;
+    // ends[d] is the number of tasks created on days[0] to days[d].
+    private final int[] ends;
+
+    private CreatedIndex(int[] days, IdRun[] runs, int[] ends) {
+        this.days = days;
+        this.runs = runs;
+        this.ends = ends;
+    }
+
+    static CreatedIndex of(List<Task> tasks) {
+        long[] keys = new long[tasks.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Task task = tasks.get(i);
+            int day = Math.toIntExact(task.getCreatedDate().toEpochDay());
+            keys[i] = (long) day << 32 | task.getId() & 0xFFFFFFFFL;
+        }
+        Arrays.sort(keys);
+
+        int[] days = new int[keys.length];
+        IdRun[] runs = new IdRun[keys.length];
+        int[] ends = new int[keys.length];
+        int[] ids = new int[keys.length];
+        int count = 0;
+        for (int from = 0; from < keys.length; ) {
+            int day = (int) (keys[from] >> 32);
+            int to = from;
+            while (to < keys.length && (int) (keys[to] >> 32) == day) {
+                ids[to - from] = (int) keys[to];
+                to++;
+            }
+            days[count] = day;
+            ends[count] = to;
+            runs[count++] = IdRun.of(ids, to - from);
+            from = to;
+        }
+        return new CreatedIndex(Arrays.copyOf(days, count), Arrays.copyOf(runs, count), Arrays.copyOf(ends, count));
+    }
+
+    /**
+     * Returns the epoch day of an inclusive lower range bound, clamped to
+     * the int range of the day column; {@code null} is open.
+     */
+    static int lower(LocalDate from) {
+        return from == null ? Integer.MIN_VALUE : clamp(from.toEpochDay());
+    }
+
+    static int upper(LocalDate to) {
+        return to == null ? Integer.MAX_VALUE : clamp(to.toEpochDay());
+    }
+
+    private static int clamp(long day) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, day));
+    }
+
+    CreatedIndex with(int id, int day) {
+        int at = Arrays.binarySearch(days, day);
+        if (at >= 0) {
+            IdRun run = runs[at].with(id);
+            if (run == runs[at]) {
+                return this;
+            }
+            IdRun[] copy = runs.clone();
+            copy[at] = run;
+            return new CreatedIndex(days, copy, shiftEnds(ends, at, 1));
+        }
+        at = -at - 1;
+        int[] grownDays = new int[days.length + 1];
+        IdRun[] grownRuns = new IdRun[runs.length + 1];
+        int[] grownEnds = new int[ends.length + 1];
+        System.arraycopy(days, 0, grownDays, 0, at);
+        System.arraycopy(runs, 0, grownRuns, 0, at);
+        System.arraycopy(ends, 0, grownEnds, 0, at);
+        grownDays[at] = day;
+        grownRuns[at] = IdRun.EMPTY.with(id);
+        grownEnds[at] = (at == 0 ? 0 : ends[at - 1]) + 1;
+        System.arraycopy(days, at, grownDays, at + 1, days.length - at);
+        System.arraycopy(runs, at, grownRuns, at + 1, runs.length - at);
+        for (int d = at; d < ends.length; d++) {
+            grownEnds[d + 1] = ends[d] + 1;
+        }
+        return new CreatedIndex(grownDays, grownRuns, grownEnds);
+    }
+
+    CreatedIndex without(int id, int day) {
+        int at = Arrays.binarySearch(days, day);
+        if (at < 0) {
+            return this;
+        }
+        IdRun run = runs[at].without(id);
+        if (run == runs[at]) {
+            return this;
+        }
+        if (run.size() > 0) {
+            IdRun[] copy = runs.clone();
+            copy[at] = run;
+            return new CreatedIndex(days, copy, shiftEnds(ends, at, -1));
+        }
+        int[] shrunkDays = new int[days.length - 1];
+        IdRun[] shrunkRuns = new IdRun[runs.length - 1];
+        int[] shrunkEnds = new int[ends.length - 1];
+        System.arraycopy(days, 0, shrunkDays, 0, at);
+        System.arraycopy(runs, 0, shrunkRuns, 0, at);
+        System.arraycopy(ends, 0, shrunkEnds, 0, at);
+        System.arraycopy(days, at + 1, shrunkDays, at, days.length - at - 1);
+        System.arraycopy(runs, at + 1, shrunkRuns, at, runs.length - at - 1);
+        for (int d = at + 1; d < ends.length; d++) {
+            shrunkEnds[d - 1] = ends[d] - 1;
+        }
+        return new CreatedIndex(shrunkDays, shrunkRuns, shrunkEnds);
+    }
+
+    private static int[] shiftEnds(int[] ends, int from, int delta) {
+        int[] copy = ends.clone();
+        for (int d = from; d < copy.length; d++) {
+            copy[d] += delta;
+        }
+        return copy;
+    }
+
+    /**
+     * Counts the tasks created on days {@code from} to {@code to}, both
+     * inclusive, from the running totals.
+     */
+    int count(int from, int to) {
+        int first = firstDay(from);
+        int end = to == Integer.MAX_VALUE ? days.length : firstDay(to + 1);
+        if (end <= first) {
+            return 0;
+        }
+        return ends[end - 1] - (first == 0 ? 0 : ends[first - 1]);
+    }
+
+    /**
+     * Returns the ids created on days {@code from} to {@code to}, both
+     * inclusive, in (createdDate, id) order.
+     */
+    int[] ids(int from, int to) {
+        int[] ids = new int[count(from, to)];
+        int count = 0;
+        for (int d = firstDay(from); count < ids.length; d++) {
+            count += runs[d].copyTo(0, ids, count, ids.length - count);
+        }
+        return ids;
+    }
+
+    /**
+     * Copies up to {@code limit} ids that come after ({@code day}, {@code id})
+     * into {@code out} and returns how many were copied.
+     */
+    int idsAfter(int day, int id, int[] out, int limit) {
+        int count = 0;
+        for (int d = firstDay(day); d < days.length && count < limit; d++) {
+            int from = days[d] == day ? runs[d].indexAfter(id) : 0;
+            count += runs[d].copyTo(from, out, count, limit - count);
+        }
+        return count;
+    }
+
+    /**
+     * The per-day runs, oldest day first. Callers must not modify the array.
+     */
+    IdRun[] runs() {
+        return runs;
+    }
+
+    /**
+     * Returns the position of the first day not before {@code day}.
+     */
+    private int firstDay(int day) {
+        int at = Arrays.binarySearch(days, day);
+        return at >= 0 ? at : -at - 1;
+    }
+}
@@ -0,0 +1,44 @@
+package service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only mapping between strings and dense int codes, so a column can
+ * store each distinct value once. Codes are never reassigned. Only writers
+ * call {@link #encode(String)}; readers decode codes they got from a
+ * published snapshot, which was published after the code was assigned.
+ */
+final class Dictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = new String[16];
+    private volatile int size;
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Returns how many codes have been assigned. A reader may see codes
+     * assigned after the snapshot it holds; they are simply unused there.
+     */
+    int size() {
+        return size;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+}
@@ -0,0 +1,177 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sorted set of task ids in chunks, the int counterpart of
+ * {@link TaskRun}: {@link #with(int)} and {@link #without(int)} copy one
+ * chunk plus the chunk directory and share the rest.
+ */
+final class IdRun {
+    private static final int CHUNK_SIZE = 1024;
+
+    static final IdRun EMPTY = new IdRun(new int[0][], new int[0]);
+
+    private final int[][] chunks;
+    private final int[] ends;
+
+    private IdRun(int[][] chunks, int[] ends) {
+        this.chunks = chunks;
+        this.ends = ends;
+    }
+
+    /**
+     * Builds a run from ids that are already sorted and distinct.
+     */
+    static IdRun of(int[] sorted, int count) {
+        int[][] chunks = new int[(count + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+        int[] ends = new int[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            int from = i * CHUNK_SIZE;
+            chunks[i] = Arrays.copyOfRange(sorted, from, Math.min(count, from + CHUNK_SIZE));
+            ends[i] = from + chunks[i].length;
+        }
+        return new IdRun(chunks, ends);
+    }
+
+    int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    int get(int index) {
+        int chunk = Arrays.binarySearch(ends, index);
+        chunk = chunk >= 0 ? chunk + 1 : -chunk - 1;
+        return chunks[chunk][index - (chunk == 0 ? 0 : ends[chunk - 1])];
+    }
+
+    boolean contains(int id) {
+        return chunks.length > 0 && Arrays.binarySearch(chunks[chunkFor(id)], id) >= 0;
+    }
+
+    int[] toArray() {
+        int[] ids = new int[size()];
+        copyTo(0, ids, 0, ids.length);
+        return ids;
+    }
+
+    /**
+     * Returns the position of the first id greater than {@code id}, or
+     * {@link #size()} if there is none.
+     */
+    int indexAfter(int id) {
+        if (chunks.length == 0) {
+            return 0;
+        }
+        int c = chunkFor(id);
+        int at = Arrays.binarySearch(chunks[c], id);
+        at = at >= 0 ? at + 1 : -at - 1;
+        return (c == 0 ? 0 : ends[c - 1]) + at;
+    }
+
+    /**
+     * Copies up to {@code max} ids, starting at position {@code from}, into
+     * {@code out} at {@code at} and returns how many were copied.
+     */
+    int copyTo(int from, int[] out, int at, int max) {
+        int count = 0;
+        int chunk = Arrays.binarySearch(ends, from);
+        chunk = chunk >= 0 ? chunk + 1 : -chunk - 1;
+        int row = chunk < ends.length ? from - (chunk == 0 ? 0 : ends[chunk - 1]) : 0;
+        for (; chunk < chunks.length && count < max; chunk++, row = 0) {
+            int n = Math.min(chunks[chunk].length - row, max - count);
+            System.arraycopy(chunks[chunk], row, out, at + count, n);
+            count += n;
+        }
+        return count;
+    }
+
+    IdRun with(int id) {
+        if (chunks.length == 0) {
+            return new IdRun(new int[][] { { id } }, new int[] { 1 });
+        }
+        int c = chunkFor(id);
+        int[] chunk = chunks[c];
+        int at = Arrays.binarySearch(chunk, id);
+        if (at >= 0) {
+            return this;
+        }
+        at = -at - 1;
+        int[] grown = new int[chunk.length + 1];
+        System.arraycopy(chunk, 0, grown, 0, at);
+        grown[at] = id;
+        System.arraycopy(chunk, at, grown, at + 1, chunk.length - at);
+        if (grown.length <= 2 * CHUNK_SIZE) {
+            return replaceChunk(c, grown);
+        }
+
+        int[][] split = new int[chunks.length + 1][];
+        System.arraycopy(chunks, 0, split, 0, c);
+        split[c] = Arrays.copyOfRange(grown, 0, CHUNK_SIZE);
+        split[c + 1] = Arrays.copyOfRange(grown, CHUNK_SIZE, grown.length);
+        System.arraycopy(chunks, c + 1, split, c + 2, chunks.length - c - 1);
+        int[] splitEnds = new int[ends.length + 1];
+        System.arraycopy(ends, 0, splitEnds, 0, c);
+        splitEnds[c] = (c == 0 ? 0 : ends[c - 1]) + CHUNK_SIZE;
+        for (int i = c; i < ends.length; i++) {
+            splitEnds[i + 1] = ends[i] + 1;
+        }
+        return new IdRun(split, splitEnds);
+    }
+
+    IdRun without(int id) {
+        if (chunks.length == 0) {
+            return this;
+        }
+        int c = chunkFor(id);
+        int[] chunk = chunks[c];
+        int at = Arrays.binarySearch(chunk, id);
+        if (at < 0) {
+            return this;
+        }
+        if (chunk.length > 1) {
+            int[] shrunk = new int[chunk.length - 1];
+            System.arraycopy(chunk, 0, shrunk, 0, at);
+            System.arraycopy(chunk, at + 1, shrunk, at, chunk.length - at - 1);
+            return replaceChunk(c, shrunk);
+        }
+
+        int[][] remaining = new int[chunks.length - 1][];
+        System.arraycopy(chunks, 0, remaining, 0, c);
+        System.arraycopy(chunks, c + 1, remaining, c, chunks.length - c - 1);
+        int[] remainingEnds = new int[ends.length - 1];
+        System.arraycopy(ends, 0, remainingEnds, 0, c);
+        for (int i = c + 1; i < ends.length; i++) {
+            remainingEnds[i - 1] = ends[i] - 1;
+        }
+        return new IdRun(remaining, remainingEnds);
+    }
+
+    private IdRun replaceChunk(int c, int[] chunk) {
+        int[][] copy = chunks.clone();
+        copy[c] = chunk;
+        int[] copyEnds = ends.clone();
+        int delta = chunk.length - chunks[c].length;
+        for (int i = c; i < copyEnds.length; i++) {
+            copyEnds[i] += delta;
+        }
+        return new IdRun(copy, copyEnds);
+    }
+
+    /**
+     * Returns the last chunk whose first id is not greater than {@code id},
+     * or the first chunk if there is none.
+     */
+    private int chunkFor(int id) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunks[mid][0] <= id) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
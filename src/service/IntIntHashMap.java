@@ -0,0 +1,152 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from int to int with linear probing. Keys and
+ * values live in two flat arrays, so lookups neither box nor allocate.
+ * Removal shifts the following cluster back instead of leaving tombstones.
+ * {@link Integer#MIN_VALUE} is reserved as the empty-slot marker and cannot be
+ * used as a key.
+ */
+class IntIntHashMap {
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    IntIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    IntIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    int get(int key, int missing) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : missing;
+    }
+
+    void put(int key, int value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Reserved key: " + key);
+        }
+        int index = slot(key);
+        while (keys[index] != FREE) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > (mask + 1) * 3 / 4) {
+            rehash((mask + 1) * 2);
+        }
+    }
+
+    int remove(int key, int missing) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return missing;
+        }
+        int removed = values[index];
+        size--;
+
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE;
+        if (mask + 1 > MIN_CAPACITY && size < (mask + 1) / 8) {
+            rehash((mask + 1) / 2);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the keys in table order. Cost is proportional to the table
+     * capacity, which removals keep within a small factor of the size.
+     */
+    int[] keys() {
+        int[] result = new int[size];
+        int count = 0;
+        for (int key : keys) {
+            if (key != FREE) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    private int indexOf(int key) {
+        if (key == FREE) {
+            return -1;
+        }
+        int index = slot(key);
+        while (keys[index] != FREE) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, FREE);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,29 @@
+package service;
+
+import model.Task;
+import java.util.List;
+
+/**
+ * Hears from a task loader while it runs: how much of its input has been
+ * read, and id-ordered prefixes of the tasks parsed so far, which may be
+ * shown before the load completes. Calls may come from pool threads, and a
+ * prefix is only valid for the duration of the call.
+ */
+interface LoadListener {
+    int FIRST_PREFIX = 1_000;
+    int PREFIX_GROWTH = 8;
+
+    LoadListener NONE = new LoadListener() {
+        @Override
+        public void progress(int percent) {
+        }
+
+        @Override
+        public void prefix(List<Task> tasks) {
+        }
+    };
+
+    void progress(int percent);
+
+    void prefix(List<Task> tasks);
+}
@@ -0,0 +1,315 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads tasks.csv by memory-mapping it in newline-aligned chunks and parsing
+ * the chunks in parallel on the common fork-join pool. Fields are decoded
+ * straight from the mapped bytes without splitting lines into arrays;
+ * status bytes are matched against each {@link TaskStatus} label directly.
+ * Rows that are malformed or have an unknown status are skipped. A small
+ * lead chunk is parsed before the others and handed to the
+ * {@link LoadListener} as an early prefix.
+ */
+class MappedTaskLoader {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    // About a thousand rows: enough for the first screen, parsed alone.
+    private static final int LEAD_CHUNK_SIZE = 64 << 10;
+    private static final int MAX_CHUNK_SIZE = 64 << 20;
+    private static final int FIELD_COUNT = 6;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final byte[][] LABELS = new byte[STATUSES.length][];
+
+    static {
+        for (int i = 0; i < STATUSES.length; i++) {
+            LABELS[i] = STATUSES[i].getLabel().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    static final class Result {
+        final List<Task> tasks;
+        final int maxId;
+
+        Result(List<Task> tasks, int maxId) {
+            this.tasks = tasks;
+            this.maxId = maxId;
+        }
+    }
+
+    private MappedTaskLoader() {}
+
+    static Result load(Path path, LoadListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = skipLine(channel, 0, size);
+
+            // The lead chunk is parsed first and on its own, so its rows can
+            // be shown while the rest of the file is split across the pool.
+            long leadEnd = start + LEAD_CHUNK_SIZE >= size ? size : skipLine(channel, start + LEAD_CHUNK_SIZE, size);
+            Progress progress = new Progress(size - start, listener);
+            ChunkParser lead = new ChunkParser(channel, start, leadEnd, progress);
+            lead.compute();
+            if (lead.error == null && lead.ordered && leadEnd < size) {
+                listener.prefix(lead.tasks);
+            }
+
+            List<ChunkParser> chunks = new ArrayList<>();
+            chunks.add(lead);
+            chunks.addAll(split(channel, leadEnd, size, progress));
+
+            List<ChunkParser> rest = chunks.subList(1, chunks.size());
+            ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(rest);
+                }
+            });
+
+            int total = 0;
+            int maxId = 0;
+            boolean ordered = true;
+            int lastId = Integer.MIN_VALUE;
+            for (ChunkParser chunk : chunks) {
+                if (chunk.error != null) {
+                    throw chunk.error;
+                }
+                total += chunk.tasks.size();
+                maxId = Math.max(maxId, chunk.maxId);
+                if (!chunk.tasks.isEmpty()) {
+                    ordered &= chunk.ordered && chunk.tasks.get(0).getId() >= lastId;
+                    lastId = chunk.tasks.get(chunk.tasks.size() - 1).getId();
+                }
+            }
+
+            List<Task> tasks = new ArrayList<>(total);
+            for (ChunkParser chunk : chunks) {
+                tasks.addAll(chunk.tasks);
+            }
+            if (!ordered) {
+                tasks.sort(Comparator.comparingInt(Task::getId));
+            }
+            return new Result(tasks, maxId);
+        }
+    }
+
+    private static List<ChunkParser> split(FileChannel channel, long start, long size, Progress progress)
+            throws IOException {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long target = (size - start) / (parallelism * 4L) + 1;
+        target = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, target));
+
+        List<ChunkParser> chunks = new ArrayList<>();
+        while (start < size) {
+            long end = start + target >= size ? size : skipLine(channel, start + target, size);
+            chunks.add(new ChunkParser(channel, start, end, progress));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the offset just past the first newline at or after {@code from}.
+     */
+    private static long skipLine(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long pos = from;
+        while (pos < size) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    /**
+     * Reports the share of the file's bytes parsed so far.
+     */
+    private static final class Progress {
+        private final long size;
+        private final LoadListener listener;
+        private final AtomicLong parsed = new AtomicLong();
+
+        Progress(long size, LoadListener listener) {
+            this.size = Math.max(1, size);
+            this.listener = listener;
+        }
+
+        void advance(long bytes) {
+            listener.progress((int) (parsed.addAndGet(bytes) * 100 / size));
+        }
+    }
+
+    private static final class ChunkParser extends RecursiveAction {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final Progress progress;
+
+        private final List<Task> tasks = new ArrayList<>();
+        private final int[] commas = new int[FIELD_COUNT - 1];
+        private byte[] line = new byte[256];
+        private int maxId;
+        private boolean ordered = true;
+        private int lastDateKey = -1;
+        private LocalDate lastDate;
+        private IOException error;
+
+        ChunkParser(FileChannel channel, long start, long end, Progress progress) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            parse();
+            progress.advance(end - start);
+        }
+
+        private void parse() {
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                error = e;
+                return;
+            }
+
+            int limit = buffer.limit();
+            int lineStart = 0;
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    parseLine(buffer, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < limit) {
+                parseLine(buffer, lineStart, limit);
+            }
+        }
+
+        private void parseLine(MappedByteBuffer buffer, int from, int to) {
+            if (to > from && buffer.get(to - 1) == '\r') {
+                to--;
+            }
+            int length = to - from;
+            if (length > line.length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            buffer.get(from, line, 0, length);
+
+            int found = 0;
+            for (int i = 0; i < length; i++) {
+                if (line[i] == ',') {
+                    if (found == commas.length) {
+                        return;
+                    }
+                    commas[found++] = i;
+                }
+            }
+            if (found != commas.length) {
+                return;
+            }
+
+            int id = parseInt(line, 0, commas[0]);
+            TaskStatus status = status(commas[2] + 1, commas[3]);
+            LocalDate createdDate = date(commas[4] + 1, length);
+            if (id < 0 || status == null || createdDate == null) {
+                return;
+            }
+            Task task = new Task(id,
+                    text(commas[0] + 1, commas[1]),
+                    text(commas[1] + 1, commas[2]),
+                    status,
+                    text(commas[3] + 1, commas[4]),
+                    createdDate);
+
+            if (!tasks.isEmpty() && id < tasks.get(tasks.size() - 1).getId()) {
+                ordered = false;
+            }
+            tasks.add(task);
+            maxId = Math.max(maxId, id);
+        }
+
+        private String text(int from, int to) {
+            return new String(line, from, to - from, StandardCharsets.UTF_8);
+        }
+
+        private TaskStatus status(int from, int to) {
+            for (int i = 0; i < STATUSES.length; i++) {
+                if (Arrays.equals(line, from, to, LABELS[i], 0, LABELS[i].length)) {
+                    return STATUSES[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Parses yyyy-MM-dd from the line bytes. Consecutive rows usually
+         * share a date, so the last one is reused instead of rebuilt.
+         */
+        private LocalDate date(int from, int to) {
+            if (to - from != 10 || line[from + 4] != '-' || line[from + 7] != '-') {
+                return null;
+            }
+            int year = parseInt(line, from, from + 4);
+            int month = parseInt(line, from + 5, from + 7);
+            int day = parseInt(line, from + 8, to);
+            if (year < 0 || month < 0 || day < 0) {
+                return null;
+            }
+            int key = year * 10_000 + month * 100 + day;
+            if (key != lastDateKey) {
+                try {
+                    lastDate = LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    return null;
+                }
+                lastDateKey = key;
+            }
+            return lastDate;
+        }
+
+        private static int parseInt(byte[] bytes, int from, int to) {
+            if (from == to || to - from > 9) {
+                return -1;
+            }
+            int value = 0;
+            for (int i = from; i < to; i++) {
+                int digit = bytes[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package service;
+
+import model.Task;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable permutation of task ids in the order of a comparator over
+ * tasks, for sort keys no group index covers. It is chunked like
+ * {@link IdRun}: {@link #with} and {@link #without} copy one chunk plus the
+ * chunk directory and share the rest. They find their position by binary
+ * search, looking up only the tasks they probe, so keeping the order
+ * current costs about 20 lookups per change instead of a new sort.
+ */
+final class OrderIndex {
+    private static final int CHUNK_SIZE = 1024;
+
+    private final int[][] chunks;
+    private final int[] ends;
+
+    private OrderIndex(int[][] chunks, int[] ends) {
+        this.chunks = chunks;
+        this.ends = ends;
+    }
+
+    /**
+     * Builds an index from ids that are already in order.
+     */
+    static OrderIndex of(int[] ordered) {
+        int[][] chunks = new int[(ordered.length + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+        int[] ends = new int[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            int from = i * CHUNK_SIZE;
+            chunks[i] = Arrays.copyOfRange(ordered, from, Math.min(ordered.length, from + CHUNK_SIZE));
+            ends[i] = from + chunks[i].length;
+        }
+        return new OrderIndex(chunks, ends);
+    }
+
+    int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    int get(int index) {
+        int chunk = Arrays.binarySearch(ends, index);
+        chunk = chunk >= 0 ? chunk + 1 : -chunk - 1;
+        return chunks[chunk][index - (chunk == 0 ? 0 : ends[chunk - 1])];
+    }
+
+    /**
+     * Returns the order with {@code task} inserted; {@code tasks} resolves the
+     * ids already in the order.
+     */
+    OrderIndex with(Task task, Comparator<Task> order, IntFunction<Task> tasks) {
+        if (chunks.length == 0) {
+            return new OrderIndex(new int[][] { { task.getId() } }, new int[] { 1 });
+        }
+        int c = chunkFor(task, order, tasks);
+        int[] chunk = chunks[c];
+        int at = lowerBound(chunk, task, order, tasks);
+        int[] grown = new int[chunk.length + 1];
+        System.arraycopy(chunk, 0, grown, 0, at);
+        grown[at] = task.getId();
+        System.arraycopy(chunk, at, grown, at + 1, chunk.length - at);
+        if (grown.length <= 2 * CHUNK_SIZE) {
+            return replaceChunk(c, grown);
+        }
+
+        int[][] split = new int[chunks.length + 1][];
+        System.arraycopy(chunks, 0, split, 0, c);
+        split[c] = Arrays.copyOfRange(grown, 0, CHUNK_SIZE);
+        split[c + 1] = Arrays.copyOfRange(grown, CHUNK_SIZE, grown.length);
+        System.arraycopy(chunks, c + 1, split, c + 2, chunks.length - c - 1);
+        int[] splitEnds = new int[ends.length + 1];
+        System.arraycopy(ends, 0, splitEnds, 0, c);
+        splitEnds[c] = (c == 0 ? 0 : ends[c - 1]) + CHUNK_SIZE;
+        for (int i = c; i < ends.length; i++) {
+            splitEnds[i + 1] = ends[i] + 1;
+        }
+        return new OrderIndex(split, splitEnds);
+    }
+
+    /**
+     * Returns the order without {@code task}, which must be the task as it
+     * was when inserted; {@code tasks} resolves ids as of that time.
+     */
+    OrderIndex without(Task task, Comparator<Task> order, IntFunction<Task> tasks) {
+        if (chunks.length == 0) {
+            return this;
+        }
+        int c = chunkFor(task, order, tasks);
+        int[] chunk = chunks[c];
+        int at = lowerBound(chunk, task, order, tasks);
+        if (at == chunk.length || chunk[at] != task.getId()) {
+            return this;
+        }
+        if (chunk.length > 1) {
+            int[] shrunk = new int[chunk.length - 1];
+            System.arraycopy(chunk, 0, shrunk, 0, at);
+            System.arraycopy(chunk, at + 1, shrunk, at, chunk.length - at - 1);
+            return replaceChunk(c, shrunk);
+        }
+
+        int[][] remaining = new int[chunks.length - 1][];
+        System.arraycopy(chunks, 0, remaining, 0, c);
+        System.arraycopy(chunks, c + 1, remaining, c, chunks.length - c - 1);
+        int[] remainingEnds = new int[ends.length - 1];
+        System.arraycopy(ends, 0, remainingEnds, 0, c);
+        for (int i = c + 1; i < ends.length; i++) {
+            remainingEnds[i - 1] = ends[i] - 1;
+        }
+        return new OrderIndex(remaining, remainingEnds);
+    }
+
+    private OrderIndex replaceChunk(int c, int[] chunk) {
+        int[][] copy = chunks.clone();
+        copy[c] = chunk;
+        int[] copyEnds = ends.clone();
+        int delta = chunk.length - chunks[c].length;
+        for (int i = c; i < copyEnds.length; i++) {
+            copyEnds[i] += delta;
+        }
+        return new OrderIndex(copy, copyEnds);
+    }
+
+    /**
+     * Returns the last chunk whose first task does not sort after
+     * {@code task}, or the first chunk if there is none.
+     */
+    private int chunkFor(Task task, Comparator<Task> order, IntFunction<Task> tasks) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (order.compare(tasks.apply(chunks[mid][0]), task) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(int[] chunk, Task task, Comparator<Task> order, IntFunction<Task> tasks) {
+        int low = 0;
+        int high = chunk.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(tasks.apply(chunk[mid]), task) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,66 @@
+package service;
+
+import java.util.List;
+
+/**
+ * How a {@link TaskQuery} was executed: which access path produced the
+ * candidate ids, which other indexes they were intersected with, and
+ * whether the matches had to be sorted.
+ */
+public class QueryPlan {
+
+    public enum Access {
+        STATUS_INDEX, ASSIGNEE_INDEX, CREATED_INDEX, TEXT_INDEX, FULL_SCAN
+    }
+
+    private final Access driver;
+    private final List<Access> intersections;
+    private final int candidateCount;
+    private final boolean sorted;
+
+    QueryPlan(Access driver, List<Access> intersections, int candidateCount, boolean sorted) {
+        this.driver = driver;
+        this.intersections = List.copyOf(intersections);
+        this.candidateCount = candidateCount;
+        this.sorted = sorted;
+    }
+
+    public Access getDriver() {
+        return driver;
+    }
+
+    public List<Access> getIntersections() {
+        return intersections;
+    }
+
+    /**
+     * Number of rows the driver produced before intersection.
+     */
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    /**
+     * Whether the matches had to be sorted, as opposed to read in order
+     * from the candidates or a sort order the snapshot keeps.
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    public boolean isFullScan() {
+        return driver == Access.FULL_SCAN;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder plan = new StringBuilder(driver.name()).append('(').append(candidateCount).append(')');
+        for (Access access : intersections) {
+            plan.append(" & ").append(access.name());
+        }
+        if (sorted) {
+            plan.append(" sort");
+        }
+        return plan.toString();
+    }
+}
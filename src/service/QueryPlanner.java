@@ -0,0 +1,289 @@
+package service;
+
+import model.Task;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Executes a {@link TaskQuery} against a task snapshot. Every criterion
+ * that has an index contributes a candidate id set; the smallest set drives
+ * the lookup and the others are intersected by membership probes. Results
+ * come out in the snapshot's sort orders where possible: a query without
+ * criteria is the order itself, and a large match set is read off it
+ * instead of being sorted. Results are views over the snapshot.
+ *
+ * <p>The text criterion is matched beforehand by {@link SnapshotTextIndex},
+ * which also picks the snapshot, so planning holds no lock. A query for
+ * the best matches of its text is answered by the index, with the other
+ * criteria tested on its matches. Long loops give up with a
+ * {@code CancellationException} once the thread is interrupted.
+ */
+class QueryPlanner {
+    private static final int MISSING = -1;
+    // Walk a sort order rather than sort the matches once they are at least
+    // 1/WALK_RATIO of all tasks; below that, n log n on the matches wins.
+    private static final int WALK_RATIO = 16;
+    private static final int CANCEL_CHECK_MASK = 4095;
+
+    /**
+     * Runs {@code query} against {@code tasks}. {@code text} holds the
+     * matches of the query's text in those same tasks, or is {@code null}
+     * when the query has no text.
+     */
+    TaskQueryResult execute(TaskQuery query, TaskSnapshot tasks, SnapshotTextIndex.Matches text) {
+        IntIntHashMap textScores = text == null ? null : text.scores;
+        int[] textMatches = text == null ? null : text.ids;
+        String textQuery = text == null ? null : text.text;
+
+        List<QueryPlan.Access> indexed = criteria(query);
+        if (textScores != null) {
+            indexed.add(QueryPlan.Access.TEXT_INDEX);
+        }
+        indexed.sort(Comparator.comparingInt(access -> cardinality(access, query, tasks, textScores)));
+
+        TaskQuery.SortKey key = query.getSortKey() == TaskQuery.SortKey.RELEVANCE && textScores == null
+                ? TaskQuery.SortKey.ID
+                : query.getSortKey();
+        int limit = query.getLimit();
+
+        if (indexed.isEmpty()) {
+            // Every task matches, so the snapshot's sort order is the answer.
+            List<Task> all = tasks.getTasksSortedBy(key, query.isDescending());
+            QueryPlan plan = new QueryPlan(QueryPlan.Access.FULL_SCAN, List.of(), tasks.size(), false);
+            return new TaskQueryResult(all.size() > limit ? all.subList(0, limit) : all, plan, textQuery,
+                    tasks.getVersion(), textMatches);
+        }
+
+        QueryPlan.Access driver = indexed.get(0);
+        List<QueryPlan.Access> probes = indexed.subList(1, indexed.size());
+        int[] candidates = driver == QueryPlan.Access.TEXT_INDEX ? textMatches : candidates(driver, query, tasks);
+        boolean byId = key == TaskQuery.SortKey.ID;
+        // In id order the candidates are already sorted, so matching can stop
+        // at the limit, counting from whichever end the order starts.
+        int stopAt = byId ? limit : Integer.MAX_VALUE;
+        boolean reverse = byId && query.isDescending();
+        int[] matches = new int[Math.min(candidates.length, stopAt)];
+        int count = 0;
+        candidates:
+        for (int i = 0; i < candidates.length && count < stopAt; i++) {
+            if ((i & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            int id = candidates[reverse ? candidates.length - 1 - i : i];
+            for (QueryPlan.Access probe : probes) {
+                if (!contains(probe, id, query, tasks, textScores)) {
+                    continue candidates;
+                }
+            }
+            matches[count++] = id;
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+        boolean sorted = false;
+        if (key == TaskQuery.SortKey.RELEVANCE) {
+            count = byScore(matches, count, textScores, query.isDescending());
+            sorted = true;
+        } else if (!byId) {
+            if ((long) count * WALK_RATIO >= tasks.size()) {
+                count = walkOrder(matches, count, tasks, key, query.isDescending(), limit);
+            } else {
+                count = sortMatches(matches, count, tasks, key, query.isDescending());
+                sorted = true;
+            }
+        }
+        QueryPlan plan = new QueryPlan(driver, probes, candidates.length, sorted);
+        return new TaskQueryResult(tasks.tasksWithIds(matches, Math.min(count, limit)), plan, textQuery,
+                tasks.getVersion(), textMatches);
+    }
+
+    /**
+     * Whether {@code query} asks for the best matches of its text, best
+     * first. The text index finds those itself, testing the other criteria
+     * on each match, without matching the text in full; see {@link #filter}
+     * and {@link #ranked}.
+     */
+    static boolean isRankedText(TaskQuery query) {
+        return query.getText() != null && query.getSortKey() == TaskQuery.SortKey.RELEVANCE
+                && !query.isDescending();
+    }
+
+    /**
+     * The criteria of {@code query} other than text as a test on the ids of
+     * {@code tasks}, or {@code null} when there are none. The index may test
+     * many thousands of matches, so the most selective criterion is turned
+     * into a bitmap up front rather than searched for each; the others are
+     * probed only for ids that pass it.
+     */
+    static IntPredicate filter(TaskQuery query, TaskSnapshot tasks) {
+        List<QueryPlan.Access> indexed = criteria(query);
+        if (indexed.isEmpty()) {
+            return null;
+        }
+        indexed.sort(Comparator.comparingInt(access -> cardinality(access, query, tasks, null)));
+        BitSet driver = new BitSet();
+        for (int id : ids(indexed.get(0), query, tasks)) {
+            driver.set(id);
+        }
+        List<QueryPlan.Access> probes = indexed.subList(1, indexed.size());
+        return id -> {
+            if (!driver.get(id)) {
+                return false;
+            }
+            for (QueryPlan.Access probe : probes) {
+                if (!contains(probe, id, query, tasks, null)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * The result of a query for which {@link #isRankedText} holds, from
+     * the index's best matches that passed its {@link #filter}. It carries
+     * no text matches to narrow: the next query is ranked as quickly
+     * without them.
+     */
+    TaskQueryResult ranked(TaskQuery query, SnapshotTextIndex.Ranked ranked) {
+        QueryPlan plan = new QueryPlan(QueryPlan.Access.TEXT_INDEX, criteria(query), ranked.ids.length, true);
+        return new TaskQueryResult(ranked.tasks.tasksWithIds(ranked.ids, ranked.ids.length), plan, null,
+                ranked.tasks.getVersion(), null);
+    }
+
+    /**
+     * The indexes that answer the criteria of {@code query} other than text.
+     */
+    private static List<QueryPlan.Access> criteria(TaskQuery query) {
+        List<QueryPlan.Access> indexed = new ArrayList<>();
+        if (query.getStatus() != null) {
+            indexed.add(QueryPlan.Access.STATUS_INDEX);
+        }
+        if (query.getAssignedTo() != null) {
+            indexed.add(QueryPlan.Access.ASSIGNEE_INDEX);
+        }
+        if (query.getCreatedFrom() != null || query.getCreatedTo() != null) {
+            indexed.add(QueryPlan.Access.CREATED_INDEX);
+        }
+        return indexed;
+    }
+
+    /**
+     * Orders matches by falling score, then id, in place.
+     */
+    private static int byScore(int[] matches, int count, IntIntHashMap textScores, boolean descending) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = (long) -textScores.get(matches[i], MISSING) << 32 | matches[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < count; i++) {
+            matches[descending ? count - 1 - i : i] = (int) keys[i];
+        }
+        return count;
+    }
+
+    /**
+     * Reads the snapshot's sort order for {@code key} from the start and
+     * keeps the ids that matched, stopping at {@code limit}: no comparison
+     * and no task is decoded. Pays when the matches are a sizeable share of
+     * all tasks, where sorting them would cost more than the walk.
+     */
+    private static int walkOrder(int[] matches, int count, TaskSnapshot tasks, TaskQuery.SortKey key,
+                                 boolean descending, int limit) {
+        BitSet matched = new BitSet();
+        for (int i = 0; i < count; i++) {
+            if ((i & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            matched.set(matches[i]);
+        }
+        IntUnaryOperator order = tasks.order(key);
+        int size = tasks.size();
+        int found = 0;
+        for (int i = 0; i < size && found < count && found < limit; i++) {
+            if ((i & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            int id = order.applyAsInt(descending ? size - 1 - i : i);
+            if (matched.get(id)) {
+                matches[found++] = id;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Sorts a small set of matches by comparing their tasks.
+     */
+    private static int sortMatches(int[] matches, int count, TaskSnapshot tasks, TaskQuery.SortKey key,
+                                   boolean descending) {
+        Task[] found = new Task[count];
+        for (int i = 0; i < count; i++) {
+            found[i] = tasks.getTaskById(matches[i]);
+        }
+        Comparator<Task> order = TaskSnapshot.comparator(key);
+        Arrays.sort(found, descending ? order.reversed() : order);
+        for (int i = 0; i < count; i++) {
+            matches[i] = found[i].getId();
+        }
+        return count;
+    }
+
+    private static int cardinality(QueryPlan.Access access, TaskQuery query, TaskSnapshot tasks,
+                                   IntIntHashMap textScores) {
+        return switch (access) {
+            case STATUS_INDEX -> tasks.statusIds(query.getStatus()).size();
+            case ASSIGNEE_INDEX -> tasks.assigneeIds(query.getAssignedTo()).size();
+            case CREATED_INDEX -> tasks.createdIds().count(CreatedIndex.lower(query.getCreatedFrom()),
+                    CreatedIndex.upper(query.getCreatedTo()));
+            case TEXT_INDEX -> textScores.size();
+            case FULL_SCAN -> tasks.size();
+        };
+    }
+
+    /**
+     * Returns the ids of a driver other than text in ascending order.
+     */
+    private static int[] candidates(QueryPlan.Access access, TaskQuery query, TaskSnapshot tasks) {
+        int[] ids = ids(access, query, tasks);
+        if (access == QueryPlan.Access.CREATED_INDEX) {
+            Arrays.sort(ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the ids of a criterion other than text; only those of the
+     * created index are out of order.
+     */
+    private static int[] ids(QueryPlan.Access access, TaskQuery query, TaskSnapshot tasks) {
+        return switch (access) {
+            case STATUS_INDEX -> tasks.statusIds(query.getStatus()).toArray();
+            case ASSIGNEE_INDEX -> tasks.assigneeIds(query.getAssignedTo()).toArray();
+            default -> tasks.createdIds().ids(CreatedIndex.lower(query.getCreatedFrom()),
+                    CreatedIndex.upper(query.getCreatedTo()));
+        };
+    }
+
+    private static boolean contains(QueryPlan.Access access, int id, TaskQuery query, TaskSnapshot tasks,
+                                    IntIntHashMap textScores) {
+        return switch (access) {
+            case STATUS_INDEX -> tasks.statusIds(query.getStatus()).contains(id);
+            case ASSIGNEE_INDEX -> tasks.assigneeIds(query.getAssignedTo()).contains(id);
+            case CREATED_INDEX -> {
+                int day = tasks.rows().createdDay(id);
+                yield day >= CreatedIndex.lower(query.getCreatedFrom())
+                        && day <= CreatedIndex.upper(query.getCreatedTo());
+            }
+            default -> textScores.containsKey(id);
+        };
+    }
+}
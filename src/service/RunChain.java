@@ -0,0 +1,37 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Positional view over consecutive {@link IdRun}s. This is how the group
+ * indexes double as sort orders: tasks sorted by a grouped column, such as
+ * status, are the groups in key order with each group in id order.
+ */
+final class RunChain {
+    private final IdRun[] runs;
+    private final int[] ends;
+
+    RunChain(IdRun[] runs) {
+        this.runs = runs;
+        ends = new int[runs.length];
+        int end = 0;
+        for (int i = 0; i < runs.length; i++) {
+            end += runs[i].size();
+            ends[i] = end;
+        }
+    }
+
+    int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    int get(int index) {
+        int run = Arrays.binarySearch(ends, index);
+        // Skip empty groups, which share their end with the group before.
+        run = run >= 0 ? run + 1 : -run - 1;
+        while (runs[run].size() == 0) {
+            run++;
+        }
+        return runs[run].get(index - (run == 0 ? 0 : ends[run - 1]));
+    }
+}
@@ -0,0 +1,238 @@
+package service;
+
+import model.Task;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a {@link TextIndex} in step with the published task snapshots
+ * without the manager's lock. Writers queue each change to the text with
+ * the version of the snapshot that carries it, before publishing that
+ * snapshot, and never wait: the queue is applied under the index's own
+ * lock by whoever reads next, up to the snapshot current at that moment.
+ * A reader therefore matches against exactly the snapshot it is handed
+ * back, however long it runs and whatever is edited meanwhile.
+ *
+ * <p>A reload queues a reset, which means rebuilding from the tasks; only
+ * readers and the loader do that, never a writer.
+ */
+final class SnapshotTextIndex {
+    private static final int CANCEL_CHECK_MASK = 4095;
+
+    private final Supplier<TaskSnapshot> snapshots;
+    private final TextIndex index = new TextIndex();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentLinkedQueue<Edit> edits = new ConcurrentLinkedQueue<>();
+    // Guarded by lock. Set by a queued reset until the rebuild completes.
+    private boolean rebuild;
+
+    SnapshotTextIndex(Supplier<TaskSnapshot> snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Queues the text of {@code task} as of snapshot {@code version}. Call it
+     * before that snapshot is published.
+     */
+    void put(Task task, long version) {
+        edits.add(new Edit(Edit.Kind.PUT, version, task.getId(), task.getTitle(), task.getDescription()));
+    }
+
+    void remove(int taskId, long version) {
+        edits.add(new Edit(Edit.Kind.REMOVE, version, taskId, null, null));
+    }
+
+    void reset(long version) {
+        edits.add(new Edit(Edit.Kind.RESET, version, 0, null, null));
+    }
+
+    /**
+     * Applies the queued edits if nobody holds the index and no rebuild is
+     * due; returns at once otherwise. Writers call it after publishing, so
+     * the queue stays short while nobody searches.
+     */
+    void tryCatchUp() {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            catchUp(snapshots.get(), false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Brings the index up to the current snapshot, rebuilding it if a reload
+     * is queued. The loader calls it once the tasks are read, so the first
+     * search finds the index built.
+     */
+    void build() {
+        lock.lock();
+        try {
+            catchUp(snapshots.get(), true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Matches {@code text} against the current snapshot, which the result
+     * carries. Narrows the text matches of {@code previous} instead where
+     * they are from the same snapshot and the new text can only match a
+     * subset of them; see {@link TextIndex#narrows}. Interrupting the
+     * calling thread, also while it waits for the index, abandons the match
+     * with a {@code CancellationException}.
+     */
+    Matches match(String text, TaskQueryResult previous) {
+        lockInterruptibly();
+        try {
+            TaskSnapshot tasks = snapshots.get();
+            catchUp(tasks, true);
+            boolean narrow = previous != null && previous.textMatches != null
+                    && previous.version == tasks.getVersion() && TextIndex.narrows(previous.text, text);
+            IntIntHashMap scores = narrow ? index.match(text, previous.textMatches) : index.match(text);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            return new Matches(tasks, text, scores);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} tasks of the current snapshot matching
+     * {@code query}, best match first.
+     */
+    List<Task> search(String query, int limit) {
+        Ranked ranked = rank(query, limit, tasks -> null);
+        List<Task> result = new ArrayList<>(ranked.ids.length);
+        for (int id : ranked.ids) {
+            result.add(ranked.tasks.getTaskById(id));
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #search}, but returns the ids with the snapshot they are
+     * from, keeping only those that the test {@code filter} makes for that
+     * snapshot accepts; the test may be {@code null}. Blocks of matches that
+     * cannot beat the best found so far are skipped, so this stays fast for
+     * terms that most tasks contain.
+     */
+    Ranked rank(String query, int limit, Function<TaskSnapshot, IntPredicate> filter) {
+        lockInterruptibly();
+        try {
+            TaskSnapshot tasks = snapshots.get();
+            catchUp(tasks, true);
+            return new Ranked(tasks, index.search(query, limit, filter.apply(tasks)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void lockInterruptibly() {
+        try {
+            lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Applies the edits queued up to {@code tasks}, which is at least as new
+     * as any snapshot applied before. Without {@code mayRebuild} it stops at
+     * a reset, leaving it queued.
+     */
+    private void catchUp(TaskSnapshot tasks, boolean mayRebuild) {
+        Edit edit;
+        while ((edit = edits.peek()) != null && edit.version <= tasks.getVersion()) {
+            if (edit.kind == Edit.Kind.RESET) {
+                if (!mayRebuild) {
+                    return;
+                }
+                rebuild = true;
+            } else if (!rebuild) {
+                switch (edit.kind) {
+                    case PUT -> index.put(edit.taskId, edit.title, edit.description);
+                    default -> index.remove(edit.taskId);
+                }
+            }
+            edits.poll();
+        }
+        if (rebuild && mayRebuild) {
+            index.clear();
+            // The snapshot covers every edit drained above. An interrupted
+            // rebuild leaves the flag set for the next reader.
+            List<Task> all = tasks.getAllTasks();
+            for (int i = 0; i < all.size(); i++) {
+                if ((i & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                Task task = all.get(i);
+                index.put(task.getId(), task.getTitle(), task.getDescription());
+            }
+            rebuild = false;
+        }
+    }
+
+    /**
+     * The text matches of a query and the snapshot they were matched in.
+     */
+    static final class Matches {
+        final TaskSnapshot tasks;
+        final String text;
+        final IntIntHashMap scores;
+        // The matching ids, ascending.
+        final int[] ids;
+
+        private Matches(TaskSnapshot tasks, String text, IntIntHashMap scores) {
+            this.tasks = tasks;
+            this.text = text;
+            this.scores = scores;
+            this.ids = scores.keys();
+            Arrays.sort(ids);
+        }
+    }
+
+    /**
+     * The best matches of a query, best first, and the snapshot they were
+     * matched in.
+     */
+    static final class Ranked {
+        final TaskSnapshot tasks;
+        final int[] ids;
+
+        private Ranked(TaskSnapshot tasks, int[] ids) {
+            this.tasks = tasks;
+            this.ids = ids;
+        }
+    }
+
+    private static final class Edit {
+        enum Kind { PUT, REMOVE, RESET }
+
+        final Kind kind;
+        final long version;
+        final int taskId;
+        final String title;
+        final String description;
+
+        Edit(Kind kind, long version, int taskId, String title, String description) {
+            this.kind = kind;
+            this.version = version;
+            this.taskId = taskId;
+            this.title = title;
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package service;
+
+import model.TaskStatus;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Trend reports over one {@link TaskSnapshot}: tasks created per day and
+ * per week, completion per assignee and the age of the open backlog. The
+ * snapshot's chunks are split across the common fork-join pool; each leaf
+ * fills its own accumulator from the status, assignee and day columns,
+ * and the accumulators are merged pairwise on the way back up.
+ */
+public final class TaskAnalytics {
+    private static final int CHUNKS_PER_LEAF = 16;
+
+    public enum AgeBucket {
+        WEEK("Up to 1 week", 7),
+        MONTH("1 week - 1 month", 30),
+        QUARTER("1 - 3 months", 90),
+        YEAR("3 - 12 months", 365),
+        OLDER("Over a year", Integer.MAX_VALUE);
+
+        private static final AgeBucket[] VALUES = values();
+
+        private final String label;
+        private final int maxDays;
+
+        AgeBucket(String label, int maxDays) {
+            this.label = label;
+            this.maxDays = maxDays;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        static AgeBucket of(int ageDays) {
+            for (AgeBucket bucket : VALUES) {
+                if (ageDays <= bucket.maxDays) {
+                    return bucket;
+                }
+            }
+            return OLDER;
+        }
+    }
+
+    public static final class Completion {
+        private final String assignee;
+        private final int total;
+        private final int done;
+
+        Completion(String assignee, int total, int done) {
+            this.assignee = assignee;
+            this.total = total;
+            this.done = done;
+        }
+
+        public String getAssignee() {
+            return assignee;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getDone() {
+            return done;
+        }
+
+        public int getPercent() {
+            return total > 0 ? (int) (done * 100L / total) : 0;
+        }
+    }
+
+    private final long version;
+    private final SortedMap<LocalDate, Integer> createdPerDay;
+    private final SortedMap<LocalDate, Integer> createdPerWeek;
+    private final List<Completion> completion;
+    private final int[] backlog;
+
+    private TaskAnalytics(long version, SortedMap<LocalDate, Integer> createdPerDay,
+                          SortedMap<LocalDate, Integer> createdPerWeek, List<Completion> completion, int[] backlog) {
+        this.version = version;
+        this.createdPerDay = Collections.unmodifiableSortedMap(createdPerDay);
+        this.createdPerWeek = Collections.unmodifiableSortedMap(createdPerWeek);
+        this.completion = Collections.unmodifiableList(completion);
+        this.backlog = backlog;
+    }
+
+    /**
+     * Computes every report for {@code snapshot}, measuring backlog age
+     * against {@code today}. Blocks until done, so call it off the EDT.
+     * {@code progress} receives whole percentages as chunks finish, from
+     * pool threads; it may be {@code null}.
+     */
+    public static TaskAnalytics compute(TaskSnapshot snapshot, LocalDate today, IntConsumer progress) {
+        TaskRun rows = snapshot.rows();
+        // The dictionary only grows, so it may hold many more names than the
+        // snapshot uses. Counters get one slot per assignee in the snapshot,
+        // in name order, and a single table maps codes to slots.
+        String[] names = snapshot.getStats().getAssigneeCounts().keySet().toArray(new String[0]);
+        int[] slots = slots(rows.dictionaries().assignees, names);
+        Scan scan = new Scan(rows, 0, rows.chunkCount(), slots, names.length, Math.toIntExact(today.toEpochDay()),
+                new Progress(rows.chunkCount(), progress));
+        Totals totals = rows.chunkCount() == 0
+                ? new Totals(slots, names.length, 0)
+                : ForkJoinPool.commonPool().invoke(scan);
+
+        SortedMap<LocalDate, Integer> perDay = new TreeMap<>();
+        for (int day : totals.created.keys()) {
+            perDay.put(LocalDate.ofEpochDay(day), totals.created.get(day, 0));
+        }
+        SortedMap<LocalDate, Integer> perWeek = new TreeMap<>();
+        perDay.forEach((date, count) -> perWeek.merge(
+                date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), count, Integer::sum));
+
+        List<Completion> completion = new ArrayList<>(names.length);
+        for (int slot = 0; slot < names.length; slot++) {
+            completion.add(new Completion(names[slot], totals.assigned[slot], totals.done[slot]));
+        }
+
+        return new TaskAnalytics(snapshot.getVersion(), perDay, perWeek, completion, totals.backlog);
+    }
+
+    /**
+     * Maps each dictionary code to the position of its name in
+     * {@code names}, or -1 for names the snapshot does not use. Codes in
+     * the snapshot were assigned before it was published, so the
+     * dictionary covers every row we visit.
+     */
+    private static int[] slots(Dictionary dictionary, String[] names) {
+        Map<String, Integer> slotByName = new HashMap<>();
+        for (int slot = 0; slot < names.length; slot++) {
+            slotByName.put(names[slot], slot);
+        }
+        int[] slots = new int[dictionary.size()];
+        for (int code = 0; code < slots.length; code++) {
+            slots[code] = slotByName.getOrDefault(dictionary.decode(code), -1);
+        }
+        return slots;
+    }
+
+    /**
+     * The version of the snapshot that was analysed.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public SortedMap<LocalDate, Integer> getCreatedPerDay() {
+        return createdPerDay;
+    }
+
+    /**
+     * Tasks created per week, keyed by the Monday that starts the week.
+     */
+    public SortedMap<LocalDate, Integer> getCreatedPerWeek() {
+        return createdPerWeek;
+    }
+
+    /**
+     * Completion per assignee, ordered by name as the assignee column sorts.
+     */
+    public List<Completion> getCompletionByAssignee() {
+        return completion;
+    }
+
+    /**
+     * Number of open tasks whose age falls in {@code bucket}. Tasks created
+     * after {@code today} count as new.
+     */
+    public int getBacklog(AgeBucket bucket) {
+        return backlog[bucket.ordinal()];
+    }
+
+    /**
+     * Per-leaf accumulator. Two of them merge by adding their counters, so
+     * the result does not depend on how the chunks were split.
+     */
+    private static final class Totals implements TaskRun.RowVisitor {
+        private static final int DONE = TaskStatus.DONE.ordinal();
+
+        final IntIntHashMap created = new IntIntHashMap();
+        final int[] assigned;
+        final int[] done;
+        final int[] backlog = new int[AgeBucket.VALUES.length];
+        private final int[] slots;
+        private final int today;
+
+        Totals(int[] slots, int assignees, int today) {
+            this.slots = slots;
+            assigned = new int[assignees];
+            done = new int[assignees];
+            this.today = today;
+        }
+
+        @Override
+        public void visit(int status, int assignee, int day) {
+            created.put(day, created.get(day, 0) + 1);
+            int slot = slots[assignee];
+            assigned[slot]++;
+            if (status == DONE) {
+                done[slot]++;
+            } else {
+                backlog[AgeBucket.of(today - day).ordinal()]++;
+            }
+        }
+
+        Totals merge(Totals other) {
+            for (int day : other.created.keys()) {
+                created.put(day, created.get(day, 0) + other.created.get(day, 0));
+            }
+            for (int i = 0; i < assigned.length; i++) {
+                assigned[i] += other.assigned[i];
+                done[i] += other.done[i];
+            }
+            for (int i = 0; i < backlog.length; i++) {
+                backlog[i] += other.backlog[i];
+            }
+            return this;
+        }
+    }
+
+    private static final class Scan extends RecursiveTask<Totals> {
+        private final TaskRun rows;
+        private final int from;
+        private final int to;
+        private final int[] slots;
+        private final int assignees;
+        private final int today;
+        private final Progress progress;
+
+        Scan(TaskRun rows, int from, int to, int[] slots, int assignees, int today, Progress progress) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.slots = slots;
+            this.assignees = assignees;
+            this.today = today;
+            this.progress = progress;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= CHUNKS_PER_LEAF) {
+                Totals totals = new Totals(slots, assignees, today);
+                for (int c = from; c < to; c++) {
+                    rows.scan(c, totals);
+                }
+                progress.advance(to - from);
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            Scan left = new Scan(rows, from, mid, slots, assignees, today, progress);
+            left.fork();
+            Totals right = new Scan(rows, mid, to, slots, assignees, today, progress).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Counts finished chunks and reports each new whole percentage once.
+     */
+    private static final class Progress {
+        private final int chunks;
+        private final IntConsumer listener;
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicInteger reported = new AtomicInteger(-1);
+
+        Progress(int chunks, IntConsumer listener) {
+            this.chunks = chunks;
+            this.listener = listener;
+        }
+
+        void advance(int finished) {
+            if (listener == null) {
+                return;
+            }
+            int percent = (int) (done.addAndGet(finished) * 100L / chunks);
+            int last = reported.get();
+            if (percent > last && reported.compareAndSet(last, percent)) {
+                listener.accept(percent);
+            }
+        }
+    }
+}
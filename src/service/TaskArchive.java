@@ -0,0 +1,144 @@
+package service;
+
+import model.Task;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Read-only, random access to a task snapshot file of any size. Nothing
+ * is decoded up front: a row index kept next to the file maps each row
+ * number to its byte offset, so {@link #read(int, int)} costs two small
+ * positional reads however far into the file the rows are. Heap use is
+ * the assignee dictionary plus whatever the caller keeps.
+ *
+ * <p>The index lives in {@code <file>.rows}: magic "TFRI", format version,
+ * the length and modification time of the file it describes, row count,
+ * then {@code count + 1} big-endian longs, the last being the end of the
+ * rows. It is built on first open, which also verifies the file's
+ * checksum, and rebuilt whenever the file changes.
+ */
+public final class TaskArchive implements AutoCloseable {
+    private static final byte[] INDEX_MAGIC = { 'T', 'F', 'R', 'I' };
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER_BYTES = INDEX_MAGIC.length + Integer.BYTES + 2 * Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final FileChannel data;
+    private final FileChannel index;
+    private final TaskSnapshotFile.Header header;
+
+    private TaskArchive(Path path, FileChannel data, FileChannel index, TaskSnapshotFile.Header header) {
+        this.path = path;
+        this.data = data;
+        this.index = index;
+        this.header = header;
+    }
+
+    /**
+     * Opens a snapshot file, building its row index first if it is missing
+     * or stale. Building reads the whole file once, so call it off the EDT.
+     */
+    public static TaskArchive open(Path path) throws IOException {
+        FileChannel data = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            TaskSnapshotFile.Header header = TaskSnapshotFile.readHeader(data, path);
+            Path indexPath = path.resolveSibling(path.getFileName() + ".rows");
+            long length = data.size();
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (!isCurrent(indexPath, length, modified, header.count)) {
+                writeIndex(indexPath, data, header, path, length, modified);
+            }
+            return new TaskArchive(path, data, FileChannel.open(indexPath, StandardOpenOption.READ), header);
+        } catch (IOException | RuntimeException e) {
+            data.close();
+            throw e;
+        }
+    }
+
+    private static boolean isCurrent(Path indexPath, long length, long modified, int count) throws IOException {
+        if (!Files.exists(indexPath)
+                || Files.size(indexPath) != INDEX_HEADER_BYTES + (count + 1L) * Long.BYTES) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            ByteBuffer head = TaskSnapshotFile.read(channel, 0, INDEX_HEADER_BYTES);
+            for (byte b : INDEX_MAGIC) {
+                if (head.get() != b) {
+                    return false;
+                }
+            }
+            return head.getInt() == INDEX_VERSION && head.getLong() == length
+                    && head.getLong() == modified && head.getInt() == count;
+        }
+    }
+
+    private static void writeIndex(Path indexPath, FileChannel data, TaskSnapshotFile.Header header, Path path,
+                                   long length, long modified) throws IOException {
+        Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.write(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(length);
+            out.writeLong(modified);
+            out.writeInt(header.count);
+            IOException[] failure = new IOException[1];
+            TaskSnapshotFile.scanRows(data, header, path, offset -> {
+                if (failure[0] == null) {
+                    try {
+                        out.writeLong(offset);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return header.count;
+    }
+
+    /**
+     * Decodes rows {@code from} (inclusive) to {@code to} (exclusive), in
+     * file order. Safe to call from several threads.
+     */
+    public List<Task> read(int from, int to) throws IOException {
+        if (from < 0 || to > header.count || from > to) {
+            throw new IndexOutOfBoundsException("Rows " + from + " to " + to + " of " + header.count);
+        }
+        ByteBuffer offsets = TaskSnapshotFile.read(index,
+                INDEX_HEADER_BYTES + (long) from * Long.BYTES, (to - from + 1) * Long.BYTES);
+        long start = offsets.getLong(0);
+        long end = offsets.getLong((to - from) * Long.BYTES);
+        ByteBuffer rows = TaskSnapshotFile.read(data, start, Math.toIntExact(end - start));
+        return TaskSnapshotFile.decodeRows(rows, to - from, header, path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            index.close();
+        } finally {
+            data.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package service;
+
+import model.Task;
+
+/**
+ * One entry of the {@link TaskChangeFeed}: a task that was added, updated
+ * or deleted, with its value before and after the change and the version
+ * of the snapshot the change produced. {@link Kind#RELOADED} stands for
+ * "anything may have changed" and carries no task.
+ */
+public final class TaskChange {
+
+    public enum Kind {
+        ADDED, UPDATED, DELETED, RELOADED
+    }
+
+    private final Kind kind;
+    private final int taskId;
+    private final Task before;
+    private final Task after;
+    private final long version;
+
+    private TaskChange(Kind kind, int taskId, Task before, Task after, long version) {
+        this.kind = kind;
+        this.taskId = taskId;
+        this.before = before;
+        this.after = after;
+        this.version = version;
+    }
+
+    /**
+     * Describes task {@code taskId} going from {@code before} to
+     * {@code after}; either may be {@code null}, but not both.
+     */
+    static TaskChange of(int taskId, Task before, Task after, long version) {
+        Kind kind = before == null ? Kind.ADDED : after == null ? Kind.DELETED : Kind.UPDATED;
+        return new TaskChange(kind, taskId, before, after, version);
+    }
+
+    static TaskChange reloaded(long version) {
+        return new TaskChange(Kind.RELOADED, -1, null, null, version);
+    }
+
+    /**
+     * Folds {@code next}, a later change to the same task, into this one so
+     * a subscriber sees the net effect. Returns {@code null} when the two
+     * cancel out, as for a task added and deleted before delivery.
+     */
+    TaskChange then(TaskChange next) {
+        if (before == null && next.after == null) {
+            return null;
+        }
+        return of(taskId, before, next.after, next.version);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * The id of the changed task, or -1 for {@link Kind#RELOADED}.
+     */
+    public int getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * The task as it was before the change; {@code null} when it was added.
+     */
+    public Task getBefore() {
+        return before;
+    }
+
+    /**
+     * The task as it is after the change; {@code null} when it was deleted.
+     */
+    public Task getAfter() {
+        return after;
+    }
+
+    /**
+     * The version of the snapshot that contains this change. Versions grow
+     * with every published snapshot.
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,119 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Fans out {@link TaskChange}s to subscribers. Each subscriber has its own
+ * bounded queue and executor: changes that pile up before delivery are
+ * coalesced per task, so a task edited ten times arrives as one change, and
+ * a queue that would grow past its capacity collapses into a single
+ * {@link TaskChange.Kind#RELOADED}. Publishing never waits for a listener.
+ */
+public final class TaskChangeFeed {
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    TaskChangeFeed() {
+    }
+
+    Subscription subscribe(Executor executor, int capacity, Consumer<List<TaskChange>> listener) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        Subscription subscription = new Subscription(executor, capacity, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    void publish(TaskChange change) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(change);
+        }
+    }
+
+    /**
+     * A registration with the feed. The listener receives batches in publish
+     * order, one batch at a time, on the executor given at subscription.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final Executor executor;
+        private final int capacity;
+        private final Consumer<List<TaskChange>> listener;
+        private final Map<Integer, TaskChange> pending = new LinkedHashMap<>();
+        private TaskChange reload;
+        private boolean scheduled;
+        private volatile boolean closed;
+
+        private Subscription(Executor executor, int capacity, Consumer<List<TaskChange>> listener) {
+            this.executor = executor;
+            this.capacity = capacity;
+            this.listener = listener;
+        }
+
+        private synchronized void offer(TaskChange change) {
+            if (change.getKind() == TaskChange.Kind.RELOADED || reload != null) {
+                pending.clear();
+                reload = TaskChange.reloaded(change.getVersion());
+            } else {
+                TaskChange merged = pending.containsKey(change.getTaskId())
+                        ? pending.remove(change.getTaskId()).then(change)
+                        : change;
+                if (merged != null) {
+                    pending.put(change.getTaskId(), merged);
+                }
+                if (pending.size() > capacity) {
+                    pending.clear();
+                    reload = TaskChange.reloaded(change.getVersion());
+                }
+            }
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            List<TaskChange> batch;
+            synchronized (this) {
+                batch = reload != null ? List.of(reload) : new ArrayList<>(pending.values());
+                pending.clear();
+                reload = null;
+            }
+            if (!closed && !batch.isEmpty()) {
+                try {
+                    listener.accept(batch);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            // Changes that arrived during the callback go out as the next
+            // batch, so even a pooled executor never overlaps two batches.
+            synchronized (this) {
+                if (pending.isEmpty() && reload == null) {
+                    scheduled = false;
+                } else {
+                    executor.execute(this::deliver);
+                }
+            }
+        }
+
+        /**
+         * Stops delivery. Batches already handed to the executor are
+         * dropped when they run.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+}
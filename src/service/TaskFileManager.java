@@ -1,152 +1,707 @@
 package service;
 
 import model.Task;
+import model.TaskStatus;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class TaskFileManager {
     private static final String TASKS_FILE = "tasks.csv";
-    private List<Task> tasks;
-    private int nextId;
-    
+    private static final String JOURNAL_FILE = "tasks.journal";
+    private static final String SNAPSHOT_FILE = "tasks.snapshot";
+    private static final String HEADER = "id,title,description,status,assignedTo,createdDate";
+
+    /**
+     * The createdDate format of tasks.csv. Formatters are immutable, so this
+     * one instance is shared by every thread.
+     */
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final int COMPACT_AFTER_RECORDS = 10_000;
+    private static final long COMPACT_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long DEFAULT_GROUP_COMMIT_MILLIS = 20;
+
+    private final AtomicReference<TaskSnapshot> snapshot = new AtomicReference<>(TaskSnapshot.empty());
+    private final TaskChangeFeed changes = new TaskChangeFeed();
+    private final SnapshotTextIndex textIndex = new SnapshotTextIndex(snapshot::get);
+    private final QueryPlanner planner = new QueryPlanner();
+    private int nextId = 1;
+    private final TaskJournal journal;
+    private final ScheduledExecutorService compactor;
+    private final Object baseLock = new Object();
+    private final Object loadLock = new Object();
+    // Mutations waiting for the current load; null when no load is running.
+    private List<Runnable> queuedEdits = new ArrayList<>();
+    private boolean compactionQueued;
+    private long lastCompaction;
+    private volatile boolean asyncPersistence = true;
+    private final Thread shutdownHook = new Thread(() -> awaitDurable(flush()), "task-journal-flush");
+    private boolean closed;
+    // Set while the last load failed; the manager is read-only meanwhile.
+    private boolean loadFailed;
+
+    /**
+     * Creates an empty manager in the loading state. Nothing is read from
+     * disk until {@link #loadTasks(IntConsumer)} runs.
+     */
     public TaskFileManager() {
-        tasks = new ArrayList<>();
-        loadTasks();
-    }
-    
-    public void loadTasks() {
-        tasks.clear();
-        File file = new File(TASKS_FILE);
-        if (!file.exists()) {
-            initializeTasksFile();
-            return;
+        journal = new TaskJournal(new File(JOURNAL_FILE), DEFAULT_GROUP_COMMIT_MILLIS);
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "task-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lastCompaction = System.currentTimeMillis();
+        compactor.scheduleWithFixedDelay(this::compactIfStale,
+                COMPACT_AFTER_MILLIS, COMPACT_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Ends this manager's session. Mutations are refused from now on; a
+     * compaction already running finishes, no other starts; every journal
+     * record is made durable and the journal closed; the shutdown hook is
+     * removed. A manager opened afterwards over the same files then owns
+     * them alone. Blocks on disk I/O, so UI code calls it from a worker.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down; the hook flushes a closed journal harmlessly.
+        }
+    }
+
+    /**
+     * When enabled (the default) mutations return as soon as memory is
+     * updated and the journal record is queued; the background writer makes
+     * it durable within the group-commit window. When disabled every mutation
+     * waits for its record to be fsynced.
+     */
+    public void setAsyncPersistence(boolean asyncPersistence) {
+        this.asyncPersistence = asyncPersistence;
+    }
+
+    /**
+     * Sets how long the journal writer waits to collect further mutations
+     * before writing them with a single write and fsync.
+     */
+    public void setGroupCommitWindow(long millis) {
+        journal.setWindowMillis(millis);
+    }
+
+    /**
+     * Returns a future that completes once every mutation made so far is
+     * durable on disk.
+     */
+    public CompletableFuture<Void> flush() {
+        return journal.flush();
+    }
+
+    private static void awaitDurable(CompletableFuture<Void> durable) {
+        try {
+            durable.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
         }
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(TASKS_FILE))) {
-            String line = reader.readLine();
-            int maxId = 0;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length == 6) {
-                    int id = Integer.parseInt(parts[0]);
-                    Task task = new Task(id, parts[1], parts[2], parts[3], parts[4], parts[5]);
-                    tasks.add(task);
-                    if (id > maxId) {
-                        maxId = id;
+    }
+
+    public void loadTasks() throws IOException {
+        loadTasks(null);
+    }
+
+    /**
+     * Reads every task from disk and makes them current. Runs on the calling
+     * thread, so UI code calls it from a worker. While it runs:
+     * <ul>
+     * <li>growing id-ordered prefixes of the base file are published as they
+     * are parsed, each reported to the change feed as a reload, so views can
+     * show their first rows long before the rest is read;</li>
+     * <li>mutations are queued and applied in order once the load completes;
+     * see {@link #isLoading()}.</li>
+     * </ul>
+     * {@code progress} receives whole percentages of the base file read, from
+     * loader threads; it may be {@code null}. If the load fails, the tasks
+     * from before it stay current but the manager turns read-only until a
+     * later load succeeds: queued and new mutations are refused, and nothing
+     * is saved or compacted, so the files on disk are never overwritten from
+     * an incomplete store. The failure is rethrown; see {@link #hasLoadFailed()}.
+     */
+    public void loadTasks(IntConsumer progress) throws IOException {
+        synchronized (loadLock) {
+            TaskSnapshot before;
+            synchronized (this) {
+                if (queuedEdits == null) {
+                    queuedEdits = new ArrayList<>();
+                }
+                before = snapshot.get();
+            }
+            TaskSnapshot loaded = null;
+            int maxId = nextId - 1;
+            try {
+                File file = new File(TASKS_FILE);
+                if (!file.exists()) {
+                    initializeTasksFile();
+                }
+
+                awaitDurable(flush());
+                MappedTaskLoader.Result result;
+                TaskTable table;
+                synchronized (baseLock) {
+                    result = readBase(file, new ProgressiveLoad(progress));
+                    table = new TaskTable(result.tasks.size());
+                    for (Task task : result.tasks) {
+                        table.put(task);
+                    }
+                    journal.replay(table);
+                }
+
+                int loadedMaxId = result.maxId;
+                for (Task task : table) {
+                    if (task.getId() > loadedMaxId) {
+                        loadedMaxId = task.getId();
                     }
                 }
+
+                List<Task> sorted = table.toList();
+                sorted.sort(Comparator.comparingInt(Task::getId));
+                loaded = snapshot.get().reload(sorted);
+                maxId = loadedMaxId;
+            } finally {
+                boolean failed = loaded == null;
+                if (failed) {
+                    // Drop any prefixes published so far, keeping versions rising.
+                    loaded = snapshot.get() == before ? before : snapshot.get().reload(before.getAllTasks());
+                }
+                finishLoad(loaded, maxId, failed);
+            }
+            // Index the text here, off the EDT, rather than on the first search.
+            textIndex.build();
+        }
+    }
+
+    /**
+     * Returns {@code true} from construction until the first load completes,
+     * and during every later load. Mutations made meanwhile return as soon as
+     * they are queued; an update or delete of a task the load does not find
+     * is then dropped, and every queued mutation is dropped if the load
+     * fails.
+     */
+    public synchronized boolean isLoading() {
+        return queuedEdits != null;
+    }
+
+    /**
+     * Returns {@code true} while the last load failed. Mutations are refused
+     * and nothing is written back until a load succeeds.
+     */
+    public synchronized boolean hasLoadFailed() {
+        return loadFailed;
+    }
+
+    private synchronized void finishLoad(TaskSnapshot loaded, int maxId, boolean failed) {
+        loadFailed = failed;
+        // Ids are never handed out twice, even if the files now end lower.
+        nextId = Math.max(nextId, maxId + 1);
+        textIndex.reset(loaded.getVersion());
+        publish(loaded, -1);
+        List<Runnable> edits = queuedEdits;
+        queuedEdits = null;
+        for (Runnable edit : edits) {
+            edit.run();
+        }
+    }
+
+    private void publishPrefix(List<Task> prefix) {
+        // Only the loader derives snapshots while mutations are queued, so
+        // the build runs unlocked and queuing an edit never waits for it.
+        TaskSnapshot next = snapshot.get().reload(prefix);
+        synchronized (this) {
+            textIndex.reset(next.getVersion());
+            publish(next, -1);
+        }
+    }
+
+    /**
+     * Passes loader progress on to the caller, each percentage once, and
+     * publishes the prefixes the loader offers.
+     */
+    private final class ProgressiveLoad implements LoadListener {
+        private final IntConsumer progress;
+        private final AtomicInteger reported = new AtomicInteger(-1);
+
+        ProgressiveLoad(IntConsumer progress) {
+            this.progress = progress;
+        }
+
+        @Override
+        public void progress(int percent) {
+            int last = reported.get();
+            if (progress != null && percent > last && reported.compareAndSet(last, percent)) {
+                progress.accept(percent);
+            }
+        }
+
+        @Override
+        public void prefix(List<Task> tasks) {
+            publishPrefix(tasks);
+        }
+    }
+
+    /**
+     * Reads the base tasks, preferring the binary snapshot when it is at least
+     * as new as tasks.csv. CSV stays the interchange format, so an externally
+     * edited CSV always wins over an older snapshot.
+     */
+    private MappedTaskLoader.Result readBase(File csv, LoadListener listener) throws IOException {
+        Path snapshot = Paths.get(SNAPSHOT_FILE);
+        if (Files.exists(snapshot) && Files.getLastModifiedTime(snapshot)
+                .compareTo(Files.getLastModifiedTime(csv.toPath())) >= 0) {
+            try {
+                return TaskSnapshotFile.read(snapshot, listener);
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-            nextId = maxId + 1;
+        }
+        MappedTaskLoader.Result result = MappedTaskLoader.load(csv.toPath(), listener);
+        synchronized (this) {
+            if (!closed) {
+                compactor.execute(() -> writeSnapshot(result.tasks, result.maxId));
+            }
+        }
+        return result;
+    }
+
+    private void writeSnapshot(List<Task> base, int maxId) {
+        try {
+            TaskSnapshotFile.write(Paths.get(SNAPSHOT_FILE), base, maxId);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
-    
+
     private void initializeTasksFile() {
         try (PrintWriter writer = new PrintWriter(new FileWriter(TASKS_FILE))) {
-            writer.println("id,title,description,status,assignedTo,createdDate");
+            writer.println(HEADER);
         } catch (IOException e) {
             e.printStackTrace();
         }
-        nextId = 1;
     }
-    
+
+    /**
+     * Returns {@code null} if the status is not a {@link TaskStatus} label
+     * or the created date is not in {@link #DATE_FORMAT}.
+     */
+    static Task parseTask(String[] parts, int offset) {
+        TaskStatus status = TaskStatus.fromLabel(parts[offset + 3]);
+        if (status == null) {
+            return null;
+        }
+        LocalDate createdDate;
+        try {
+            createdDate = LocalDate.parse(parts[offset + 5], DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        return new Task(Integer.parseInt(parts[offset]), parts[offset + 1], parts[offset + 2],
+                status, parts[offset + 4], createdDate);
+    }
+
+    static String formatTask(Task task) {
+        return task.getId() + "," +
+                task.getTitle() + "," +
+                task.getDescription() + "," +
+                task.getStatus().getLabel() + "," +
+                task.getAssignedTo() + "," +
+                DATE_FORMAT.format(task.getCreatedDate());
+    }
+
+    /**
+     * Rewrites the base file from the in-memory tasks and clears the journal.
+     * Blocks until the rewrite is on disk.
+     */
     public void saveTasks() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(TASKS_FILE))) {
-            writer.println("id,title,description,status,assignedTo,createdDate");
-            for (Task task : tasks) {
-                writer.println(task.getId() + "," + 
-                             task.getTitle() + "," + 
-                             task.getDescription() + "," + 
-                             task.getStatus() + "," + 
-                             task.getAssignedTo() + "," + 
-                             task.getCreatedDate());
+        Future<?> saved;
+        synchronized (this) {
+            if (closed || loadFailed) {
+                return;
+            }
+            saved = compactor.submit(this::compact);
+        }
+        try {
+            saved.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        }
+    }
+
+    private void compact() {
+        List<Task> base;
+        int maxId;
+        synchronized (this) {
+            compactionQueued = false;
+            if (closed || loadFailed || queuedEdits != null) {
+                // The snapshot may be a partial prefix or miss what the
+                // failed load could not read; never write it back.
+                return;
+            }
+            maxId = nextId - 1;
+            lastCompaction = System.currentTimeMillis();
+            base = snapshot.get().getAllTasks();
+            try {
+                journal.beginCompaction();
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
             }
+        }
+
+        // A reload must not read the old base and then find the journal it
+        // depends on already folded away, so the rewrite holds baseLock.
+        synchronized (baseLock) {
+            rewriteBase(base, maxId);
+        }
+    }
+
+    private void rewriteBase(List<Task> base, int maxId) {
+        File tmp = new File(TASKS_FILE + ".tmp");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8))) {
+            writer.println(HEADER);
+            for (Task task : base) {
+                writer.println(formatTask(task));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        try {
+            Files.move(tmp.toPath(), new File(TASKS_FILE).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal.finishCompaction();
         } catch (IOException e) {
             e.printStackTrace();
+            return;
+        }
+        writeSnapshot(base, maxId);
+    }
+
+    private synchronized void compactIfStale() {
+        if (journal.getRecordCount() > 0
+                && System.currentTimeMillis() - lastCompaction >= COMPACT_AFTER_MILLIS) {
+            scheduleCompaction();
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (!closed && !loadFailed && !compactionQueued) {
+            compactionQueued = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    private void journalPut(Task task) {
+        journal.appendPut(task);
+        afterJournalAppend();
+    }
+
+    private void journalDelete(int taskId) {
+        journal.appendDelete(taskId);
+        afterJournalAppend();
+    }
+
+    private void afterJournalAppend() {
+        if (journal.getRecordCount() >= COMPACT_AFTER_RECORDS) {
+            scheduleCompaction();
+        }
+        if (!asyncPersistence) {
+            awaitDurable(flush());
         }
     }
-    
-    public boolean addTask(Task task) {
-        if (!isValidStatus(task.getStatus())) {
+
+    /**
+     * Whether every field of {@code task} is set. The task files have no
+     * way to store a missing value, so such tasks are refused.
+     */
+    private static boolean isComplete(Task task) {
+        return task.getTitle() != null && task.getDescription() != null && task.getStatus() != null
+                && task.getAssignedTo() != null && task.getCreatedDate() != null;
+    }
+
+    public synchronized boolean addTask(Task task) {
+        if (closed || loadFailed || !isComplete(task)) {
             return false;
         }
+        if (queuedEdits != null) {
+            queuedEdits.add(() -> addTask(task));
+            return true;
+        }
         task.setId(nextId++);
-        tasks.add(task);
-        saveTasks();
+        TaskSnapshot next = snapshot.get().with(task);
+        textIndex.put(task, next.getVersion());
+        publish(next, task.getId());
+        textIndex.tryCatchUp();
+        journalPut(task);
         return true;
     }
-    
-    public boolean updateTask(Task updatedTask) {
-        if (!isValidStatus(updatedTask.getStatus())) {
+
+    public synchronized boolean updateTask(Task updatedTask) {
+        if (closed || loadFailed || !isComplete(updatedTask)) {
             return false;
         }
-        for (int i = 0; i < tasks.size(); i++) {
-            if (tasks.get(i).getId() == updatedTask.getId()) {
-                tasks.set(i, updatedTask);
-                saveTasks();
-                return true;
-            }
+        if (queuedEdits != null) {
+            queuedEdits.add(() -> updateTask(updatedTask));
+            return true;
+        }
+        TaskSnapshot current = snapshot.get();
+        if (current.getTaskById(updatedTask.getId()) == null) {
+            return false;
         }
-        return false;
+        TaskSnapshot next = current.with(updatedTask);
+        textIndex.put(updatedTask, next.getVersion());
+        publish(next, updatedTask.getId());
+        textIndex.tryCatchUp();
+        journalPut(updatedTask);
+        return true;
     }
-    
-    public boolean deleteTask(int taskId) {
-        for (int i = 0; i < tasks.size(); i++) {
-            if (tasks.get(i).getId() == taskId) {
-                tasks.remove(i);
-                saveTasks();
-                return true;
-            }
+
+    public synchronized boolean deleteTask(int taskId) {
+        if (closed || loadFailed) {
+            return false;
         }
-        return false;
+        if (queuedEdits != null) {
+            queuedEdits.add(() -> deleteTask(taskId));
+            return true;
+        }
+        TaskSnapshot current = snapshot.get();
+        TaskSnapshot next = current.without(taskId);
+        if (next == current) {
+            return false;
+        }
+        textIndex.remove(taskId, next.getVersion());
+        publish(next, taskId);
+        textIndex.tryCatchUp();
+        journalDelete(taskId);
+        return true;
     }
-    
+
+    /**
+     * Returns the current version of all tasks. Safe to call from any
+     * thread; the result never changes, so several reads from one snapshot
+     * are always consistent with each other. The list getters below read
+     * the current snapshot the same way and return read-only views.
+     */
+    public TaskSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Returns the aggregates of the current snapshot: counts per status and
+     * per assignee, member count and completion rate. Mutations keep the
+     * underlying groups up to date, so this never scans the tasks.
+     */
+    public TaskStats getStats() {
+        return snapshot.get().getStats();
+    }
+
+    /**
+     * Runs the trend reports over the current snapshot on the fork-join
+     * pool and waits for them; see {@link TaskAnalytics}. Call it off the
+     * EDT.
+     */
+    public TaskAnalytics analyze(IntConsumer progress) {
+        return TaskAnalytics.compute(snapshot.get(), LocalDate.now(), progress);
+    }
+
+    /**
+     * Subscribes {@code listener} to the change feed. Batches of changes
+     * are handed to {@code executor} one at a time, in publish order; UI
+     * code passes {@code SwingUtilities::invokeLater} to receive them on
+     * the EDT. Changes to the same task that are still queued merge into
+     * one, and more than {@code capacity} queued tasks collapse into a
+     * single {@link TaskChange.Kind#RELOADED}. Close the subscription to
+     * stop delivery.
+     */
+    public TaskChangeFeed.Subscription subscribe(Executor executor, int capacity,
+                                                 Consumer<List<TaskChange>> listener) {
+        return changes.subscribe(executor, capacity, listener);
+    }
+
+    /**
+     * Makes {@code next} current and reports the change of task
+     * {@code taskId} to the feed, or a reload when {@code taskId} is -1.
+     * Writers hold the manager lock, so changes are published in version
+     * order.
+     */
+    private void publish(TaskSnapshot next, int taskId) {
+        TaskSnapshot previous = snapshot.getAndSet(next);
+        if (!changes.hasSubscribers()) {
+            return;
+        }
+        changes.publish(taskId < 0
+                ? TaskChange.reloaded(next.getVersion())
+                : TaskChange.of(taskId, previous.getTaskById(taskId), next.getTaskById(taskId), next.getVersion()));
+    }
+
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks);
+        return snapshot.get().getAllTasks();
     }
-    
+
     public Task getTaskById(int id) {
-        for (Task task : tasks) {
-            if (task.getId() == id) {
-                return task;
-            }
-        }
-        return null;
+        return snapshot.get().getTaskById(id);
     }
-    
-    public List<Task> getTasksByStatus(String status) {
-        List<Task> filteredTasks = new ArrayList<>();
-        for (Task task : tasks) {
-            if (task.getStatus().equals(status)) {
-                filteredTasks.add(task);
-            }
-        }
-        return filteredTasks;
+
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        return snapshot.get().getTasksByStatus(status);
     }
-    
+
     public List<Task> getTasksByUser(String username) {
-        List<Task> userTasks = new ArrayList<>();
-        for (Task task : tasks) {
-            if (task.getAssignedTo().equals(username)) {
-                userTasks.add(task);
+        return snapshot.get().getTasksByUser(username);
+    }
+
+    /**
+     * Returns the tasks created from {@code from} to {@code to}, both
+     * inclusive, oldest first and by id within a day. A {@code null} bound
+     * leaves that end of the range open. The range is found by binary
+     * search in the created-date index, never by scanning the tasks.
+     */
+    public List<Task> getTasksCreatedBetween(LocalDate from, LocalDate to) {
+        return snapshot.get().getTasksCreatedBetween(from, to);
+    }
+
+    public int countCreatedBetween(LocalDate from, LocalDate to) {
+        return snapshot.get().countCreatedBetween(from, to);
+    }
+
+    /**
+     * Returns the tasks created in the last {@code days} days, today
+     * included.
+     */
+    public List<Task> getTasksCreatedInLastDays(int days) {
+        LocalDate today = LocalDate.now();
+        return getTasksCreatedBetween(today.minusDays(days - 1), today);
+    }
+
+    /**
+     * Returns up to {@code pageSize} tasks in {@code order}, starting after
+     * {@code cursor} ({@code null} for the first page). Ties on created date
+     * are broken by id, so every task appears exactly once across pages
+     * even while tasks are added or deleted in between. Only the page itself
+     * is allocated.
+     */
+    public TaskPage getTasksPage(TaskPage.Order order, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        TaskPage.Cursor after = cursor == null ? null : TaskPage.Cursor.decode(cursor, order);
+        TaskSnapshot current = snapshot.get();
+        List<Task> page = new ArrayList<>(pageSize);
+        boolean more;
+
+        if (order == TaskPage.Order.ID) {
+            List<Task> rows = current.getAllTasks();
+            int from = current.rows().indexAfter(after == null ? Integer.MIN_VALUE : after.id);
+            int to = Math.min(rows.size(), from + pageSize);
+            page.addAll(rows.subList(from, to));
+            more = to < rows.size();
+        } else {
+            int[] ids = new int[pageSize + 1];
+            int count = current.createdIds().idsAfter(after == null ? Integer.MIN_VALUE : after.createdDay,
+                    after == null ? Integer.MIN_VALUE : after.id, ids, ids.length);
+            more = count > pageSize;
+            for (int i = 0; i < Math.min(count, pageSize); i++) {
+                page.add(current.getTaskById(ids[i]));
             }
         }
-        return userTasks;
+
+        String next = null;
+        if (more) {
+            Task last = page.get(page.size() - 1);
+            next = new TaskPage.Cursor(order, Math.toIntExact(last.getCreatedDate().toEpochDay()),
+                    last.getId()).encode();
+        }
+        return new TaskPage(page, next);
     }
-    
-    private boolean isValidStatus(String status) {
-        return status.equals("Pending") || status.equals("Progress") || status.equals("Done");
+
+    /**
+     * Full-text search over title and description; see {@link TextIndex} for
+     * the query syntax. The text index is built when the tasks are loaded
+     * and follows every mutation after that; searching takes no lock that
+     * mutations wait for.
+     */
+    public List<Task> searchTasks(String query, int limit) {
+        return textIndex.search(query, limit);
     }
-    
-    public int countByStatus(String status) {
-        int count = 0;
-        for (Task task : tasks) {
-            if (task.getStatus().equals(status)) {
-                count++;
-            }
+
+    /**
+     * Runs a combined query through the index-aware planner. The result
+     * reports the plan that was chosen.
+     */
+    public TaskQueryResult query(TaskQuery query) {
+        return query(query, null);
+    }
+
+    /**
+     * Like {@link #query(TaskQuery)}, but narrows {@code previous} where the
+     * new text can only match a subset of what it matched, as it does while
+     * a search is being typed. Runs against the current snapshot without the
+     * manager's lock, so mutations never wait for it. Interrupting the
+     * calling thread abandons the query with a {@code CancellationException}.
+     */
+    public TaskQueryResult query(TaskQuery query, TaskQueryResult previous) {
+        if (query.getText() == null || query.getText().isBlank()) {
+            return planner.execute(query, snapshot.get(), null);
+        }
+        if (QueryPlanner.isRankedText(query)) {
+            return planner.ranked(query, textIndex.rank(query.getText(), query.getLimit(),
+                    tasks -> QueryPlanner.filter(query, tasks)));
         }
-        return count;
+        SnapshotTextIndex.Matches text = textIndex.match(query.getText(), previous);
+        return planner.execute(query, text.tasks, text);
+    }
+
+    public int countByStatus(TaskStatus status) {
+        return snapshot.get().countByStatus(status);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,362 @@
+package service;
+
+import model.Task;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of task mutations. Each record is one line: either
+ * {@code PUT,<task row>} or {@code DEL,<id>}, prefixed with the record's
+ * length in UTF-8 bytes and its CRC32 in hex, as in
+ * {@code 7,72530ac5,DEL,123}. Records are replayed as upserts and deletes,
+ * so replaying a record twice is harmless.
+ *
+ * <p>Replay applies only lines that end in a newline and skips any record
+ * whose length or checksum does not match, so a torn or corrupt record is
+ * never mistaken for another one. A last line without a newline, which a
+ * crash can leave half-written, is cut off so the next append starts on a
+ * line of its own. Records without the prefix, from older journals, are
+ * still read.
+ *
+ * <p>Appends only queue the record in memory. A single writer thread waits
+ * for the group-commit window to pass, then writes everything queued in one
+ * write followed by one fsync.
+ */
+class TaskJournal {
+    private static final String PUT = "PUT";
+    private static final String DEL = "DEL";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int READ_BUFFER_SIZE = 64 << 10;
+
+    private final File file;
+    private final File compactingFile;
+    private final Object ioLock = new Object();
+    private FileChannel channel;
+
+    private StringBuilder pending = new StringBuilder();
+    private CompletableFuture<Void> pendingDurable;
+    private CompletableFuture<Void> inFlightDurable;
+    private boolean flushRequested;
+    private long windowMillis;
+    private Thread writerThread;
+    private boolean closing;
+    private int recordCount;
+
+    TaskJournal(File file, long windowMillis) {
+        this.file = file;
+        this.compactingFile = new File(file.getPath() + ".compacting");
+        this.windowMillis = windowMillis;
+    }
+
+    synchronized void appendPut(Task task) {
+        append(PUT + "," + TaskFileManager.formatTask(task));
+    }
+
+    synchronized void appendDelete(int id) {
+        append(DEL + "," + id);
+    }
+
+    private void append(String record) {
+        if (closing) {
+            return;
+        }
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        pending.append(bytes.length).append(',').append(Long.toHexString(crc.getValue())).append(',')
+                .append(record).append(LINE_SEPARATOR);
+        recordCount++;
+        if (writerThread == null) {
+            writerThread = new Thread(this::runWriter, "task-journal-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+        notifyAll();
+    }
+
+    synchronized void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Returns a future that completes once every record appended so far has
+     * been written and fsynced. The current group-commit window is cut short.
+     */
+    synchronized CompletableFuture<Void> flush() {
+        if (pending.length() > 0) {
+            if (pendingDurable == null) {
+                pendingDurable = new CompletableFuture<>();
+            }
+            flushRequested = true;
+            notifyAll();
+            return pendingDurable;
+        }
+        if (inFlightDurable != null) {
+            return inFlightDurable;
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void runWriter() {
+        while (true) {
+            String batch;
+            CompletableFuture<Void> durable;
+            synchronized (this) {
+                try {
+                    while (pending.length() == 0) {
+                        if (closing) {
+                            return;
+                        }
+                        wait();
+                    }
+                    long deadline = System.currentTimeMillis() + windowMillis;
+                    long remaining;
+                    while (!flushRequested && !closing && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                        wait(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                batch = pending.toString();
+                pending = new StringBuilder();
+                durable = pendingDurable != null ? pendingDurable : new CompletableFuture<>();
+                pendingDurable = null;
+                inFlightDurable = durable;
+                flushRequested = false;
+            }
+
+            try {
+                write(batch);
+                durable.complete(null);
+            } catch (IOException e) {
+                e.printStackTrace();
+                durable.completeExceptionally(e);
+            }
+
+            synchronized (this) {
+                if (inFlightDurable == durable) {
+                    inFlightDurable = null;
+                }
+            }
+        }
+    }
+
+    private void write(String batch) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(batch.getBytes(StandardCharsets.UTF_8));
+        synchronized (ioLock) {
+            if (channel == null) {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Lets the writer drain what is queued, then stops it and closes the
+     * file. Records appended afterwards are never written.
+     */
+    void close() throws IOException {
+        Thread writer;
+        synchronized (this) {
+            closing = true;
+            notifyAll();
+            writer = writerThread;
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (ioLock) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Replays the journal left behind by an unfinished compaction (if any)
+     * followed by the live journal on top of {@code tasks}.
+     */
+    void replay(TaskTable tasks) throws IOException {
+        int records;
+        synchronized (ioLock) {
+            replayFile(compactingFile, tasks);
+            records = replayFile(file, tasks);
+        }
+        synchronized (this) {
+            recordCount = records;
+        }
+    }
+
+    private int replayFile(File source, TaskTable tasks) throws IOException {
+        if (!source.exists()) {
+            return 0;
+        }
+        int records = 0;
+        int skipped = 0;
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        byte[] line = new byte[256];
+        int lineLength = 0;
+        long length = 0;
+        // End of the last line that has its newline.
+        long end = 0;
+        try (InputStream in = Files.newInputStream(source.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] != '\n') {
+                        if (lineLength == line.length) {
+                            line = Arrays.copyOf(line, line.length * 2);
+                        }
+                        line[lineLength++] = buffer[i];
+                        continue;
+                    }
+                    end = length + i + 1;
+                    if (replayRecord(line, lineLength, tasks)) {
+                        records++;
+                    } else if (lineLength > 0) {
+                        skipped++;
+                    }
+                    lineLength = 0;
+                }
+                length += read;
+            }
+        }
+        if (end < length) {
+            try (FileChannel out = FileChannel.open(source.toPath(), StandardOpenOption.WRITE)) {
+                out.truncate(end);
+            }
+            System.err.println("Dropped a half-written record of " + (length - end) + " bytes at the end of "
+                    + source);
+        }
+        if (skipped > 0) {
+            System.err.println("Skipped " + skipped + " malformed records in " + source);
+        }
+        return records;
+    }
+
+    /**
+     * Applies one line of the journal, without its newline, to
+     * {@code tasks}. Returns {@code false}, changing nothing, if the line is
+     * not an intact record.
+     */
+    private static boolean replayRecord(byte[] line, int length, TaskTable tasks) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        int start = 0;
+        if (!startsWith(line, length, PUT + ",") && !startsWith(line, length, DEL + ",")) {
+            int first = indexOf(line, ',', 0, length);
+            int second = first < 0 ? -1 : indexOf(line, ',', first + 1, length);
+            if (second < 0) {
+                return false;
+            }
+            start = second + 1;
+            CRC32 crc = new CRC32();
+            crc.update(line, start, length - start);
+            try {
+                if (Integer.parseInt(new String(line, 0, first, StandardCharsets.US_ASCII)) != length - start
+                        || Long.parseLong(new String(line, first + 1, second - first - 1,
+                                StandardCharsets.US_ASCII), 16) != crc.getValue()) {
+                    return false;
+                }
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        String[] parts = new String(line, start, length - start, StandardCharsets.UTF_8).split(",", -1);
+        try {
+            if (parts[0].equals(PUT) && parts.length == 7) {
+                Task task = TaskFileManager.parseTask(parts, 1);
+                if (task == null) {
+                    return false;
+                }
+                tasks.put(task);
+                return true;
+            }
+            if (parts[0].equals(DEL) && parts.length == 2) {
+                tasks.remove(Integer.parseInt(parts[1]));
+                return true;
+            }
+        } catch (NumberFormatException e) {
+            // Not a valid id; reported as malformed below.
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] line, int length, String prefix) {
+        if (length < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line[i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] line, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the live journal aside so a compaction can fold it into the base
+     * file while new mutations keep appending to a fresh journal. Records
+     * still queued at this point land in the fresh journal, which is safe
+     * because replaying them on top of the new base changes nothing.
+     */
+    void beginCompaction() throws IOException {
+        synchronized (ioLock) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            if (file.exists()) {
+                if (compactingFile.exists()) {
+                    try (OutputStream out = new FileOutputStream(compactingFile, true)) {
+                        Files.copy(file.toPath(), out);
+                    }
+                    Files.delete(file.toPath());
+                } else {
+                    Files.move(file.toPath(), compactingFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+        synchronized (this) {
+            recordCount = 0;
+        }
+    }
+
+    void finishCompaction() throws IOException {
+        synchronized (ioLock) {
+            Files.deleteIfExists(compactingFile.toPath());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package service;
+
+import model.Task;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One window of tasks in a stable order, plus an opaque cursor for the
+ * window that follows it.
+ */
+public class TaskPage {
+    public enum Order { ID, CREATED }
+
+    private final List<Task> tasks;
+    private final String nextCursor;
+
+    TaskPage(List<Task> tasks, String nextCursor) {
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Returns the cursor to pass back for the next page, or {@code null} if
+     * this is the last one.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Position just after a row: its id, and for {@link Order#CREATED} also
+     * the epoch day it was created on. The encoded form carries the order, so a cursor
+     * cannot be replayed against a different one.
+     */
+    static final class Cursor {
+        final Order order;
+        final int createdDay;
+        final int id;
+
+        Cursor(Order order, int createdDay, int id) {
+            this.order = order;
+            this.createdDay = createdDay;
+            this.id = id;
+        }
+
+        String encode() {
+            String raw = order == Order.ID ? "I:" + id : "C:" + id + ":" + createdDay;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor, Order order) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split(":", 3);
+                if (order == Order.ID && parts.length == 2 && parts[0].equals("I")) {
+                    return new Cursor(order, 0, Integer.parseInt(parts[1]));
+                }
+                if (order == Order.CREATED && parts.length == 3 && parts[0].equals("C")) {
+                    return new Cursor(order, Integer.parseInt(parts[2]), Integer.parseInt(parts[1]));
+                }
+            } catch (IllegalArgumentException e) {
+                // fall through to the error below
+            }
+            throw new IllegalArgumentException("Invalid cursor for " + order + " order: " + cursor);
+        }
+    }
+}
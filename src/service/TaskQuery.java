@@ -0,0 +1,100 @@
+package service;
+
+import model.TaskStatus;
+import java.time.LocalDate;
+
+/**
+ * Describes a task lookup for {@link TaskFileManager#query(TaskQuery)}. Every
+ * criterion is optional; unset criteria match all tasks.
+ *
+ * <pre>
+ * new TaskQuery().status(TaskStatus.PROGRESS).assignedTo("Sarah")
+ *         .createdBetween(firstOfMonth, today).sortBy(SortKey.CREATED, true).limit(50)
+ * </pre>
+ */
+public class TaskQuery {
+
+    public enum SortKey {
+        ID, TITLE, STATUS, ASSIGNEE, CREATED, RELEVANCE
+    }
+
+    private TaskStatus status;
+    private String assignedTo;
+    private LocalDate createdFrom;
+    private LocalDate createdTo;
+    private String text;
+    private SortKey sortKey = SortKey.ID;
+    private boolean descending;
+    private int limit = Integer.MAX_VALUE;
+
+    public TaskQuery status(TaskStatus status) {
+        this.status = status;
+        return this;
+    }
+
+    public TaskQuery assignedTo(String assignedTo) {
+        this.assignedTo = assignedTo;
+        return this;
+    }
+
+    /**
+     * Restricts the creation date to {@code [from, to]}, both inclusive.
+     * Either bound may be {@code null} for an open range.
+     */
+    public TaskQuery createdBetween(LocalDate from, LocalDate to) {
+        this.createdFrom = from;
+        this.createdTo = to;
+        return this;
+    }
+
+    /**
+     * Full-text criterion using the {@link TaskFileManager#searchTasks} syntax.
+     */
+    public TaskQuery text(String text) {
+        this.text = text;
+        return this;
+    }
+
+    public TaskQuery sortBy(SortKey sortKey, boolean descending) {
+        this.sortKey = sortKey;
+        this.descending = descending;
+        return this;
+    }
+
+    public TaskQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public String getAssignedTo() {
+        return assignedTo;
+    }
+
+    public LocalDate getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public LocalDate getCreatedTo() {
+        return createdTo;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,29 @@
+package service;
+
+import model.Task;
+import java.util.List;
+
+public class TaskQueryResult {
+    private final List<Task> tasks;
+    private final QueryPlan plan;
+    // What the text criterion matched, so a later query can narrow it.
+    final String text;
+    final long version;
+    final int[] textMatches;
+
+    TaskQueryResult(List<Task> tasks, QueryPlan plan, String text, long version, int[] textMatches) {
+        this.tasks = tasks;
+        this.plan = plan;
+        this.text = text;
+        this.version = version;
+        this.textMatches = textMatches;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public QueryPlan getPlan() {
+        return plan;
+    }
+}
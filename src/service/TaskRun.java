@@ -0,0 +1,447 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of tasks sorted by id, stored column by column in chunks
+ * of up to {@code 2 * CHUNK_SIZE} rows. Ids are an {@code int[]}, status its
+ * {@code byte} ordinal, assignee an {@code int} code into a shared
+ * {@link Dictionary}, created date an {@code int} epoch day, and title and
+ * description one UTF-8 byte array per chunk. {@link Task} objects are built on demand as views.
+ *
+ * <p>{@link #with(Task)} and {@link #without(int)} return a new run that
+ * shares every chunk except the one they touch, so a single change copies
+ * one chunk plus the chunk directory instead of the whole list. The
+ * directory keeps each chunk's end offset and first id in flat arrays, so
+ * neither positional nor id lookups touch the chunks they skip.
+ */
+final class TaskRun extends AbstractList<Task> implements RandomAccess {
+    private static final int CHUNK_SIZE = 256;
+
+    private final Dictionaries dictionaries;
+    private final Chunk[] chunks;
+    private final int[] ends;
+    private final int[] firstIds;
+
+    private TaskRun(Dictionaries dictionaries, Chunk[] chunks, int[] ends, int[] firstIds) {
+        this.dictionaries = dictionaries;
+        this.chunks = chunks;
+        this.ends = ends;
+        this.firstIds = firstIds;
+    }
+
+    static TaskRun empty(Dictionaries dictionaries) {
+        return new TaskRun(dictionaries, new Chunk[0], new int[0], new int[0]);
+    }
+
+    /**
+     * Builds a run from tasks that are already sorted by id.
+     */
+    static TaskRun of(List<Task> sorted, Dictionaries dictionaries) {
+        int count = (sorted.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Chunk[] chunks = new Chunk[count];
+        int[] ends = new int[count];
+        int[] firstIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            int from = i * CHUNK_SIZE;
+            int to = Math.min(sorted.size(), from + CHUNK_SIZE);
+            ChunkBuilder builder = new ChunkBuilder(to - from, 64 * (to - from));
+            for (Task task : sorted.subList(from, to)) {
+                builder.add(task, dictionaries);
+            }
+            chunks[i] = builder.build();
+            ends[i] = to;
+            firstIds[i] = chunks[i].ids[0];
+        }
+        return new TaskRun(dictionaries, chunks, ends, firstIds);
+    }
+
+    Dictionaries dictionaries() {
+        return dictionaries;
+    }
+
+    @Override
+    public int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    @Override
+    public Task get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int chunk = Arrays.binarySearch(ends, index);
+        chunk = chunk >= 0 ? chunk + 1 : -chunk - 1;
+        return chunks[chunk].task(index - (chunk == 0 ? 0 : ends[chunk - 1]), dictionaries);
+    }
+
+    /**
+     * Returns the id at position {@code index} without building the task.
+     */
+    int idAt(int index) {
+        int chunk = Arrays.binarySearch(ends, index);
+        chunk = chunk >= 0 ? chunk + 1 : -chunk - 1;
+        return chunks[chunk].ids[index - (chunk == 0 ? 0 : ends[chunk - 1])];
+    }
+
+    /**
+     * Returns every title in id order, decoding no other column.
+     */
+    String[] titles() {
+        String[] titles = new String[size()];
+        int i = 0;
+        for (Chunk chunk : chunks) {
+            for (int row = 0; row < chunk.ids.length; row++) {
+                titles[i++] = chunk.title(row);
+            }
+        }
+        return titles;
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<Task>() {
+            private int chunk;
+            private int row;
+
+            @Override
+            public boolean hasNext() {
+                return chunk < chunks.length;
+            }
+
+            @Override
+            public Task next() {
+                if (chunk >= chunks.length) {
+                    throw new NoSuchElementException();
+                }
+                Task task = chunks[chunk].task(row, dictionaries);
+                if (++row == chunks[chunk].ids.length) {
+                    chunk++;
+                    row = 0;
+                }
+                return task;
+            }
+        };
+    }
+
+    Task find(int id) {
+        if (chunks.length == 0) {
+            return null;
+        }
+        Chunk chunk = chunks[chunkFor(id)];
+        int at = Arrays.binarySearch(chunk.ids, id);
+        return at >= 0 ? chunk.task(at, dictionaries) : null;
+    }
+
+    /**
+     * Returns the position of the first task whose id is greater than
+     * {@code id}, or {@link #size()} if there is none.
+     */
+    int indexAfter(int id) {
+        if (chunks.length == 0) {
+            return 0;
+        }
+        int c = chunkFor(id);
+        int at = Arrays.binarySearch(chunks[c].ids, id);
+        at = at >= 0 ? at + 1 : -at - 1;
+        return (c == 0 ? 0 : ends[c - 1]) + at;
+    }
+
+    /**
+     * Returns the epoch day task {@code id} was created on, read from the
+     * day column without building the task, or {@code Integer.MIN_VALUE}
+     * if there is no such task.
+     */
+    int createdDay(int id) {
+        if (chunks.length == 0) {
+            return Integer.MIN_VALUE;
+        }
+        Chunk chunk = chunks[chunkFor(id)];
+        int at = Arrays.binarySearch(chunk.ids, id);
+        return at >= 0 ? chunk.days[at] : Integer.MIN_VALUE;
+    }
+
+    int chunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * Passes every row of chunk {@code c} to {@code visitor}, reading only
+     * the status, assignee and day columns.
+     */
+    void scan(int c, RowVisitor visitor) {
+        Chunk chunk = chunks[c];
+        for (int row = 0; row < chunk.ids.length; row++) {
+            visitor.visit(chunk.statuses[row], chunk.assignees[row], chunk.days[row]);
+        }
+    }
+
+    interface RowVisitor {
+        void visit(int status, int assignee, int day);
+    }
+
+    /**
+     * Returns a run with {@code task} added, or replacing the task with the
+     * same id.
+     */
+    TaskRun with(Task task) {
+        if (chunks.length == 0) {
+            ChunkBuilder builder = new ChunkBuilder(1, 64);
+            builder.add(task, dictionaries);
+            return new TaskRun(dictionaries, new Chunk[] { builder.build() }, new int[] { 1 },
+                    new int[] { task.getId() });
+        }
+        int c = chunkFor(task.getId());
+        Chunk chunk = chunks[c];
+        int at = Arrays.binarySearch(chunk.ids, task.getId());
+        boolean replace = at >= 0;
+        if (!replace) {
+            at = -at - 1;
+        }
+        ChunkBuilder builder = new ChunkBuilder(chunk.ids.length + 1, chunk.text.length + 256);
+        builder.addRows(chunk, 0, at);
+        builder.add(task, dictionaries);
+        builder.addRows(chunk, replace ? at + 1 : at, chunk.ids.length);
+        Chunk changed = builder.build();
+        if (changed.ids.length <= 2 * CHUNK_SIZE) {
+            return replaceChunk(c, changed);
+        }
+
+        Chunk[] split = new Chunk[chunks.length + 1];
+        System.arraycopy(chunks, 0, split, 0, c);
+        split[c] = changed.slice(0, CHUNK_SIZE);
+        split[c + 1] = changed.slice(CHUNK_SIZE, changed.ids.length);
+        System.arraycopy(chunks, c + 1, split, c + 2, chunks.length - c - 1);
+        int[] splitEnds = new int[ends.length + 1];
+        System.arraycopy(ends, 0, splitEnds, 0, c);
+        splitEnds[c] = (c == 0 ? 0 : ends[c - 1]) + CHUNK_SIZE;
+        for (int i = c; i < ends.length; i++) {
+            splitEnds[i + 1] = ends[i] + 1;
+        }
+        int[] splitFirstIds = new int[firstIds.length + 1];
+        System.arraycopy(firstIds, 0, splitFirstIds, 0, c);
+        splitFirstIds[c] = split[c].ids[0];
+        splitFirstIds[c + 1] = split[c + 1].ids[0];
+        System.arraycopy(firstIds, c + 1, splitFirstIds, c + 2, firstIds.length - c - 1);
+        return new TaskRun(dictionaries, split, splitEnds, splitFirstIds);
+    }
+
+    /**
+     * Returns a run without the task with {@code id}, or this run if there is
+     * no such task.
+     */
+    TaskRun without(int id) {
+        if (chunks.length == 0) {
+            return this;
+        }
+        int c = chunkFor(id);
+        Chunk chunk = chunks[c];
+        int at = Arrays.binarySearch(chunk.ids, id);
+        if (at < 0) {
+            return this;
+        }
+        if (chunk.ids.length > 1) {
+            ChunkBuilder builder = new ChunkBuilder(chunk.ids.length - 1, chunk.text.length);
+            builder.addRows(chunk, 0, at);
+            builder.addRows(chunk, at + 1, chunk.ids.length);
+            return replaceChunk(c, builder.build());
+        }
+
+        Chunk[] remaining = new Chunk[chunks.length - 1];
+        System.arraycopy(chunks, 0, remaining, 0, c);
+        System.arraycopy(chunks, c + 1, remaining, c, chunks.length - c - 1);
+        int[] remainingEnds = new int[ends.length - 1];
+        System.arraycopy(ends, 0, remainingEnds, 0, c);
+        for (int i = c + 1; i < ends.length; i++) {
+            remainingEnds[i - 1] = ends[i] - 1;
+        }
+        int[] remainingFirstIds = new int[firstIds.length - 1];
+        System.arraycopy(firstIds, 0, remainingFirstIds, 0, c);
+        System.arraycopy(firstIds, c + 1, remainingFirstIds, c, firstIds.length - c - 1);
+        return new TaskRun(dictionaries, remaining, remainingEnds, remainingFirstIds);
+    }
+
+    private TaskRun replaceChunk(int c, Chunk chunk) {
+        Chunk[] copy = chunks.clone();
+        copy[c] = chunk;
+        int[] copyEnds = ends.clone();
+        int delta = chunk.ids.length - chunks[c].ids.length;
+        for (int i = c; i < copyEnds.length; i++) {
+            copyEnds[i] += delta;
+        }
+        int[] copyFirstIds = firstIds;
+        if (chunk.ids[0] != firstIds[c]) {
+            copyFirstIds = firstIds.clone();
+            copyFirstIds[c] = chunk.ids[0];
+        }
+        return new TaskRun(dictionaries, copy, copyEnds, copyFirstIds);
+    }
+
+    /**
+     * Returns the last chunk whose first id is not greater than {@code id},
+     * or the first chunk if there is none.
+     */
+    private int chunkFor(int id) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (firstIds[mid] <= id) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The dictionaries shared by every version of one task table.
+     */
+    static final class Dictionaries {
+        final Dictionary assignees = new Dictionary();
+    }
+
+    /**
+     * One block of rows. Row {@code i}'s title ends at {@code textEnds[2 * i]}
+     * and its description at {@code textEnds[2 * i + 1]}; each starts where
+     * the previous value ends.
+     */
+    private static final class Chunk {
+        final int[] ids;
+        final byte[] statuses;
+        final int[] assignees;
+        final int[] days;
+        final int[] textEnds;
+        final byte[] text;
+
+        Chunk(int[] ids, byte[] statuses, int[] assignees, int[] days, int[] textEnds, byte[] text) {
+            this.ids = ids;
+            this.statuses = statuses;
+            this.assignees = assignees;
+            this.days = days;
+            this.textEnds = textEnds;
+            this.text = text;
+        }
+
+        int textStart(int row) {
+            return row == 0 ? 0 : textEnds[2 * row - 1];
+        }
+
+        String title(int row) {
+            int titleStart = textStart(row);
+            return new String(text, titleStart, textEnds[2 * row] - titleStart, StandardCharsets.UTF_8);
+        }
+
+        Task task(int row, Dictionaries dictionaries) {
+            int titleStart = textStart(row);
+            int titleEnd = textEnds[2 * row];
+            int descriptionEnd = textEnds[2 * row + 1];
+            return new Task(ids[row],
+                    new String(text, titleStart, titleEnd - titleStart, StandardCharsets.UTF_8),
+                    new String(text, titleEnd, descriptionEnd - titleEnd, StandardCharsets.UTF_8),
+                    TaskStatus.fromOrdinal(statuses[row]),
+                    dictionaries.assignees.decode(assignees[row]),
+                    LocalDate.ofEpochDay(days[row]));
+        }
+
+        Chunk slice(int from, int to) {
+            ChunkBuilder builder = new ChunkBuilder(to - from, textEnds[2 * to - 1] - textStart(from));
+            builder.addRows(this, from, to);
+            return builder.build();
+        }
+    }
+
+    private static final class ChunkBuilder {
+        private final int[] ids;
+        private final byte[] statuses;
+        private final int[] assignees;
+        private final int[] days;
+        private final int[] textEnds;
+        private byte[] text;
+        private int size;
+        private int textSize;
+
+        ChunkBuilder(int capacity, int textCapacity) {
+            ids = new int[capacity];
+            statuses = new byte[capacity];
+            assignees = new int[capacity];
+            days = new int[capacity];
+            textEnds = new int[2 * capacity];
+            text = new byte[textCapacity];
+        }
+
+        void add(Task task, Dictionaries dictionaries) {
+            ids[size] = task.getId();
+            statuses[size] = (byte) task.getStatus().ordinal();
+            assignees[size] = dictionaries.assignees.encode(task.getAssignedTo());
+            days[size] = Math.toIntExact(task.getCreatedDate().toEpochDay());
+            appendText(task.getTitle());
+            textEnds[2 * size] = textSize;
+            appendText(task.getDescription());
+            textEnds[2 * size + 1] = textSize;
+            size++;
+        }
+
+        void addRows(Chunk source, int from, int to) {
+            if (from >= to) {
+                return;
+            }
+            int count = to - from;
+            System.arraycopy(source.ids, from, ids, size, count);
+            System.arraycopy(source.statuses, from, statuses, size, count);
+            System.arraycopy(source.assignees, from, assignees, size, count);
+            System.arraycopy(source.days, from, days, size, count);
+
+            int textFrom = source.textStart(from);
+            int textTo = source.textEnds[2 * to - 1];
+            ensureText(textTo - textFrom);
+            System.arraycopy(source.text, textFrom, text, textSize, textTo - textFrom);
+            int shift = textSize - textFrom;
+            for (int i = 2 * from; i < 2 * to; i++) {
+                textEnds[2 * size + i - 2 * from] = source.textEnds[i] + shift;
+            }
+            size += count;
+            textSize += textTo - textFrom;
+        }
+
+        private void appendText(String value) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensureText(bytes.length);
+            System.arraycopy(bytes, 0, text, textSize, bytes.length);
+            textSize += bytes.length;
+        }
+
+        private void ensureText(int extra) {
+            if (textSize + extra > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textSize + extra));
+            }
+        }
+
+        Chunk build() {
+            return new Chunk(trim(ids), trim(statuses), trim(assignees), trim(days),
+                    textEnds.length == 2 * size ? textEnds : Arrays.copyOf(textEnds, 2 * size),
+                    text.length == textSize ? text : Arrays.copyOf(text, textSize));
+        }
+
+        private int[] trim(int[] column) {
+            return column.length == size ? column : Arrays.copyOf(column, size);
+        }
+
+        private byte[] trim(byte[] column) {
+            return column.length == size ? column : Arrays.copyOf(column, size);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Immutable, consistent view of every task at one version. Writers derive
+ * a new snapshot from the current one and publish it; readers never lock
+ * and never see a half-applied change. Lists returned from a snapshot are
+ * read-only views, not copies; their tasks are decoded from the columnar
+ * store on access, so changing one has no effect on the snapshot.
+ */
+public final class TaskSnapshot {
+    static final Comparator<String> TEXT_ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final long version;
+    private final TaskRun all;
+    private final IdRun[] byStatus;
+    private final AssigneeIndex byAssignee;
+    private final CreatedIndex byCreated;
+    // Sort orders, derived on first use. The title order is also carried
+    // into the snapshots derived from this one.
+    private volatile OrderIndex byTitle;
+    private volatile RunChain assigneeOrder;
+    private volatile RunChain createdOrder;
+
+    private TaskSnapshot(long version, TaskRun all, IdRun[] byStatus, AssigneeIndex byAssignee,
+                         CreatedIndex byCreated) {
+        this.version = version;
+        this.all = all;
+        this.byStatus = byStatus;
+        this.byAssignee = byAssignee;
+        this.byCreated = byCreated;
+    }
+
+    static TaskSnapshot empty() {
+        IdRun[] byStatus = new IdRun[TaskStatus.values().length];
+        Arrays.fill(byStatus, IdRun.EMPTY);
+        return new TaskSnapshot(0, TaskRun.empty(new TaskRun.Dictionaries()), byStatus, AssigneeIndex.EMPTY,
+                CreatedIndex.EMPTY);
+    }
+
+    /**
+     * Builds the next version from tasks that are already sorted by id,
+     * sharing this snapshot's dictionaries.
+     */
+    TaskSnapshot reload(List<Task> sorted) {
+        int[] statusCounts = new int[byStatus.length];
+        Map<String, int[]> assigneeCounts = new HashMap<>();
+        for (Task task : sorted) {
+            statusCounts[task.getStatus().ordinal()]++;
+            assigneeCounts.computeIfAbsent(task.getAssignedTo(), k -> new int[1])[0]++;
+        }
+        int[][] statusIds = new int[byStatus.length][];
+        for (int i = 0; i < statusIds.length; i++) {
+            statusIds[i] = new int[statusCounts[i]];
+            statusCounts[i] = 0;
+        }
+        Map<String, int[]> assigneeIds = new HashMap<>();
+        for (Task task : sorted) {
+            int status = task.getStatus().ordinal();
+            statusIds[status][statusCounts[status]++] = task.getId();
+            add(assigneeIds, assigneeCounts, task.getAssignedTo(), task.getId());
+        }
+        IdRun[] statusRuns = new IdRun[byStatus.length];
+        for (int i = 0; i < statusRuns.length; i++) {
+            statusRuns[i] = IdRun.of(statusIds[i], statusIds[i].length);
+        }
+        return new TaskSnapshot(version + 1, TaskRun.of(sorted, all.dictionaries()),
+                statusRuns, AssigneeIndex.of(assigneeIds), CreatedIndex.of(sorted));
+    }
+
+    /**
+     * Appends {@code id} to its group, sized from {@code counts} on first use.
+     * The count then tracks how much of the group is filled.
+     */
+    private static void add(Map<String, int[]> ids, Map<String, int[]> counts, String value, int id) {
+        int[] count = counts.get(value);
+        int[] group = ids.get(value);
+        if (group == null) {
+            group = new int[count[0]];
+            ids.put(value, group);
+            count[0] = 0;
+        }
+        group[count[0]++] = id;
+    }
+
+    /**
+     * Returns the next version with {@code task} added or replacing the task
+     * with the same id.
+     */
+    TaskSnapshot with(Task task) {
+        Task previous = all.find(task.getId());
+        TaskSnapshot next = new TaskSnapshot(version + 1, all.with(task),
+                refile(byStatus, task.getId(), previous == null ? null : previous.getStatus(), task.getStatus()),
+                refile(byAssignee, task.getId(), previous == null ? null : previous.getAssignedTo(),
+                        task.getAssignedTo()),
+                refile(byCreated, task.getId(), previous == null ? null : previous.getCreatedDate(),
+                        task.getCreatedDate()));
+        OrderIndex titles = byTitle;
+        if (titles != null) {
+            // Place the task as stored, which is how later lookups see it.
+            Task stored = next.all.find(task.getId());
+            if (previous == null || !previous.getTitle().equals(stored.getTitle())) {
+                Comparator<Task> order = comparator(TaskQuery.SortKey.TITLE);
+                if (previous != null) {
+                    titles = titles.without(previous, order, all::find);
+                }
+                titles = titles.with(stored, order, next.all::find);
+            }
+        }
+        next.byTitle = titles;
+        return next;
+    }
+
+    TaskSnapshot without(int id) {
+        Task previous = all.find(id);
+        if (previous == null) {
+            return this;
+        }
+        TaskSnapshot next = new TaskSnapshot(version + 1, all.without(id),
+                refile(byStatus, id, previous.getStatus(), null),
+                refile(byAssignee, id, previous.getAssignedTo(), null),
+                refile(byCreated, id, previous.getCreatedDate(), null));
+        OrderIndex titles = byTitle;
+        if (titles != null) {
+            next.byTitle = titles.without(previous, comparator(TaskQuery.SortKey.TITLE), all::find);
+        }
+        return next;
+    }
+
+    private static IdRun[] refile(IdRun[] groups, int id, TaskStatus oldStatus, TaskStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return groups;
+        }
+        IdRun[] copy = groups.clone();
+        if (oldStatus != null) {
+            copy[oldStatus.ordinal()] = copy[oldStatus.ordinal()].without(id);
+        }
+        if (newStatus != null) {
+            copy[newStatus.ordinal()] = copy[newStatus.ordinal()].with(id);
+        }
+        return copy;
+    }
+
+    private static CreatedIndex refile(CreatedIndex index, int id, LocalDate oldDate, LocalDate newDate) {
+        if (oldDate != null && oldDate.equals(newDate)) {
+            return index;
+        }
+        if (oldDate != null) {
+            index = index.without(id, Math.toIntExact(oldDate.toEpochDay()));
+        }
+        if (newDate != null) {
+            index = index.with(id, Math.toIntExact(newDate.toEpochDay()));
+        }
+        return index;
+    }
+
+    private static AssigneeIndex refile(AssigneeIndex index, int id, String oldValue, String newValue) {
+        if (oldValue != null && oldValue.equals(newValue)) {
+            return index;
+        }
+        if (oldValue != null) {
+            index = index.without(oldValue, id);
+        }
+        if (newValue != null) {
+            index = index.with(newValue, id);
+        }
+        return index;
+    }
+
+    /**
+     * Increases by one for every published change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * Returns every task in ascending id order.
+     */
+    public List<Task> getAllTasks() {
+        return all;
+    }
+
+    public Task getTaskById(int id) {
+        return all.find(id);
+    }
+
+    /**
+     * Returns every task ordered by {@code key}, ties broken by id, as a view
+     * like {@link #getAllTasks()}; descending reverses the whole order.
+     * Status, assignee and created date read their groups straight from the
+     * snapshot's indexes. Title has no group index: the first title sort
+     * builds a permutation in O(n log n), and the snapshots derived from
+     * this one keep it current with a few lookups per change. RELEVANCE
+     * means nothing without a search and sorts by id.
+     */
+    public List<Task> getTasksSortedBy(TaskQuery.SortKey key, boolean descending) {
+        boolean byId = key == TaskQuery.SortKey.ID || key == TaskQuery.SortKey.RELEVANCE;
+        if (byId && !descending) {
+            return all;
+        }
+        IntUnaryOperator order = order(key);
+        int size = all.size();
+        return new TaskList(size, descending ? i -> order.applyAsInt(size - 1 - i) : order);
+    }
+
+    /**
+     * Returns the id at each position of the ascending order for {@code key}.
+     */
+    IntUnaryOperator order(TaskQuery.SortKey key) {
+        return switch (key) {
+            case TITLE -> titleOrder()::get;
+            case STATUS -> new RunChain(byStatus)::get;
+            case ASSIGNEE -> assigneeOrder()::get;
+            case CREATED -> createdOrder()::get;
+            case ID, RELEVANCE -> all::idAt;
+        };
+    }
+
+    /**
+     * The order {@link #getTasksSortedBy} uses for {@code key}, as a
+     * comparator; text compares case-insensitively first. RELEVANCE is
+     * left to the caller, which has the scores.
+     */
+    static Comparator<Task> comparator(TaskQuery.SortKey key) {
+        Comparator<Task> order = switch (key) {
+            case TITLE -> Comparator.comparing(Task::getTitle, TEXT_ORDER);
+            case STATUS -> Comparator.comparing(Task::getStatus);
+            case ASSIGNEE -> Comparator.comparing(Task::getAssignedTo, AssigneeIndex.ORDER);
+            case CREATED -> Comparator.comparing(Task::getCreatedDate);
+            case ID, RELEVANCE -> (a, b) -> 0;
+        };
+        return order.thenComparingInt(Task::getId);
+    }
+
+    private OrderIndex titleOrder() {
+        OrderIndex order = byTitle;
+        if (order == null) {
+            // Sort positions by title alone; positions are in id order, so
+            // they break ties the way comparator(TITLE) does.
+            String[] titles = all.titles();
+            Integer[] positions = new Integer[titles.length];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = i;
+            }
+            Arrays.sort(positions, (a, b) -> {
+                int c = TEXT_ORDER.compare(titles[a], titles[b]);
+                return c != 0 ? c : Integer.compare(a, b);
+            });
+            int[] ids = new int[positions.length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = all.idAt(positions[i]);
+            }
+            order = OrderIndex.of(ids);
+            byTitle = order;
+        }
+        return order;
+    }
+
+    private RunChain assigneeOrder() {
+        RunChain order = assigneeOrder;
+        if (order == null) {
+            order = new RunChain(byAssignee.runs());
+            assigneeOrder = order;
+        }
+        return order;
+    }
+
+    private RunChain createdOrder() {
+        RunChain order = createdOrder;
+        if (order == null) {
+            order = new RunChain(byCreated.runs());
+            createdOrder = order;
+        }
+        return order;
+    }
+
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        IdRun ids = statusIds(status);
+        return new TaskList(ids.size(), ids::get);
+    }
+
+    public List<Task> getTasksByUser(String username) {
+        IdRun ids = assigneeIds(username);
+        return new TaskList(ids.size(), ids::get);
+    }
+
+    public int countByStatus(TaskStatus status) {
+        return statusIds(status).size();
+    }
+
+    /**
+     * Returns the tasks created from {@code from} to {@code to}, both
+     * inclusive, oldest first and by id within a day. A {@code null} bound
+     * leaves that end of the range open.
+     */
+    public List<Task> getTasksCreatedBetween(LocalDate from, LocalDate to) {
+        int[] ids = byCreated.ids(CreatedIndex.lower(from), CreatedIndex.upper(to));
+        return new TaskList(ids.length, i -> ids[i]);
+    }
+
+    public int countCreatedBetween(LocalDate from, LocalDate to) {
+        return byCreated.count(CreatedIndex.lower(from), CreatedIndex.upper(to));
+    }
+
+    /**
+     * Returns this snapshot's aggregates. They read the group sizes that
+     * every change keeps up to date, so nothing is counted here.
+     */
+    public TaskStats getStats() {
+        int[] statusCounts = new int[byStatus.length];
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] = byStatus[i].size();
+        }
+        return new TaskStats(version, all.size(), statusCounts, byAssignee.counts());
+    }
+
+    /**
+     * The tasks with the first {@code count} of {@code ids}, in that order.
+     */
+    List<Task> tasksWithIds(int[] ids, int count) {
+        return new TaskList(count, i -> ids[i]);
+    }
+
+    TaskRun rows() {
+        return all;
+    }
+
+    IdRun statusIds(TaskStatus status) {
+        return byStatus[status.ordinal()];
+    }
+
+    IdRun assigneeIds(String username) {
+        return byAssignee.get(username);
+    }
+
+    CreatedIndex createdIds() {
+        return byCreated;
+    }
+
+    /**
+     * The tasks with the given ids, looked up in the snapshot's rows on
+     * access.
+     */
+    private final class TaskList extends AbstractList<Task> implements RandomAccess {
+        private final int size;
+        private final IntUnaryOperator idAt;
+
+        TaskList(int size, IntUnaryOperator idAt) {
+            this.size = size;
+            this.idAt = idAt;
+        }
+
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return all.find(idAt.applyAsInt(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
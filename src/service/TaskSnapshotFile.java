@@ -0,0 +1,406 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary copy of the base task file, used to skip CSV parsing on
+ * startup. Layout (all integers are unsigned varints unless noted):
+ *
+ * <pre>
+ * magic "TFSN" (4 bytes), format version, row count, max id,
+ * assignee dictionary: count, then count length-prefixed UTF-8 strings
+ * rows: id, title, description, status ordinal, assignee code,
+ *       createdDate as a zigzag-encoded epoch day
+ * CRC32 of everything above (8 bytes, big-endian long)
+ * </pre>
+ */
+class TaskSnapshotFile {
+    private static final byte[] MAGIC = { 'T', 'F', 'S', 'N' };
+    private static final int VERSION = 3;
+    private static final int BLOCK_SIZE = 64 * 1024;
+    // Id, two string lengths, status, assignee and date take a byte each.
+    private static final int MIN_ROW_BYTES = 6;
+
+    private TaskSnapshotFile() {}
+
+    static void write(Path path, List<Task> tasks, int maxId) throws IOException {
+        Map<String, Integer> assignees = new HashMap<>();
+        List<String> assigneeDict = new ArrayList<>();
+        for (Task task : tasks) {
+            if (assignees.putIfAbsent(task.getAssignedTo(), assigneeDict.size()) == null) {
+                assigneeDict.add(task.getAssignedTo());
+            }
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            Encoder encoder = new Encoder(out, crc);
+            encoder.bytes(MAGIC);
+            encoder.varint(VERSION);
+            encoder.varint(tasks.size());
+            encoder.varint(maxId);
+            encoder.dictionary(assigneeDict);
+            for (Task task : tasks) {
+                encoder.varint(task.getId());
+                encoder.string(task.getTitle());
+                encoder.string(task.getDescription());
+                encoder.varint(task.getStatus().ordinal());
+                encoder.varint(assignees.get(task.getAssignedTo()));
+                encoder.varint(zigzag(Math.toIntExact(task.getCreatedDate().toEpochDay())));
+            }
+            out.writeLong(crc.getValue());
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot, failing with an {@link IOException} when the file is
+     * truncated, has an unknown version, does not match its checksum or
+     * holds anything that does not decode. The checksum is verified before
+     * any row is decoded, so {@code listener} only ever sees rows of an
+     * intact file.
+     */
+    static MappedTaskLoader.Result read(Path path, LoadListener listener) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large: " + path);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < MAGIC.length + Long.BYTES) {
+            throw new IOException("Snapshot truncated: " + path);
+        }
+        int bodyLength = data.limit() - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate().position(0).limit(bodyLength));
+        if (crc.getValue() != data.getLong(bodyLength)) {
+            throw new IOException("Snapshot checksum mismatch: " + path);
+        }
+
+        Decoder decoder = new Decoder(data, bodyLength);
+        Header header = header(decoder, path, bodyLength);
+        int count = header.count;
+
+        List<Task> tasks = new ArrayList<>(count);
+        int nextPrefix = LoadListener.FIRST_PREFIX;
+        int progressStep = Math.max(1, count / 100);
+        boolean ordered = true;
+        for (int i = 0; i < count; i++) {
+            Task task = decoder.row(header, path);
+            ordered &= tasks.isEmpty() || tasks.get(tasks.size() - 1).getId() < task.getId();
+            tasks.add(task);
+
+            // Prefixes grow geometrically and stop at half the file, so
+            // rebuilding them adds a small fraction of the final build.
+            if (tasks.size() == nextPrefix) {
+                if (ordered && nextPrefix <= count / 2) {
+                    listener.prefix(tasks);
+                }
+                nextPrefix *= LoadListener.PREFIX_GROWTH;
+            }
+            if ((i + 1) % progressStep == 0) {
+                listener.progress((int) ((i + 1) * 100L / count));
+            }
+        }
+        return new MappedTaskLoader.Result(tasks, header.maxId);
+    }
+
+    /**
+     * Reads the header of a snapshot too large to map, growing the read
+     * until the assignee dictionary fits.
+     */
+    static Header readHeader(FileChannel channel, Path path) throws IOException {
+        long bodyLength = channel.size() - Long.BYTES;
+        if (bodyLength < MAGIC.length) {
+            throw new IOException("Snapshot truncated: " + path);
+        }
+        for (int size = BLOCK_SIZE; ; size *= 2) {
+            ByteBuffer block = read(channel, 0, (int) Math.min(size, bodyLength));
+            try {
+                return header(new Decoder(block, block.limit()), path, bodyLength);
+            } catch (EOFException e) {
+                if (block.limit() == bodyLength) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the rows of an open snapshot a block at a time without decoding
+     * their text, handing {@code offsets} the file offset of every row and
+     * then the offset just past the last one. The whole file passes through
+     * the checksum on the way, so a damaged file fails here.
+     */
+    static void scanRows(FileChannel channel, Header header, Path path, LongConsumer offsets) throws IOException {
+        long bodyLength = channel.size() - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(read(channel, 0, header.rowsStart));
+
+        long blockStart = header.rowsStart;
+        int blockSize = BLOCK_SIZE;
+        int row = 0;
+        while (row < header.count) {
+            ByteBuffer block = read(channel, blockStart, (int) Math.min(blockSize, bodyLength - blockStart));
+            Decoder decoder = new Decoder(block, block.limit());
+            int consumed = 0;
+            try {
+                for (; row < header.count; row++) {
+                    decoder.skipRow(header, path);
+                    offsets.accept(blockStart + consumed);
+                    consumed = decoder.position();
+                }
+            } catch (EOFException e) {
+                if (blockStart + block.limit() == bodyLength) {
+                    throw e;
+                }
+                // The row runs past the block; read again from its start,
+                // with a bigger block if it did not fit a whole one.
+                if (consumed == 0) {
+                    blockSize *= 2;
+                }
+            }
+            crc.update(block.array(), 0, consumed);
+            blockStart += consumed;
+        }
+        offsets.accept(blockStart);
+
+        if (blockStart != bodyLength || crc.getValue() != read(channel, bodyLength, Long.BYTES).getLong(0)) {
+            throw new IOException("Snapshot checksum mismatch: " + path);
+        }
+    }
+
+    /**
+     * Decodes {@code count} consecutive rows from {@code rows}, which starts
+     * at a row boundary.
+     */
+    static List<Task> decodeRows(ByteBuffer rows, int count, Header header, Path path) throws IOException {
+        Decoder decoder = new Decoder(rows, rows.limit());
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(decoder.row(header, path));
+        }
+        return tasks;
+    }
+
+    static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Snapshot truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static Header header(Decoder decoder, Path path, long bodyLength) throws IOException {
+        for (byte b : MAGIC) {
+            if (decoder.next() != b) {
+                throw new IOException("Not a task snapshot: " + path);
+            }
+        }
+        int version = decoder.varint();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + path);
+        }
+        int count = decoder.varint();
+        int maxId = decoder.varint();
+        String[] assignees = decoder.dictionary();
+        if (count < 0 || count > (bodyLength - decoder.position()) / MIN_ROW_BYTES) {
+            throw new IOException("Row count " + count + " does not fit the snapshot: " + path);
+        }
+        return new Header(count, maxId, assignees, decoder.position());
+    }
+
+    /**
+     * What precedes the rows: their count, the highest id ever assigned,
+     * the assignee dictionary and the offset of the first row.
+     */
+    static final class Header {
+        final int count;
+        final int maxId;
+        final String[] assignees;
+        final int rowsStart;
+
+        Header(int count, int maxId, String[] assignees, int rowsStart) {
+            this.count = count;
+            this.maxId = maxId;
+            this.assignees = assignees;
+            this.rowsStart = rowsStart;
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Encoder {
+        private final DataOutputStream out;
+        private final CRC32 crc;
+        private final byte[] varintBuffer = new byte[5];
+
+        Encoder(DataOutputStream out, CRC32 crc) {
+            this.out = out;
+            this.crc = crc;
+        }
+
+        void bytes(byte[] bytes) throws IOException {
+            out.write(bytes);
+            crc.update(bytes);
+        }
+
+        void varint(int value) throws IOException {
+            int length = 0;
+            while ((value & ~0x7F) != 0) {
+                varintBuffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            varintBuffer[length++] = (byte) value;
+            out.write(varintBuffer, 0, length);
+            crc.update(varintBuffer, 0, length);
+        }
+
+        void string(String value) throws IOException {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            bytes(utf8);
+        }
+
+        void dictionary(List<String> values) throws IOException {
+            varint(values.size());
+            for (String value : values) {
+                string(value);
+            }
+        }
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer data;
+        private final int limit;
+        private int pos;
+        private byte[] scratch = new byte[256];
+
+        Decoder(ByteBuffer data, int limit) {
+            this.data = data;
+            this.limit = limit;
+        }
+
+        byte next() throws IOException {
+            if (pos >= limit) {
+                throw new EOFException("Snapshot truncated");
+            }
+            return data.get(pos++);
+        }
+
+        int varint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = next();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in snapshot");
+        }
+
+        String string() throws IOException {
+            int length = varint();
+            if (length < 0 || length > limit - pos) {
+                throw new EOFException("Snapshot truncated");
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            data.get(pos, scratch, 0, length);
+            pos += length;
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int position() {
+            return pos;
+        }
+
+        Task row(Header header, Path path) throws IOException {
+            int id = varint();
+            String title = string();
+            String description = string();
+            TaskStatus status = TaskStatus.fromOrdinal(status(path));
+            String assignedTo = header.assignees[assignee(header, path)];
+            int epochDay = unzigzag(varint());
+            try {
+                return new Task(id, title, description, status, assignedTo, LocalDate.ofEpochDay(epochDay));
+            } catch (DateTimeException e) {
+                throw new IOException("Bad created date " + epochDay + ": " + path, e);
+            }
+        }
+
+        void skipRow(Header header, Path path) throws IOException {
+            varint();
+            skip(varint());
+            skip(varint());
+            status(path);
+            assignee(header, path);
+            varint();
+        }
+
+        private int status(Path path) throws IOException {
+            int ordinal = varint();
+            if (ordinal < 0 || ordinal >= TaskStatus.values().length) {
+                throw new IOException("Unknown status " + ordinal + ": " + path);
+            }
+            return ordinal;
+        }
+
+        private int assignee(Header header, Path path) throws IOException {
+            int code = varint();
+            if (code < 0 || code >= header.assignees.length) {
+                throw new IOException("Unknown assignee " + code + ": " + path);
+            }
+            return code;
+        }
+
+        private void skip(int length) throws IOException {
+            if (length < 0 || length > limit - pos) {
+                throw new EOFException("Snapshot truncated");
+            }
+            pos += length;
+        }
+
+        String[] dictionary() throws IOException {
+            int count = varint();
+            // Every entry takes at least its length byte.
+            if (count < 0 || count > limit - pos) {
+                throw new EOFException("Snapshot truncated");
+            }
+            String[] values = new String[count];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = string();
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package service;
+
+import model.TaskStatus;
+import java.util.Map;
+
+/**
+ * Aggregate figures for one {@link TaskSnapshot}, read from the snapshot's
+ * group sizes rather than by scanning its tasks.
+ */
+public final class TaskStats {
+    private final long version;
+    private final int total;
+    private final int[] statusCounts;
+    private final Map<String, Integer> assigneeCounts;
+
+    TaskStats(long version, int total, int[] statusCounts, Map<String, Integer> assigneeCounts) {
+        this.version = version;
+        this.total = total;
+        this.statusCounts = statusCounts;
+        this.assigneeCounts = assigneeCounts;
+    }
+
+    /**
+     * The version of the snapshot these figures were taken from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCount(TaskStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Tasks that are not done yet.
+     */
+    public int getActive() {
+        return total - getCount(TaskStatus.DONE);
+    }
+
+    /**
+     * Done tasks as a whole percentage of all tasks, rounded down; 0 when
+     * there are no tasks.
+     */
+    public int getCompletionPercent() {
+        return total > 0 ? (int) (getCount(TaskStatus.DONE) * 100L / total) : 0;
+    }
+
+    /**
+     * Number of tasks per assignee, ordered by name as the assignee column
+     * sorts. Only assignees with at least one task are present. The map is
+     * a read-only view of the snapshot's assignee index.
+     */
+    public Map<String, Integer> getAssigneeCounts() {
+        return assigneeCounts;
+    }
+
+    public int getMemberCount() {
+        return assigneeCounts.size();
+    }
+}
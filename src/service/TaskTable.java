@@ -0,0 +1,128 @@
+package service;
+
+import model.Task;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Mutable task rows in insertion order with an id index, used while loading
+ * to apply the journal on top of the base file before the rows are moved
+ * into the columnar snapshot. Lookups, updates and deletes are constant
+ * time: a delete only clears its slot, and the slot array is compacted once
+ * more than half of it is empty.
+ */
+class TaskTable implements Iterable<Task> {
+    private static final int MISSING = -1;
+    private static final int MIN_COMPACT_SLOTS = 1024;
+
+    private Task[] slots;
+    private int slotCount;
+    private int size;
+    private final IntIntHashMap slotById;
+
+    TaskTable(int expectedSize) {
+        slots = new Task[Math.max(16, expectedSize)];
+        slotById = new IntIntHashMap(expectedSize);
+    }
+
+    void add(Task task) {
+        if (slotCount == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+        slotById.put(task.getId(), slotCount);
+        slots[slotCount++] = task;
+        size++;
+    }
+
+    /**
+     * Replaces the task with the same id and returns the previous one, or
+     * returns {@code null} and leaves the table untouched if there is none.
+     */
+    Task replace(Task task) {
+        int slot = slotById.get(task.getId(), MISSING);
+        if (slot == MISSING) {
+            return null;
+        }
+        Task previous = slots[slot];
+        slots[slot] = task;
+        return previous;
+    }
+
+    /**
+     * Replaces the task with the same id, or appends it if there is none.
+     */
+    void put(Task task) {
+        if (replace(task) == null) {
+            add(task);
+        }
+    }
+
+    Task remove(int id) {
+        int slot = slotById.remove(id, MISSING);
+        if (slot == MISSING) {
+            return null;
+        }
+        Task removed = slots[slot];
+        slots[slot] = null;
+        size--;
+        int empty = slotCount - size;
+        if (empty > MIN_COMPACT_SLOTS && empty > size) {
+            compact();
+        }
+        return removed;
+    }
+
+    List<Task> toList() {
+        List<Task> list = new ArrayList<>(size);
+        for (Task task : this) {
+            list.add(task);
+        }
+        return list;
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < slotCount; i++) {
+            Task task = slots[i];
+            if (task != null) {
+                slots[target] = task;
+                slotById.put(task.getId(), target);
+                target++;
+            }
+        }
+        Arrays.fill(slots, target, slotCount, null);
+        slotCount = target;
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<Task>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < slotCount && slots[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < slotCount;
+            }
+
+            @Override
+            public Task next() {
+                if (next >= slotCount) {
+                    throw new NoSuchElementException();
+                }
+                Task task = slots[next];
+                next = advance(next + 1);
+                return task;
+            }
+        };
+    }
+}
@@ -0,0 +1,957 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntPredicate;
+
+/**
+ * Inverted index over task titles and descriptions.
+ *
+ * <p>Query syntax: whitespace separated terms are ANDed, the keyword
+ * {@code OR} separates alternatives, and a trailing {@code *} turns a term
+ * into a prefix match. Matches are ranked by the summed term frequency of
+ * the query terms, ties broken by ascending id. Searches give up with a
+ * {@link CancellationException} once their thread is interrupted.
+ *
+ * <p>A search walks the ids in ascending order, a block of postings at a
+ * time. Each posting keeps the highest frequency in every block of
+ * {@value #BLOCK} entries; once the best {@code limit} matches are found,
+ * a block whose maxima add up to no more than the weakest of them cannot
+ * contribute and is skipped without being intersected. Queries for common
+ * terms therefore stop paying once the top matches settle.
+ */
+class TextIndex {
+    private static final int MISSING = -1;
+    private static final String[] NO_TERMS = new String[0];
+    // Long loops check for interruption this often, so a search that is no
+    // longer wanted gives up the index's lock promptly.
+    private static final int CANCEL_CHECK_MASK = 4095;
+    // Checking a candidate against its terms costs about as much as merging
+    // this many posting entries.
+    private static final int NARROW_COST = 4;
+    private static final int BLOCK = 128;
+    // A clause whose rarest term holds at least one id in this many is
+    // intersected through bitmaps.
+    private static final int DENSE = 32;
+
+    private final TreeMap<String, Posting> postings = new TreeMap<>();
+    private final IntIntHashMap slotById = new IntIntHashMap();
+    private final List<String[]> termsBySlot = new ArrayList<>();
+    private final List<Integer> freeSlots = new ArrayList<>();
+
+    void put(int id, String title, String description) {
+        remove(id);
+
+        List<String> tokens = new ArrayList<>();
+        tokenize(title, tokens);
+        tokenize(description, tokens);
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        tokens.sort(null);
+        String[] distinct = new String[tokens.size()];
+        int count = 0;
+        for (int i = 0; i < tokens.size(); ) {
+            String term = tokens.get(i);
+            int frequency = 0;
+            while (i < tokens.size() && tokens.get(i).equals(term)) {
+                frequency++;
+                i++;
+            }
+            postings.computeIfAbsent(term, t -> new Posting()).put(id, frequency);
+            distinct[count++] = term;
+        }
+
+        String[] terms = Arrays.copyOf(distinct, count);
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = termsBySlot.size();
+            termsBySlot.add(terms);
+        } else {
+            slot = freeSlots.remove(freeSlots.size() - 1);
+            termsBySlot.set(slot, terms);
+        }
+        slotById.put(id, slot);
+    }
+
+    void remove(int id) {
+        int slot = slotById.remove(id, MISSING);
+        if (slot == MISSING) {
+            return;
+        }
+        for (String term : termsBySlot.get(slot)) {
+            Posting posting = postings.get(term);
+            posting.remove(id);
+            if (posting.size == 0) {
+                postings.remove(term);
+            }
+        }
+        termsBySlot.set(slot, NO_TERMS);
+        freeSlots.add(slot);
+    }
+
+    void clear() {
+        postings.clear();
+        slotById.clear();
+        termsBySlot.clear();
+        freeSlots.clear();
+    }
+
+    /**
+     * Returns up to {@code limit} matching ids, best match first.
+     */
+    int[] search(String query, int limit) {
+        return search(query, limit, null);
+    }
+
+    /**
+     * Like {@link #search(String, int)}, keeping only ids that
+     * {@code accept}, if given, accepts.
+     */
+    int[] search(String query, int limit, IntPredicate accept) {
+        List<Clause> clauses = new ArrayList<>();
+        for (List<Term> terms : parse(query)) {
+            Clause clause = clause(terms);
+            if (clause != null) {
+                clauses.add(clause);
+            }
+        }
+        if (clauses.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        TopIds top = new TopIds(limit);
+        int[][] ids = new int[clauses.size()][BLOCK];
+        int[][] scores = new int[clauses.size()][BLOCK];
+        int[] counts = new int[clauses.size()];
+        int[] next = new int[clauses.size()];
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            // Up to the end of the nearest driver block, so no clause has
+            // more than a block of candidates in the window.
+            int last = Integer.MAX_VALUE;
+            boolean done = true;
+            for (Clause clause : clauses) {
+                if (!clause.exhausted()) {
+                    last = Math.min(last, clause.blockEnd());
+                    done = false;
+                }
+            }
+            if (done) {
+                break;
+            }
+            if (top.isFull()) {
+                long bound = 0;
+                for (Clause clause : clauses) {
+                    bound += clause.bound(last);
+                }
+                // A later id needs a strictly higher score to displace one.
+                if (bound <= top.minScore()) {
+                    for (Clause clause : clauses) {
+                        clause.skipPast(last);
+                    }
+                    continue;
+                }
+            }
+            for (int c = 0; c < clauses.size(); c++) {
+                counts[c] = clauses.get(c).collect(last, ids[c], scores[c]);
+                next[c] = 0;
+            }
+            // Ids in several clauses add up their scores.
+            while (true) {
+                int id = Integer.MAX_VALUE;
+                for (int c = 0; c < counts.length; c++) {
+                    if (next[c] < counts[c]) {
+                        id = Math.min(id, ids[c][next[c]]);
+                    }
+                }
+                if (id == Integer.MAX_VALUE) {
+                    break;
+                }
+                int score = 0;
+                for (int c = 0; c < counts.length; c++) {
+                    if (next[c] < counts[c] && ids[c][next[c]] == id) {
+                        score += scores[c][next[c]++];
+                    }
+                }
+                if (accept == null || accept.test(id)) {
+                    top.offer(id, score);
+                }
+            }
+        }
+        return top.toArray();
+    }
+
+    /**
+     * Returns every matching id mapped to its score.
+     */
+    IntIntHashMap match(String query) {
+        return match(parse(query));
+    }
+
+    private IntIntHashMap match(List<List<Term>> clauses) {
+        IntIntHashMap scores = new IntIntHashMap();
+        for (List<Term> terms : clauses) {
+            matchClause(terms, (id, score) -> scores.put(id, scores.get(id, 0) + score));
+        }
+        return scores;
+    }
+
+    /**
+     * Like {@link #match(String)}, for a query known to match only among
+     * {@code candidates}, the ascending ids a previous query matched; see
+     * {@link #narrows}. A clause whose prefix terms cover many more postings
+     * than there are candidates checks each candidate against its own term
+     * list instead of merging those postings. Other clauses are matched as
+     * usual, which already costs about their smallest posting.
+     */
+    IntIntHashMap match(String query, int[] candidates) {
+        IntIntHashMap scores = new IntIntHashMap();
+        Match add = (id, score) -> scores.put(id, scores.get(id, 0) + score);
+        long narrowCost = (long) candidates.length * NARROW_COST;
+        for (List<Term> clause : parse(query)) {
+            if (prefixVolume(clause, narrowCost) >= narrowCost) {
+                narrowClause(clause, candidates, add);
+            } else {
+                matchClause(clause, add);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Sums the posting sizes under the clause's prefix terms, the work of
+     * merging them, stopping once it reaches {@code enough}.
+     */
+    private long prefixVolume(List<Term> clause, long enough) {
+        long volume = 0;
+        int terms = 0;
+        for (Term term : clause) {
+            if (term.prefix) {
+                for (Posting posting : postings.subMap(term.token, term.token + Character.MAX_VALUE).values()) {
+                    if ((terms++ & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException();
+                    }
+                    volume += posting.size;
+                    if (volume >= enough) {
+                        return volume;
+                    }
+                }
+            }
+        }
+        return volume;
+    }
+
+    /**
+     * Matches one clause among {@code candidates} from each task's sorted
+     * distinct terms; agrees with {@link #matchClause}.
+     */
+    private void narrowClause(List<Term> clause, int[] candidates, Match match) {
+        if (clause.isEmpty()) {
+            return;
+        }
+        Posting[] exact = new Posting[clause.size()];
+        for (int t = 0; t < exact.length; t++) {
+            Term term = clause.get(t);
+            if (!term.prefix) {
+                exact[t] = postings.get(term.token);
+                if (exact[t] == null) {
+                    return;
+                }
+            }
+        }
+        candidates:
+        for (int i = 0; i < candidates.length; i++) {
+            if ((i & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            int id = candidates[i];
+            int slot = slotById.get(id, MISSING);
+            if (slot == MISSING) {
+                continue;
+            }
+            String[] terms = termsBySlot.get(slot);
+            int score = 0;
+            for (int t = 0; t < exact.length; t++) {
+                int frequency = 0;
+                if (exact[t] != null) {
+                    frequency = exact[t].frequency(id);
+                } else {
+                    String prefix = clause.get(t).token;
+                    int at = Arrays.binarySearch(terms, prefix);
+                    for (at = at >= 0 ? at : -at - 1; at < terms.length && terms[at].startsWith(prefix); at++) {
+                        frequency += postings.get(terms[at]).frequency(id);
+                    }
+                }
+                if (frequency == 0) {
+                    continue candidates;
+                }
+                score += frequency;
+            }
+            match.accept(id, score);
+        }
+    }
+
+    /**
+     * Whether every task matching {@code next} also matches {@code previous},
+     * judged from the queries alone. It holds when each clause of
+     * {@code next} covers some clause of {@code previous}: every term there
+     * appears in it, a prefix term possibly as a longer term or prefix.
+     * Typing more of a word or adding a word both qualify.
+     */
+    static boolean narrows(String previous, String next) {
+        List<List<Term>> before = parse(previous);
+        for (List<Term> clause : parse(next)) {
+            boolean covered = clause.isEmpty();
+            for (List<Term> earlier : before) {
+                covered |= !earlier.isEmpty() && covers(clause, earlier);
+            }
+            if (!covered) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean covers(List<Term> clause, List<Term> earlier) {
+        for (Term wanted : earlier) {
+            boolean found = false;
+            for (Term term : clause) {
+                found |= wanted.prefix
+                        ? term.token.startsWith(wanted.token)
+                        : !term.prefix && term.token.equals(wanted.token);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits a query into OR-separated clauses of tokenized terms. Only the
+     * last token of a word ending in {@code *} is a prefix.
+     */
+    private static List<List<Term>> parse(String query) {
+        List<List<Term>> clauses = new ArrayList<>();
+        List<Term> clause = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                clauses.add(clause);
+                clause = new ArrayList<>();
+            } else if (!word.isEmpty()) {
+                boolean prefix = word.endsWith("*");
+                List<String> tokens = new ArrayList<>();
+                tokenize(prefix ? word.substring(0, word.length() - 1) : word, tokens);
+                for (int i = 0; i < tokens.size(); i++) {
+                    clause.add(new Term(tokens.get(i), prefix && i == tokens.size() - 1));
+                }
+            }
+        }
+        clauses.add(clause);
+        return clauses;
+    }
+
+    private static final class Term {
+        final String token;
+        final boolean prefix;
+
+        Term(String token, boolean prefix) {
+            this.token = token;
+            this.prefix = prefix;
+        }
+    }
+
+    private interface Match {
+        void accept(int id, int score);
+    }
+
+    /**
+     * Reports every task matching the clause with its score.
+     */
+    private void matchClause(List<Term> terms, Match match) {
+        Clause clause = clause(terms);
+        if (clause == null) {
+            return;
+        }
+        int[] ids = new int[BLOCK];
+        int[] scores = new int[BLOCK];
+        while (!clause.exhausted()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            int count = clause.collect(clause.blockEnd(), ids, scores);
+            for (int i = 0; i < count; i++) {
+                match.accept(ids[i], scores[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the postings of a clause's terms, or {@code null} when some
+     * term matches nothing.
+     */
+    private Clause clause(List<Term> terms) {
+        if (terms.isEmpty()) {
+            return null;
+        }
+        Posting[] found = new Posting[terms.size()];
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MAX_VALUE;
+        for (int t = 0; t < found.length; t++) {
+            Term term = terms.get(t);
+            found[t] = term.prefix ? prefixPosting(term.token) : postings.get(term.token);
+            if (found[t] == null || found[t].size == 0) {
+                return null;
+            }
+            first = Math.min(first, found[t].ids[0]);
+            last = Math.min(last, found[t].ids[found[t].size - 1]);
+        }
+        Arrays.sort(found, (a, b) -> Integer.compare(a.size, b.size));
+        // Once even the rarest term is common, a word of ids at a time beats
+        // galloping from entry to entry. Bitmaps only hold ids from 0 up.
+        boolean dense = found.length > 1 && first >= 0 && (long) found[0].size * DENSE >= last;
+        return dense ? new BitmapClause(found, last) : new GallopingClause(found);
+    }
+
+    /**
+     * Walks the matches of one clause in ascending id order, a window of ids
+     * at a time.
+     */
+    private abstract static class Clause {
+        abstract boolean exhausted();
+
+        /**
+         * The last id of the next window, which holds no more than
+         * {@value #BLOCK} candidates.
+         */
+        abstract int blockEnd();
+
+        /**
+         * Returns an upper bound on the score of any match up to id
+         * {@code last}, from the block maxima of the entries each term has
+         * in that range; 0 when some term has none.
+         */
+        abstract int bound(int last);
+
+        abstract void skipPast(int last);
+
+        /**
+         * Writes the matches up to id {@code last}, which is no later than
+         * the end of the next window, and their scores, and returns how many
+         * there are.
+         */
+        abstract int collect(int last, int[] ids, int[] scores);
+    }
+
+    /**
+     * Intersects the postings by walking the shortest one, the driver, and
+     * galloping through the others.
+     */
+    private static final class GallopingClause extends Clause {
+        private final Posting[] terms;
+        private final int[] cursors;
+
+        GallopingClause(Posting[] terms) {
+            this.terms = terms;
+            cursors = new int[terms.length];
+        }
+
+        @Override
+        boolean exhausted() {
+            return cursors[0] == terms[0].size;
+        }
+
+        @Override
+        int blockEnd() {
+            return terms[0].ids[Math.min(cursors[0] + BLOCK, terms[0].size) - 1];
+        }
+
+        @Override
+        int bound(int last) {
+            Posting driver = terms[0];
+            int from = cursors[0];
+            int to = driver.seek(last + 1, from);
+            if (to == from) {
+                return 0;
+            }
+            int bound = driver.maxFrequency(from, to - 1);
+            for (int t = 1; t < terms.length; t++) {
+                Posting posting = terms[t];
+                int at = posting.seek(driver.ids[from], cursors[t]);
+                cursors[t] = at;
+                int end = posting.seek(last + 1, at);
+                if (end == at) {
+                    return 0;
+                }
+                bound += posting.maxFrequency(at, end - 1);
+            }
+            return bound;
+        }
+
+        @Override
+        void skipPast(int last) {
+            cursors[0] = terms[0].seek(last + 1, cursors[0]);
+        }
+
+        @Override
+        int collect(int last, int[] ids, int[] scores) {
+            Posting driver = terms[0];
+            int count = 0;
+            int i = cursors[0];
+            candidates:
+            for (; i < driver.size && driver.ids[i] <= last; i++) {
+                int id = driver.ids[i];
+                int score = driver.frequencies[i];
+                for (int t = 1; t < terms.length; t++) {
+                    Posting posting = terms[t];
+                    int at = posting.seek(id, cursors[t]);
+                    cursors[t] = at;
+                    if (at == posting.size) {
+                        // No later candidate can match this term either.
+                        cursors[0] = driver.size;
+                        return count;
+                    }
+                    if (posting.ids[at] != id) {
+                        continue candidates;
+                    }
+                    score += posting.frequencies[at];
+                }
+                ids[count] = id;
+                scores[count++] = score;
+            }
+            cursors[0] = i;
+            return count;
+        }
+    }
+
+    /**
+     * Intersects the postings by ANDing their id bitmaps a word at a time.
+     * A match's position in each posting, and so its frequency, is the
+     * number of ids the posting has below it: the count up to its word plus
+     * the bits set below it in that word.
+     */
+    private static final class BitmapClause extends Clause {
+        private final Posting[] terms;
+        private final long[][] bits;
+        // Per term, the number of its ids below the word holding next.
+        private final int[] ranks;
+        private final int last;
+        private int next;
+
+        BitmapClause(Posting[] terms, int last) {
+            this.terms = terms;
+            this.last = last;
+            bits = new long[terms.length][];
+            ranks = new int[terms.length];
+            int first = 0;
+            for (int t = 0; t < terms.length; t++) {
+                bits[t] = terms[t].bits();
+                first = Math.max(first, terms[t].ids[0]);
+            }
+            next = first & ~63;
+            for (int t = 0; t < terms.length; t++) {
+                ranks[t] = terms[t].seek(next, 0);
+            }
+        }
+
+        @Override
+        boolean exhausted() {
+            return next > last;
+        }
+
+        @Override
+        int blockEnd() {
+            return Math.min(last, next / BLOCK * BLOCK + BLOCK - 1);
+        }
+
+        @Override
+        int bound(int until) {
+            if (until < next) {
+                return 0;
+            }
+            until = Math.min(until, last);
+            int bound = 0;
+            for (int t = 0; t < terms.length; t++) {
+                int from = rank(t, next);
+                int to = rank(t, until + 1);
+                if (to == from) {
+                    return 0;
+                }
+                bound += terms[t].maxFrequency(from, to - 1);
+            }
+            return bound;
+        }
+
+        /**
+         * The number of ids of term {@code t} below {@code id}, which lies at
+         * or after the word holding next.
+         */
+        private int rank(int t, int id) {
+            int rank = ranks[t];
+            for (int word = next >>> 6; word < id >>> 6; word++) {
+                rank += Long.bitCount(bits[t][word]);
+            }
+            // The word of the id after the last may lie past the bitmap.
+            return (id & 63) == 0 ? rank : rank + Long.bitCount(bits[t][id >>> 6] & ((1L << id) - 1));
+        }
+
+        @Override
+        void skipPast(int until) {
+            while (next <= until) {
+                int word = next >>> 6;
+                if (until < (word << 6 | 63)) {
+                    next = until + 1;
+                    return;
+                }
+                for (int t = 0; t < terms.length; t++) {
+                    ranks[t] += Long.bitCount(bits[t][word]);
+                }
+                next = (word + 1) << 6;
+            }
+        }
+
+        @Override
+        int collect(int until, int[] ids, int[] scores) {
+            until = Math.min(until, last);
+            int count = 0;
+            while (next <= until) {
+                int word = next >>> 6;
+                long matched = -1L << next;
+                boolean whole = until >= (word << 6 | 63);
+                if (!whole) {
+                    matched &= -1L >>> (63 - (until & 63));
+                }
+                for (int t = 0; t < terms.length; t++) {
+                    matched &= bits[t][word];
+                }
+                while (matched != 0) {
+                    int bit = Long.numberOfTrailingZeros(matched);
+                    matched &= matched - 1;
+                    long below = (1L << bit) - 1;
+                    int score = 0;
+                    for (int t = 0; t < terms.length; t++) {
+                        score += terms[t].frequencies[ranks[t] + Long.bitCount(bits[t][word] & below)];
+                    }
+                    ids[count] = word << 6 | bit;
+                    scores[count++] = score;
+                }
+                if (!whole) {
+                    next = until + 1;
+                    break;
+                }
+                for (int t = 0; t < terms.length; t++) {
+                    ranks[t] += Long.bitCount(bits[t][word]);
+                }
+                next = (word + 1) << 6;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Returns one posting for every term starting with {@code prefix}, their
+     * frequencies added up, or {@code null} if there is none. Merges them in
+     * pairs, then the merged ones in pairs, so each entry is copied about
+     * log(terms) times.
+     */
+    private Posting prefixPosting(String prefix) {
+        List<Posting> merging = new ArrayList<>(postings.subMap(prefix, prefix + Character.MAX_VALUE).values());
+        while (merging.size() > 1) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            List<Posting> merged = new ArrayList<>((merging.size() + 1) / 2);
+            for (int i = 0; i + 1 < merging.size(); i += 2) {
+                merged.add(Posting.merge(merging.get(i), merging.get(i + 1)));
+            }
+            if (merging.size() % 2 == 1) {
+                merged.add(merging.get(merging.size() - 1));
+            }
+            merging = merged;
+        }
+        return merging.isEmpty() ? null : merging.get(0);
+    }
+
+    /**
+     * Ids sorted ascending with their term frequency, and the highest
+     * frequency in each block of {@value #BLOCK} entries. Tasks are appended
+     * with increasing ids, so the common insert is an append.
+     */
+    private static final class Posting {
+        private int[] ids;
+        private int[] frequencies;
+        private int[] blockMax;
+        // One bit per id, built the first time a dense clause needs it.
+        private long[] bits;
+        private int size;
+
+        Posting() {
+            this(2);
+        }
+
+        private Posting(int capacity) {
+            ids = new int[capacity];
+            frequencies = new int[capacity];
+            blockMax = new int[Math.max(1, (capacity + BLOCK - 1) / BLOCK)];
+        }
+
+        /**
+         * Returns the union of {@code a} and {@code b}, adding up the
+         * frequencies of ids in both.
+         */
+        static Posting merge(Posting a, Posting b) {
+            Posting merged = new Posting(Math.max(2, a.size + b.size));
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.size && j < b.size) {
+                int id = Math.min(a.ids[i], b.ids[j]);
+                int frequency = 0;
+                if (a.ids[i] == id) {
+                    frequency += a.frequencies[i++];
+                }
+                if (b.ids[j] == id) {
+                    frequency += b.frequencies[j++];
+                }
+                merged.ids[n] = id;
+                merged.frequencies[n++] = frequency;
+            }
+            for (; i < a.size; i++, n++) {
+                merged.ids[n] = a.ids[i];
+                merged.frequencies[n] = a.frequencies[i];
+            }
+            for (; j < b.size; j++, n++) {
+                merged.ids[n] = b.ids[j];
+                merged.frequencies[n] = b.frequencies[j];
+            }
+            merged.size = n;
+            merged.updateBlocks(0);
+            return merged;
+        }
+
+        void put(int id, int frequency) {
+            int at = size > 0 && ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0 && at < size) {
+                frequencies[at] = frequency;
+                updateBlocks(at);
+                return;
+            }
+            if (at < 0) {
+                at = -at - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+                blockMax = Arrays.copyOf(blockMax, (ids.length + BLOCK - 1) / BLOCK);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            System.arraycopy(frequencies, at, frequencies, at + 1, size - at);
+            ids[at] = id;
+            frequencies[at] = frequency;
+            size++;
+            if (bits != null) {
+                if (id >>> 6 >= bits.length) {
+                    bits = Arrays.copyOf(bits, Math.max((id >>> 6) + 1, bits.length * 2));
+                }
+                bits[id >>> 6] |= 1L << id;
+            }
+            if (at == size - 1) {
+                int block = at / BLOCK;
+                blockMax[block] = at % BLOCK == 0 ? frequency : Math.max(blockMax[block], frequency);
+            } else {
+                updateBlocks(at);
+            }
+        }
+
+        int frequency(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            return at >= 0 ? frequencies[at] : 0;
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                System.arraycopy(frequencies, at + 1, frequencies, at, size - at - 1);
+                size--;
+                updateBlocks(at);
+                if (bits != null) {
+                    bits[id >>> 6] &= ~(1L << id);
+                }
+            }
+        }
+
+        /**
+         * Returns the ids as a bitmap, which from then on follows every
+         * change. Only called on a posting with ids.
+         */
+        long[] bits() {
+            if (bits == null) {
+                bits = new long[(ids[size - 1] >>> 6) + 1];
+                for (int i = 0; i < size; i++) {
+                    bits[ids[i] >>> 6] |= 1L << ids[i];
+                }
+            }
+            return bits;
+        }
+
+        /**
+         * Recomputes the maxima of the blocks from the one holding position
+         * {@code from} to the end, where entries have moved.
+         */
+        private void updateBlocks(int from) {
+            for (int block = from / BLOCK; block * BLOCK < size; block++) {
+                int max = 0;
+                for (int i = block * BLOCK, end = Math.min(i + BLOCK, size); i < end; i++) {
+                    max = Math.max(max, frequencies[i]);
+                }
+                blockMax[block] = max;
+            }
+        }
+
+        /**
+         * Returns the highest frequency in the blocks covering positions
+         * {@code from} to {@code to}, at least that of any entry between.
+         */
+        int maxFrequency(int from, int to) {
+            int max = 0;
+            for (int block = from / BLOCK; block <= to / BLOCK; block++) {
+                max = Math.max(max, blockMax[block]);
+            }
+            return max;
+        }
+
+        /**
+         * Returns the first position at or after {@code from} whose id is not
+         * less than {@code id}, or {@code size} if there is none.
+         */
+        int seek(int id, int from) {
+            if (from == size || ids[from] >= id) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && ids[high] < id) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            int at = Arrays.binarySearch(ids, low, high, id);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+
+    /**
+     * Bounded min-heap of (score, id) pairs packed into longs so that a higher
+     * score, then a lower id, compares greater.
+     */
+    private static final class TopIds {
+        private final int limit;
+        // Grows up to the limit, which may be far more than ever match.
+        private long[] heap;
+        private int size;
+
+        TopIds(int limit) {
+            this.limit = Math.max(0, limit);
+            heap = new long[Math.min(this.limit, BLOCK)];
+        }
+
+        void offer(int id, int score) {
+            if (limit == 0) {
+                return;
+            }
+            long ranked = ((long) score << 32) | (Integer.MAX_VALUE - id);
+            if (size < limit) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min(limit, heap.length * 2L));
+                }
+                heap[size] = ranked;
+                siftUp(size++);
+            } else if (ranked > heap[0]) {
+                heap[0] = ranked;
+                siftDown(0);
+            }
+        }
+
+        boolean isFull() {
+            return size == limit;
+        }
+
+        /**
+         * The lowest score among the kept ids; only meaningful once full.
+         */
+        int minScore() {
+            return (int) (heap[0] >>> 32);
+        }
+
+        int[] toArray() {
+            long[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            int[] ids = new int[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = Integer.MAX_VALUE - (int) (sorted[size - 1 - i] & 0xFFFFFFFFL);
+            }
+            return ids;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (heap[parent] <= heap[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && heap[left] < heap[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && heap[right] < heap[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+
+    static void tokenize(String text, List<String> tokens) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package ui;
+
+import model.Task;
+import service.TaskArchive;
+
+import javax.swing.table.AbstractTableModel;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only table model over a {@link TaskArchive}, for archives too large
+ * to load. The table only ever holds a window of the archive, as many rows
+ * as fit the viewport, so neither its height nor its row count grows with
+ * the archive; a separate scroll bar moves the window. Rows are read in
+ * blocks around the window and kept in a bounded LRU cache, so heap use
+ * does not depend on the archive size either.
+ */
+class ArchiveTableModel extends AbstractTableModel {
+
+    private static final int BLOCK_ROWS = 64;
+    private static final int MAX_CACHED_BLOCKS = 64;
+
+    private final TaskArchive archive;
+    private final Map<Integer, List<Task>> blocks = new LinkedHashMap<>(MAX_CACHED_BLOCKS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Task>> eldest) {
+            return size() > MAX_CACHED_BLOCKS;
+        }
+    };
+    private int offset;
+    private int window;
+
+    ArchiveTableModel(TaskArchive archive) {
+        this.archive = archive;
+    }
+
+    TaskArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Shows {@code window} rows starting at archive row {@code offset}, after
+     * reading the blocks that cover one window either side of them, so the
+     * next scroll step usually finds its rows cached.
+     */
+    void setWindow(int offset, int window) {
+        this.offset = Math.max(0, Math.min(offset, archive.size() - 1));
+        this.window = window;
+        prefetch(this.offset - window, this.offset + 2 * window);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Reads every uncached block touching rows {@code from} to {@code to},
+     * one positional read per run of consecutive missing blocks.
+     */
+    private void prefetch(int from, int to) {
+        int first = Math.max(0, from) / BLOCK_ROWS;
+        int last = (Math.min(archive.size(), to) - 1) / BLOCK_ROWS;
+        // Touch the cached blocks first so loading the others never evicts them.
+        for (int b = first; b <= last; b++) {
+            blocks.get(b);
+        }
+        int b = first;
+        while (b <= last) {
+            if (blocks.containsKey(b)) {
+                b++;
+                continue;
+            }
+            int runEnd = b;
+            while (runEnd < last && !blocks.containsKey(runEnd + 1)) {
+                runEnd++;
+            }
+            load(b, runEnd);
+            b = runEnd + 1;
+        }
+    }
+
+    private void load(int firstBlock, int lastBlock) {
+        int from = firstBlock * BLOCK_ROWS;
+        int to = Math.min(archive.size(), (lastBlock + 1) * BLOCK_ROWS);
+        try {
+            List<Task> tasks = archive.read(from, to);
+            for (int b = firstBlock; b <= lastBlock; b++) {
+                int start = b * BLOCK_ROWS - from;
+                blocks.put(b, List.copyOf(tasks.subList(start, Math.min(tasks.size(), start + BLOCK_ROWS))));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the task shown in {@code row} of the window, or {@code null}
+     * when its block could not be read.
+     */
+    Task getTaskAt(int row) {
+        int index = offset + row;
+        int block = index / BLOCK_ROWS;
+        List<Task> tasks = blocks.get(block);
+        if (tasks == null) {
+            load(block, block);
+            tasks = blocks.get(block);
+        }
+        return tasks == null ? null : tasks.get(index % BLOCK_ROWS);
+    }
+
+    @Override
+    public int getRowCount() {
+        return Math.max(0, Math.min(window, archive.size() - offset));
+    }
+
+    @Override
+    public int getColumnCount() {
+        return TaskTableModel.COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return TaskTableModel.COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Task task = getTaskAt(row);
+        return task == null ? null : TaskTableModel.columnValue(task, column);
+    }
+}
@@ -7,9 +7,19 @@ import util.UIConstants;
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class DashboardFrame extends JFrame {
 
+    private static final String TASKS_VIEW = "TASKS";
+    private static final String REPORTS_VIEW = "REPORTS";
+    private static final String SETTINGS_VIEW = "SETTINGS";
+    private static final int PREWARM_DELAY_MILLIS = 500;
+
     private final AuthService authService;
     private final TaskFileManager taskManager;
 
@@ -17,6 +27,9 @@ public class DashboardFrame extends JFrame {
     private JButton tasksButton;
     private JButton reportsButton;
     private JButton settingsButton;
+    private JLabel loadingLabel;
+    private JProgressBar loadingBar;
+    private final Map<String, JComponent> views = new HashMap<>();
 
     public DashboardFrame(AuthService authService) {
         this.authService = authService;
@@ -43,13 +56,20 @@ public class DashboardFrame extends JFrame {
         add(buildHeader(), BorderLayout.NORTH);
         add(buildSidebar(), BorderLayout.WEST);
 
-        contentPanel = new JPanel(new BorderLayout());
+        contentPanel = new JPanel(new CardLayout());
         contentPanel.setBackground(new Color(245, 247, 250));
         contentPanel.setBorder(new EmptyBorder(36, 36, 36, 36));
 
         add(contentPanel, BorderLayout.CENTER);
 
         showTaskList();
+        startLoading();
+
+        // Reports is the usual next stop. Build it shortly after start-up so
+        // its analysis runs on a worker thread before the first visit.
+        Timer prewarm = new Timer(PREWARM_DELAY_MILLIS, e -> view(REPORTS_VIEW));
+        prewarm.setRepeats(false);
+        prewarm.start();
     }
 
     /*
@@ -76,10 +96,22 @@ public class DashboardFrame extends JFrame {
         user.setFont(UIConstants.FONT_REGULAR);
         user.setForeground(new Color(226, 232, 240)); // slate-200
 
+        loadingLabel = new JLabel("Loading tasks...");
+        loadingLabel.setFont(UIConstants.FONT_SMALL);
+        loadingLabel.setForeground(new Color(203, 213, 225)); // slate-300
+
+        loadingBar = new JProgressBar(0, 100);
+        loadingBar.setPreferredSize(new Dimension(120, 8));
+        loadingBar.setBorderPainted(false);
+        loadingBar.setForeground(UIConstants.PRIMARY_COLOR);
+        loadingBar.setBackground(new Color(30, 41, 59)); // slate-800
+
         JButton logout = ghostButton("Logout");
         logout.setForeground(new Color(203, 213, 225)); // slate-300
         logout.addActionListener(e -> handleLogout());
 
+        right.add(loadingLabel);
+        right.add(loadingBar);
         right.add(user);
         right.add(logout);
 
@@ -197,32 +229,90 @@ public class DashboardFrame extends JFrame {
      */
 
     private void showTaskList() {
-        contentPanel.removeAll();
-        contentPanel.add(
-                new TaskListFrame(taskManager, authService).getContentPanel(),
-                BorderLayout.CENTER);
-        refresh();
+        showView(TASKS_VIEW);
     }
 
     private void showReports() {
-        contentPanel.removeAll();
-        contentPanel.add(
-                new ReportFrame(taskManager).getContentPanel(),
-                BorderLayout.CENTER);
-        refresh();
+        showView(REPORTS_VIEW);
     }
 
     private void showSettings() {
-        contentPanel.removeAll();
-        contentPanel.add(
-                new SettingsPanel(authService),
-                BorderLayout.CENTER);
-        refresh();
+        showView(SETTINGS_VIEW);
+    }
+
+    private void showView(String name) {
+        view(name);
+        ((CardLayout) contentPanel.getLayout()).show(contentPanel, name);
     }
 
-    private void refresh() {
-        contentPanel.revalidate();
-        contentPanel.repaint();
+    /**
+     * Returns the view called {@code name}, building it on first use. Views
+     * then stay in the card layout and keep themselves current from the
+     * task manager's change feed, so switching back is just a card flip.
+     */
+    private JComponent view(String name) {
+        JComponent view = views.get(name);
+        if (view == null) {
+            view = switch (name) {
+                case TASKS_VIEW -> new TaskListFrame(taskManager, authService).getContentPanel();
+                case REPORTS_VIEW -> new ReportFrame(taskManager).getContentPanel();
+                default -> new SettingsPanel(authService);
+            };
+            views.put(name, view);
+            contentPanel.add(view, name);
+        }
+        return view;
+    }
+
+    /*
+     * =====================================================
+     * LOADING
+     * =====================================================
+     */
+
+    /**
+     * Reads the task files on a worker thread. The views are already up and
+     * fill in from the change feed as the loader publishes its first rows;
+     * edits made in the meantime are queued by the task manager.
+     */
+    private void startLoading() {
+        new SwingWorker<Void, Integer>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                taskManager.loadTasks(percent -> publish(percent));
+                return null;
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                int percent = chunks.get(chunks.size() - 1);
+                loadingLabel.setText("Loading tasks... " + percent + "%");
+                loadingBar.setValue(percent);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    JOptionPane.showMessageDialog(DashboardFrame.this,
+                            "Could not load tasks: " + e.getCause().getMessage()
+                                    + "\nChanges are disabled so the task files are not overwritten.",
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+                loadingBar.setVisible(false);
+                if (taskManager.hasLoadFailed()) {
+                    // Stays up as a reminder that the store is read-only.
+                    loadingLabel.setText("Tasks could not be loaded; changes are disabled");
+                    loadingLabel.setForeground(new Color(248, 113, 113)); // red-400
+                } else {
+                    loadingLabel.setVisible(false);
+                }
+            }
+        }.execute();
     }
 
     /*
@@ -258,7 +348,27 @@ public class DashboardFrame extends JFrame {
         if (confirm == JOptionPane.YES_OPTION) {
             authService.logout();
             dispose();
-            SwingUtilities.invokeLater(() -> new LoginFrame(authService).setVisible(true));
+            // The next login opens a new task manager over the same files,
+            // so this one is closed before the login window comes back.
+            new SwingWorker<Void, Void>() {
+                @Override
+                protected Void doInBackground() {
+                    taskManager.close();
+                    return null;
+                }
+
+                @Override
+                protected void done() {
+                    try {
+                        get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (ExecutionException e) {
+                        e.getCause().printStackTrace();
+                    }
+                    new LoginFrame(authService).setVisible(true);
+                }
+            }.execute();
         }
     }
 }
@@ -1,22 +1,58 @@
 package ui;
 
-import model.Task;
+import model.TaskStatus;
+import service.TaskAnalytics;
+import service.TaskChangeFeed;
 import service.TaskFileManager;
+import service.TaskStats;
 import util.UIConstants;
 
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.*;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutionException;
 
 public class ReportFrame {
 
     private final TaskFileManager taskManager;
     private JPanel contentPanel;
 
+    private final JLabel[] statusValues = new JLabel[TaskStatus.values().length];
+    private JLabel percentLabel;
+    private JLabel completionDesc;
+    private ProgressBar completionBar;
+    private JPanel userList;
+    private final Map<String, UserRow> userRows = new HashMap<>();
+    private JLabel totalValue;
+    private JLabel activeValue;
+    private JLabel rateValue;
+    private JLabel membersValue;
+
+    private TaskChangeFeed.Subscription subscription;
+    private long shownVersion = -1;
+
+    private static final int CHART_DAYS = 30;
+    private static final int CHART_WEEKS = 12;
+
+    private JLabel analyticsStatus;
+    private ProgressBar analyticsProgress;
+    private BarChart dailyChart;
+    private JLabel dailyRange;
+    private BarChart weeklyChart;
+    private JLabel weeklyRange;
+    private JPanel teamCompletionList;
+    private JPanel backlogList;
+    private SwingWorker<TaskAnalytics, Integer> analysis;
+    private long analyzedVersion = -1;
+
     public ReportFrame(TaskFileManager taskManager) {
         this.taskManager = taskManager;
         initializeUI();
@@ -35,6 +71,191 @@ public class ReportFrame {
         scroll.getViewport().setBackground(UIConstants.BACKGROUND_COLOR);
 
         contentPanel.add(scroll, BorderLayout.CENTER);
+
+        // Build the figures as soon as the panel joins a window, even as a
+        // hidden card, but follow the change feed only while it is shown.
+        contentPanel.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & (HierarchyEvent.DISPLAYABILITY_CHANGED | HierarchyEvent.SHOWING_CHANGED)) == 0) {
+                return;
+            }
+            if (contentPanel.isShowing()) {
+                if (subscription == null) {
+                    // The cards read aggregates, so a queue of one is enough:
+                    // any backlog collapses into a single refresh.
+                    subscription = taskManager.subscribe(SwingUtilities::invokeLater, 1, changes -> refresh());
+                }
+            } else if (subscription != null) {
+                subscription.close();
+                subscription = null;
+            }
+            if (contentPanel.isDisplayable()) {
+                refresh();
+            }
+        });
+        refresh();
+    }
+
+    /* =====================================================
+       DATA
+       ===================================================== */
+
+    /**
+     * Shows the current aggregates in the existing cards. Bursts of changes
+     * collapse into one refresh, and an unchanged snapshot is skipped.
+     */
+    private void refresh() {
+        TaskStats stats = taskManager.getStats();
+        if (stats.getVersion() == shownVersion) {
+            // The cards are current, but the trends may not have run yet if
+            // the panel was built before it joined a window.
+            startAnalysis();
+            return;
+        }
+        shownVersion = stats.getVersion();
+
+        for (TaskStatus status : TaskStatus.values()) {
+            statusValues[status.ordinal()].setText(String.valueOf(stats.getCount(status)));
+        }
+
+        int done = stats.getCount(TaskStatus.DONE);
+        percentLabel.setText(stats.getCompletionPercent() + "%");
+        completionDesc.setText(done + " of " + stats.getTotal() + " tasks completed");
+        completionBar.setPercent(stats.getCompletionPercent());
+
+        refreshUserRows(stats.getAssigneeCounts());
+
+        totalValue.setText(String.valueOf(stats.getTotal()));
+        activeValue.setText(String.valueOf(stats.getActive()));
+        rateValue.setText(stats.getCompletionPercent() + "%");
+        membersValue.setText(String.valueOf(stats.getMemberCount()));
+
+        startAnalysis();
+    }
+
+    /**
+     * Recomputes the trend sections on a background worker unless one is
+     * already running; when it finishes it starts again if the tasks have
+     * changed in the meantime.
+     */
+    private void startAnalysis() {
+        if (analysis != null || analyzedVersion == shownVersion || !contentPanel.isDisplayable()) {
+            return;
+        }
+        analyticsStatus.setText("Analyzing... 0%");
+        analyticsProgress.setPercent(0);
+        analyticsProgress.setVisible(true);
+
+        analysis = new SwingWorker<>() {
+            @Override
+            protected TaskAnalytics doInBackground() {
+                return taskManager.analyze(percent -> publish(percent));
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                int percent = chunks.get(chunks.size() - 1);
+                analyticsStatus.setText("Analyzing... " + percent + "%");
+                analyticsProgress.setPercent(percent);
+            }
+
+            @Override
+            protected void done() {
+                analysis = null;
+                try {
+                    showAnalytics(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    analyticsStatus.setText("Analysis failed");
+                    analyticsProgress.setVisible(false);
+                    return;
+                }
+                startAnalysis();
+            }
+        };
+        analysis.execute();
+    }
+
+    private void showAnalytics(TaskAnalytics analytics) {
+        analyzedVersion = analytics.getVersion();
+        analyticsStatus.setText("Up to date");
+        analyticsProgress.setVisible(false);
+
+        SortedMap<LocalDate, Integer> perDay = analytics.getCreatedPerDay();
+        if (perDay.isEmpty()) {
+            dailyChart.setValues(new int[0]);
+            dailyRange.setText("No tasks yet");
+        } else {
+            LocalDate last = perDay.lastKey();
+            LocalDate first = last.minusDays(CHART_DAYS - 1);
+            int[] values = new int[CHART_DAYS];
+            perDay.subMap(first, last.plusDays(1)).forEach(
+                    (date, count) -> values[(int) (date.toEpochDay() - first.toEpochDay())] = count);
+            dailyChart.setValues(values);
+            dailyRange.setText(first + " to " + last);
+        }
+
+        SortedMap<LocalDate, Integer> perWeek = analytics.getCreatedPerWeek();
+        if (perWeek.isEmpty()) {
+            weeklyChart.setValues(new int[0]);
+            weeklyRange.setText("No tasks yet");
+        } else {
+            LocalDate last = perWeek.lastKey();
+            LocalDate first = last.minusWeeks(CHART_WEEKS - 1);
+            int[] values = new int[CHART_WEEKS];
+            perWeek.subMap(first, last.plusDays(1)).forEach(
+                    (week, count) -> values[(int) ((week.toEpochDay() - first.toEpochDay()) / 7)] = count);
+            weeklyChart.setValues(values);
+            weeklyRange.setText("Weeks of " + first + " to " + last);
+        }
+
+        teamCompletionList.removeAll();
+        for (TaskAnalytics.Completion c : analytics.getCompletionByAssignee()) {
+            teamCompletionList.add(createMetricRow("👤 " + c.getAssignee(),
+                    c.getDone() + " of " + c.getTotal() + " done (" + c.getPercent() + "%)", c.getPercent()));
+            teamCompletionList.add(Box.createRigidArea(new Dimension(0, 16)));
+        }
+        teamCompletionList.revalidate();
+        teamCompletionList.repaint();
+
+        int max = 1;
+        for (TaskAnalytics.AgeBucket bucket : TaskAnalytics.AgeBucket.values()) {
+            max = Math.max(max, analytics.getBacklog(bucket));
+        }
+        backlogList.removeAll();
+        for (TaskAnalytics.AgeBucket bucket : TaskAnalytics.AgeBucket.values()) {
+            int open = analytics.getBacklog(bucket);
+            backlogList.add(createMetricRow(bucket.getLabel(), open + " open tasks", (int) (open * 100.0 / max)));
+            backlogList.add(Box.createRigidArea(new Dimension(0, 16)));
+        }
+        backlogList.revalidate();
+        backlogList.repaint();
+    }
+
+    private void refreshUserRows(Map<String, Integer> counts) {
+        int max = 1;
+        for (int count : counts.values()) {
+            max = Math.max(max, count);
+        }
+
+        boolean membersChanged = !userRows.keySet().equals(counts.keySet());
+        if (membersChanged) {
+            userRows.keySet().retainAll(counts.keySet());
+            userList.removeAll();
+        }
+        for (Map.Entry<String, Integer> e : counts.entrySet()) {
+            UserRow row = userRows.computeIfAbsent(e.getKey(), this::createUserRow);
+            row.update(e.getValue(), max);
+            if (membersChanged) {
+                userList.add(row.panel);
+                userList.add(Box.createRigidArea(new Dimension(0, 16)));
+            }
+        }
+        if (membersChanged) {
+            userList.revalidate();
+            userList.repaint();
+        }
     }
 
     private JPanel buildHeader() {
@@ -73,6 +294,12 @@ public class ReportFrame {
         wrapper.add(buildUserDistribution());
         wrapper.add(Box.createRigidArea(new Dimension(0, 28)));
         wrapper.add(buildMiniStats());
+        wrapper.add(Box.createRigidArea(new Dimension(0, 36)));
+        wrapper.add(buildTrendsHeader());
+        wrapper.add(Box.createRigidArea(new Dimension(0, 20)));
+        wrapper.add(buildCreatedCharts());
+        wrapper.add(Box.createRigidArea(new Dimension(0, 28)));
+        wrapper.add(buildTrendLists());
 
         return wrapper;
     }
@@ -82,14 +309,14 @@ public class ReportFrame {
         grid.setOpaque(false);
         grid.setMaximumSize(new Dimension(Integer.MAX_VALUE, 150));
 
-        grid.add(createStatCard("Pending", taskManager.countByStatus("Pending"), new Color(251, 146, 60)));
-        grid.add(createStatCard("In Progress", taskManager.countByStatus("Progress"), new Color(59, 130, 246)));
-        grid.add(createStatCard("Completed", taskManager.countByStatus("Done"), new Color(34, 197, 94)));
+        grid.add(createStatCard("Pending", TaskStatus.PENDING, new Color(251, 146, 60)));
+        grid.add(createStatCard("In Progress", TaskStatus.PROGRESS, new Color(59, 130, 246)));
+        grid.add(createStatCard("Completed", TaskStatus.DONE, new Color(34, 197, 94)));
 
         return grid;
     }
 
-    private JPanel createStatCard(String title, int value, Color accent) {
+    private JPanel createStatCard(String title, TaskStatus status, Color accent) {
         JPanel card = createBaseCard();
         card.setLayout(new BorderLayout());
 
@@ -97,7 +324,8 @@ public class ReportFrame {
         left.setOpaque(false);
         left.setLayout(new BoxLayout(left, BoxLayout.Y_AXIS));
 
-        JLabel valueLabel = new JLabel(String.valueOf(value));
+        JLabel valueLabel = new JLabel();
+        statusValues[status.ordinal()] = valueLabel;
         valueLabel.setFont(new Font("Inter", Font.BOLD, 36));
         valueLabel.setForeground(accent);
 
@@ -121,33 +349,28 @@ public class ReportFrame {
         title.setFont(UIConstants.FONT_HEADER);
         title.setForeground(UIConstants.TEXT_PRIMARY);
 
-        List<Task> all = taskManager.getAllTasks();
-        int total = all.size();
-        int done = taskManager.countByStatus("Done");
-        int percent = total > 0 ? (done * 100 / total) : 0;
-
-        JLabel percentLabel = new JLabel(percent + "%");
+        percentLabel = new JLabel();
         percentLabel.setFont(new Font("Inter", Font.BOLD, 28));
         percentLabel.setForeground(UIConstants.PRIMARY_COLOR);
 
-        JLabel desc = new JLabel(done + " of " + total + " tasks completed");
-        desc.setFont(UIConstants.FONT_REGULAR);
-        desc.setForeground(UIConstants.TEXT_SECONDARY);
+        completionDesc = new JLabel();
+        completionDesc.setFont(UIConstants.FONT_REGULAR);
+        completionDesc.setForeground(UIConstants.TEXT_SECONDARY);
 
         JPanel top = new JPanel(new BorderLayout());
         top.setOpaque(false);
         top.add(title, BorderLayout.WEST);
         top.add(percentLabel, BorderLayout.EAST);
 
-        JPanel bar = new ProgressBar(percent);
+        completionBar = new ProgressBar(0);
 
         JPanel content = new JPanel();
         content.setLayout(new BoxLayout(content, BoxLayout.Y_AXIS));
         content.setOpaque(false);
         content.setBorder(new EmptyBorder(16, 0, 0, 0));
-        content.add(desc);
+        content.add(completionDesc);
         content.add(Box.createRigidArea(new Dimension(0, 12)));
-        content.add(bar);
+        content.add(completionBar);
 
         card.add(top, BorderLayout.NORTH);
         card.add(content, BorderLayout.CENTER);
@@ -163,36 +386,24 @@ public class ReportFrame {
         title.setFont(UIConstants.FONT_HEADER);
         title.setForeground(UIConstants.TEXT_PRIMARY);
 
-        JPanel list = new JPanel();
-        list.setLayout(new BoxLayout(list, BoxLayout.Y_AXIS));
-        list.setOpaque(false);
-        list.setBorder(new EmptyBorder(16, 0, 0, 0));
-
-        Map<String, Integer> map = new HashMap<>();
-        for (Task t : taskManager.getAllTasks()) {
-            map.put(t.getAssignedTo(), map.getOrDefault(t.getAssignedTo(), 0) + 1);
-        }
-
-        int max = map.values().stream().max(Integer::compare).orElse(1);
-
-        for (var e : map.entrySet()) {
-            list.add(createUserRow(e.getKey(), e.getValue(), max));
-            list.add(Box.createRigidArea(new Dimension(0, 16)));
-        }
+        userList = new JPanel();
+        userList.setLayout(new BoxLayout(userList, BoxLayout.Y_AXIS));
+        userList.setOpaque(false);
+        userList.setBorder(new EmptyBorder(16, 0, 0, 0));
 
         card.add(title, BorderLayout.NORTH);
-        card.add(list, BorderLayout.CENTER);
+        card.add(userList, BorderLayout.CENTER);
         return card;
     }
 
-    private JPanel createUserRow(String user, int count, int max) {
+    private UserRow createUserRow(String user) {
         JPanel row = new JPanel(new BorderLayout(16, 0));
         row.setOpaque(false);
 
         JLabel name = new JLabel("👤 " + user);
         name.setFont(UIConstants.FONT_REGULAR);
 
-        JLabel val = new JLabel(count + " tasks");
+        JLabel val = new JLabel();
         val.setFont(UIConstants.FONT_SMALL);
         val.setForeground(UIConstants.TEXT_SECONDARY);
 
@@ -201,12 +412,29 @@ public class ReportFrame {
         text.add(name, BorderLayout.NORTH);
         text.add(val, BorderLayout.SOUTH);
 
-        JPanel bar = new ProgressBar((int) (count * 100.0 / max));
+        ProgressBar bar = new ProgressBar(0);
         bar.setPreferredSize(new Dimension(0, 10));
 
         row.add(text, BorderLayout.WEST);
         row.add(bar, BorderLayout.CENTER);
-        return row;
+        return new UserRow(row, val, bar);
+    }
+
+    private static final class UserRow {
+        final JPanel panel;
+        final JLabel count;
+        final ProgressBar bar;
+
+        UserRow(JPanel panel, JLabel count, ProgressBar bar) {
+            this.panel = panel;
+            this.count = count;
+            this.bar = bar;
+        }
+
+        void update(int tasks, int max) {
+            count.setText(tasks + " tasks");
+            bar.setPercent((int) (tasks * 100.0 / max));
+        }
     }
 
     private JPanel buildMiniStats() {
@@ -214,21 +442,15 @@ public class ReportFrame {
         grid.setOpaque(false);
         grid.setMaximumSize(new Dimension(Integer.MAX_VALUE, 200));
 
-        List<Task> all = taskManager.getAllTasks();
-        int total = all.size();
-        int active = total - taskManager.countByStatus("Done");
-        int rate = total > 0 ? (taskManager.countByStatus("Done") * 100 / total) : 0;
-        int members = (int) all.stream().map(Task::getAssignedTo).distinct().count();
-
-        grid.add(createMiniCard("Total Tasks", total));
-        grid.add(createMiniCard("Active Tasks", active));
-        grid.add(createMiniCard("Completion Rate", rate + "%"));
-        grid.add(createMiniCard("Team Members", members));
+        grid.add(createMiniCard("Total Tasks", totalValue = new JLabel()));
+        grid.add(createMiniCard("Active Tasks", activeValue = new JLabel()));
+        grid.add(createMiniCard("Completion Rate", rateValue = new JLabel()));
+        grid.add(createMiniCard("Team Members", membersValue = new JLabel()));
 
         return grid;
     }
 
-    private JPanel createMiniCard(String title, Object value) {
+    private JPanel createMiniCard(String title, JLabel v) {
         JPanel card = createBaseCard();
         card.setLayout(new BorderLayout());
 
@@ -236,7 +458,6 @@ public class ReportFrame {
         t.setFont(UIConstants.FONT_SMALL);
         t.setForeground(UIConstants.TEXT_SECONDARY);
 
-        JLabel v = new JLabel(String.valueOf(value));
         v.setFont(new Font("Inter", Font.BOLD, 24));
         v.setForeground(UIConstants.TEXT_PRIMARY);
 
@@ -245,6 +466,114 @@ public class ReportFrame {
         return card;
     }
 
+    /* =====================================================
+       TRENDS
+       ===================================================== */
+
+    private JPanel buildTrendsHeader() {
+        JPanel header = new JPanel(new BorderLayout(16, 0));
+        header.setOpaque(false);
+        header.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+
+        JLabel title = new JLabel("Trends");
+        title.setFont(UIConstants.FONT_SUBTITLE);
+        title.setForeground(UIConstants.TEXT_PRIMARY);
+
+        analyticsStatus = new JLabel(" ");
+        analyticsStatus.setFont(UIConstants.FONT_SMALL);
+        analyticsStatus.setForeground(UIConstants.TEXT_SECONDARY);
+
+        analyticsProgress = new ProgressBar(0);
+        analyticsProgress.setPreferredSize(new Dimension(160, 8));
+        analyticsProgress.setVisible(false);
+
+        JPanel status = new JPanel(new FlowLayout(FlowLayout.RIGHT, 12, 0));
+        status.setOpaque(false);
+        status.add(analyticsStatus);
+        status.add(analyticsProgress);
+
+        header.add(title, BorderLayout.WEST);
+        header.add(status, BorderLayout.EAST);
+        return header;
+    }
+
+    private JPanel buildCreatedCharts() {
+        JPanel grid = new JPanel(new GridLayout(1, 2, 20, 0));
+        grid.setOpaque(false);
+        grid.setMaximumSize(new Dimension(Integer.MAX_VALUE, 240));
+
+        grid.add(createChartCard("Created per Day", dailyChart = new BarChart(), dailyRange = new JLabel(" ")));
+        grid.add(createChartCard("Created per Week", weeklyChart = new BarChart(), weeklyRange = new JLabel(" ")));
+        return grid;
+    }
+
+    private JPanel createChartCard(String title, BarChart chart, JLabel range) {
+        JPanel card = createBaseCard();
+        card.setLayout(new BorderLayout(0, 12));
+
+        JLabel t = new JLabel(title);
+        t.setFont(UIConstants.FONT_HEADER);
+        t.setForeground(UIConstants.TEXT_PRIMARY);
+
+        range.setFont(UIConstants.FONT_SMALL);
+        range.setForeground(UIConstants.TEXT_SECONDARY);
+
+        card.add(t, BorderLayout.NORTH);
+        card.add(chart, BorderLayout.CENTER);
+        card.add(range, BorderLayout.SOUTH);
+        return card;
+    }
+
+    private JPanel buildTrendLists() {
+        JPanel grid = new JPanel(new GridLayout(1, 2, 20, 0));
+        grid.setOpaque(false);
+
+        grid.add(createListCard("Completion by Team Member", teamCompletionList = new JPanel()));
+        grid.add(createListCard("Backlog Age", backlogList = new JPanel()));
+        return grid;
+    }
+
+    private JPanel createListCard(String title, JPanel list) {
+        JPanel card = createBaseCard();
+        card.setLayout(new BorderLayout());
+
+        JLabel t = new JLabel(title);
+        t.setFont(UIConstants.FONT_HEADER);
+        t.setForeground(UIConstants.TEXT_PRIMARY);
+
+        list.setLayout(new BoxLayout(list, BoxLayout.Y_AXIS));
+        list.setOpaque(false);
+        list.setBorder(new EmptyBorder(16, 0, 0, 0));
+
+        card.add(t, BorderLayout.NORTH);
+        card.add(list, BorderLayout.CENTER);
+        return card;
+    }
+
+    private JPanel createMetricRow(String name, String detail, int percent) {
+        JPanel row = new JPanel(new BorderLayout(16, 0));
+        row.setOpaque(false);
+
+        JLabel n = new JLabel(name);
+        n.setFont(UIConstants.FONT_REGULAR);
+
+        JLabel d = new JLabel(detail);
+        d.setFont(UIConstants.FONT_SMALL);
+        d.setForeground(UIConstants.TEXT_SECONDARY);
+
+        JPanel text = new JPanel(new BorderLayout());
+        text.setOpaque(false);
+        text.add(n, BorderLayout.NORTH);
+        text.add(d, BorderLayout.SOUTH);
+
+        ProgressBar bar = new ProgressBar(percent);
+        bar.setPreferredSize(new Dimension(0, 10));
+
+        row.add(text, BorderLayout.WEST);
+        row.add(bar, BorderLayout.CENTER);
+        return row;
+    }
+
     /* =====================================================
        SHARED COMPONENTS
        ===================================================== */
@@ -285,7 +614,7 @@ public class ReportFrame {
        ===================================================== */
 
     static class ProgressBar extends JPanel {
-        private final int percent;
+        private int percent;
 
         ProgressBar(int percent) {
             this.percent = percent;
@@ -293,6 +622,13 @@ public class ReportFrame {
             setPreferredSize(new Dimension(0, 14));
         }
 
+        void setPercent(int percent) {
+            if (this.percent != percent) {
+                this.percent = percent;
+                repaint();
+            }
+        }
+
         @Override
         protected void paintComponent(Graphics g) {
             Graphics2D g2 = (Graphics2D) g;
@@ -307,6 +643,46 @@ public class ReportFrame {
         }
     }
 
+    /* =====================================================
+       BAR CHART
+       ===================================================== */
+
+    static class BarChart extends JPanel {
+        private int[] values = new int[0];
+
+        BarChart() {
+            setOpaque(false);
+            setPreferredSize(new Dimension(0, 140));
+        }
+
+        void setValues(int[] values) {
+            this.values = values;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            if (values.length == 0) {
+                return;
+            }
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            int max = 1;
+            for (int value : values) {
+                max = Math.max(max, value);
+            }
+            double slot = getWidth() / (double) values.length;
+            int barWidth = Math.max(1, (int) (slot * 0.7));
+            for (int i = 0; i < values.length; i++) {
+                int h = (int) (getHeight() * (values[i] / (double) max));
+                int x = (int) (i * slot + (slot - barWidth) / 2);
+                g2.setColor(values[i] == 0 ? new Color(241, 245, 249) : UIConstants.PRIMARY_COLOR);
+                g2.fillRoundRect(x, getHeight() - Math.max(h, 2), barWidth, Math.max(h, 2), 4, 4);
+            }
+        }
+    }
+
     public JPanel getContentPanel() {
         return contentPanel;
     }
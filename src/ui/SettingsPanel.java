@@ -10,6 +10,7 @@ import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.MatteBorder;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
 
 public class SettingsPanel extends JPanel {
 
@@ -30,6 +31,14 @@ public class SettingsPanel extends JPanel {
 
         add(buildHeader(), BorderLayout.NORTH);
         add(buildForm(), BorderLayout.CENTER);
+
+        // The dashboard keeps this panel between visits; don't keep typed
+        // passwords around with it.
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && !isShowing()) {
+                clearFields();
+            }
+        });
     }
 
     private JPanel buildHeader() {
@@ -1,6 +1,7 @@
 package ui;
 
 import model.Task;
+import model.TaskStatus;
 import service.TaskFileManager;
 import util.UIConstants;
 import util.RoundedButtonUI;
@@ -8,8 +9,7 @@ import util.RoundedButtonUI;
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
 
 public class TaskFormDialog extends JDialog {
 
@@ -18,7 +18,7 @@ public class TaskFormDialog extends JDialog {
 
     private JTextField titleField;
     private JTextArea descriptionArea;
-    private JComboBox<String> statusBox;
+    private JComboBox<TaskStatus> statusBox;
     private JTextField assignedToField;
 
     public TaskFormDialog(JFrame parent, TaskFileManager taskManager, Task existingTask) {
@@ -151,8 +151,8 @@ public class TaskFormDialog extends JDialog {
         return scroll;
     }
 
-    private JComboBox<String> styledCombo() {
-        JComboBox<String> combo = new JComboBox<>(new String[] { "Pending", "Progress", "Done" });
+    private JComboBox<TaskStatus> styledCombo() {
+        JComboBox<TaskStatus> combo = new JComboBox<>(TaskStatus.values());
         combo.setFont(UIConstants.FONT_REGULAR);
         combo.setMaximumSize(new Dimension(Integer.MAX_VALUE, 42));
         combo.setBackground(Color.WHITE);
@@ -229,21 +229,28 @@ public class TaskFormDialog extends JDialog {
         }
 
         try {
+            boolean saved;
             if (existingTask == null) {
-                String date = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-                taskManager.addTask(new Task(
+                saved = taskManager.addTask(new Task(
                         0,
                         title,
                         descriptionArea.getText(),
-                        (String) statusBox.getSelectedItem(),
+                        (TaskStatus) statusBox.getSelectedItem(),
                         assigned,
-                        date));
+                        LocalDate.now()));
             } else {
-                existingTask.setTitle(title);
-                existingTask.setDescription(descriptionArea.getText());
-                existingTask.setStatus((String) statusBox.getSelectedItem());
-                existingTask.setAssignedTo(assigned);
-                taskManager.updateTask(existingTask);
+                saved = taskManager.updateTask(new Task(
+                        existingTask.getId(),
+                        title,
+                        descriptionArea.getText(),
+                        (TaskStatus) statusBox.getSelectedItem(),
+                        assigned,
+                        existingTask.getCreatedDate()));
+            }
+            if (!saved) {
+                JOptionPane.showMessageDialog(this, "The task could not be saved.", "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
             }
             dispose();
         } catch (Exception ex) {
@@ -1,28 +1,75 @@
 package ui;
 
 import model.Task;
+import model.TaskStatus;
 import service.AuthService;
+import service.TaskArchive;
+import service.TaskChange;
+import service.TaskChangeFeed;
 import service.TaskFileManager;
+import service.TaskQuery;
+import service.TaskQueryResult;
+import service.TaskSnapshot;
 import util.UIConstants;
 import util.RoundedButtonUI;
 
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.plaf.basic.BasicGraphicsUtils;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class TaskListFrame {
 
+    private static final int SEARCH_LIMIT = 500;
+    // Quiet time after the last keystroke before a search starts.
+    private static final int SEARCH_DELAY_MILLIS = 150;
+    private static final String ALL_ASSIGNEES = "All Assignees";
+    private static final int CHANGE_QUEUE_CAPACITY = 1024;
+
+    // Shared by every cell paint, so rendering allocates no colors or borders.
+    private static final Color SELECTED_ROW_COLOR = new Color(241, 245, 249);
+    private static final Color HOVER_ROW_COLOR = new Color(248, 250, 252);
+    private static final Border CELL_PADDING = new EmptyBorder(0, 10, 0, 10);
+    private static final int DEFAULT_FRAME_MILLIS = 16;
+
     private final TaskFileManager taskManager;
     private JPanel contentPanel;
     private JPanel tableContainer; // Container for CardLayout (Table vs Empty State)
+    private EmptyStatePanel emptyState;
     private JTable table;
-    private DefaultTableModel model;
-    private JComboBox<String> filterBox;
+    private JScrollPane scroll;
+    private TaskTableModel model;
+    private JLabel titleLabel;
+    private JComboBox<Object> filterBox;
+    private JComboBox<String> assigneeBox;
+    private JTextField searchField;
+    private TaskQuery.SortKey sortKey; // null until a header is clicked
+    private boolean sortDescending;
+    private JButton addBtn;
+    private JButton archiveBtn;
+
+    private ArchiveTableModel archiveModel;
+    private JScrollBar archiveBar;
 
     private int hoveredRow = -1;
+    private Point hoverPoint;
+    private Timer hoverTimer;
+    private TaskChangeFeed.Subscription subscription;
+    private Timer searchTimer;
+    private SwingWorker<TaskQueryResult, Void> search;
+    private TaskQueryResult lastResult;
+    private boolean searching;
 
     public TaskListFrame(TaskFileManager taskManager, AuthService authService) {
         this.taskManager = taskManager;
@@ -42,6 +89,27 @@ public class TaskListFrame {
 
         contentPanel.add(buildHeader(), BorderLayout.NORTH);
         contentPanel.add(buildTableCard(), BorderLayout.CENTER);
+
+        // Follow the change feed only while the panel is on screen, and
+        // catch up on whatever changed while it was not.
+        contentPanel.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) == 0) {
+                return;
+            }
+            if (contentPanel.isDisplayable()) {
+                subscription = taskManager.subscribe(SwingUtilities::invokeLater,
+                        CHANGE_QUEUE_CAPACITY, this::tasksChanged);
+                refresh();
+            } else {
+                if (subscription != null) {
+                    subscription.close();
+                    subscription = null;
+                }
+                searchTimer.stop();
+                cancelSearch();
+                closeArchive();
+            }
+        });
     }
 
     /*
@@ -55,25 +123,83 @@ public class TaskListFrame {
         header.setBackground(UIConstants.BACKGROUND_COLOR);
         header.setBorder(new EmptyBorder(0, 0, 24, 0));
 
-        JLabel title = new JLabel("Tasks");
-        title.setFont(new Font("Inter", Font.BOLD, 28));
-        title.setForeground(UIConstants.TEXT_PRIMARY);
+        titleLabel = new JLabel("Tasks");
+        titleLabel.setFont(new Font("Inter", Font.BOLD, 28));
+        titleLabel.setForeground(UIConstants.TEXT_PRIMARY);
 
         JPanel actions = new JPanel(new FlowLayout(FlowLayout.RIGHT, 12, 0));
         actions.setOpaque(false);
 
-        filterBox = new JComboBox<>(new String[] { "All Tasks", "Pending", "Progress", "Done" });
+        filterBox = new JComboBox<>();
+        filterBox.addItem("All Tasks");
+        for (TaskStatus status : TaskStatus.values()) {
+            filterBox.addItem(status);
+        }
         filterBox.setFont(UIConstants.FONT_REGULAR);
         filterBox.setPreferredSize(new Dimension(150, 38));
         filterBox.addActionListener(e -> refresh());
 
-        JButton addBtn = createPrimaryButton("+ Add Task", UIConstants.PRIMARY_COLOR);
+        // Assignees come and go with the tasks, so list the current ones
+        // each time the box opens.
+        assigneeBox = new JComboBox<>(new String[] { ALL_ASSIGNEES });
+        assigneeBox.setFont(UIConstants.FONT_REGULAR);
+        assigneeBox.setPreferredSize(new Dimension(150, 38));
+        assigneeBox.addActionListener(e -> refresh());
+        assigneeBox.addPopupMenuListener(new PopupMenuListener() {
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                updateAssignees();
+            }
+
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+            }
+
+            public void popupMenuCanceled(PopupMenuEvent e) {
+            }
+        });
+
+        searchField = new JTextField();
+        searchField.setFont(UIConstants.FONT_REGULAR);
+        searchField.setPreferredSize(new Dimension(220, 38));
+        searchField.setToolTipText("Search title and description as you type (AND by default, OR, prefix*)");
+        searchField.setBorder(new CompoundBorder(
+                new MatteBorder(1, 1, 1, 1, UIConstants.BORDER_COLOR),
+                new EmptyBorder(6, 10, 6, 10)));
+        searchTimer = new Timer(SEARCH_DELAY_MILLIS, e -> refresh());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                searchEdited();
+            }
+
+            public void removeUpdate(DocumentEvent e) {
+                searchEdited();
+            }
+
+            public void changedUpdate(DocumentEvent e) {
+                searchEdited();
+            }
+        });
+
+        addBtn = createPrimaryButton("+ Add Task", UIConstants.PRIMARY_COLOR);
         addBtn.addActionListener(e -> showAddTaskDialog());
 
+        archiveBtn = createPrimaryButton("Open Archive", UIConstants.SECONDARY_COLOR);
+        archiveBtn.setToolTipText("Browse a task snapshot file too large to load");
+        archiveBtn.addActionListener(e -> {
+            if (archiveModel == null) {
+                chooseArchive();
+            } else {
+                closeArchive();
+            }
+        });
+
+        actions.add(searchField);
         actions.add(filterBox);
+        actions.add(assigneeBox);
+        actions.add(archiveBtn);
         actions.add(addBtn);
 
-        header.add(title, BorderLayout.WEST);
+        header.add(titleLabel, BorderLayout.WEST);
         header.add(actions, BorderLayout.EAST);
 
         return header;
@@ -92,14 +218,12 @@ public class TaskListFrame {
                 new EmptyBorder(12, 12, 16, 12),
                 new LineBorder(new Color(226, 232, 240), 1, true)));
 
-        String[] cols = { "ID", "Title", "Description", "Status", "Assigned", "Created", "" };
-        model = new DefaultTableModel(cols, 0) {
-            public boolean isCellEditable(int r, int c) {
-                return c == 6;
-            }
-        };
+        model = new TaskTableModel(taskManager);
+        model.addTableModelListener(e -> updateEmptyState());
 
         table = new JTable(model);
+        // Columns and their renderers outlive a switch to the archive model.
+        table.setAutoCreateColumnsFromModel(false);
         table.setFont(UIConstants.FONT_REGULAR);
         table.setRowHeight(64); // Larger rows
         table.setShowHorizontalLines(true);
@@ -117,45 +241,113 @@ public class TaskListFrame {
         th.setPreferredSize(new Dimension(0, 48)); // Taller header
         th.setBorder(new MatteBorder(0, 0, 1, 0, UIConstants.BORDER_COLOR));
         ((DefaultTableCellRenderer) th.getDefaultRenderer()).setHorizontalAlignment(JLabel.LEFT);
+        installSorting(th);
 
         // Apply Renderers
         table.setDefaultRenderer(Object.class, new PaddedCellRenderer());
-        table.getColumnModel().getColumn(3).setCellRenderer(new StatusRenderer());
-        table.getColumnModel().getColumn(6).setCellRenderer(new ActionRenderer());
-        table.getColumnModel().getColumn(6).setCellEditor(new ActionEditor());
+        table.getColumnModel().getColumn(TaskTableModel.STATUS_COLUMN).setCellRenderer(new StatusRenderer());
+        table.getColumnModel().getColumn(TaskTableModel.ACTION_COLUMN).setCellRenderer(new ActionRenderer());
+        table.getColumnModel().getColumn(TaskTableModel.ACTION_COLUMN).setCellEditor(new ActionEditor());
 
         installHoverEffect();
 
-        JScrollPane scroll = new JScrollPane(table);
+        scroll = new JScrollPane(table);
         scroll.setBorder(null);
         scroll.getViewport().setBackground(Color.WHITE);
+        installArchiveScrolling();
 
         // Table Container with CardLayout for Empty State
         tableContainer = new JPanel(new CardLayout());
         tableContainer.setBackground(Color.WHITE);
         tableContainer.add(scroll, "TABLE");
-        tableContainer.add(new EmptyStatePanel(), "EMPTY");
+        emptyState = new EmptyStatePanel();
+        tableContainer.add(emptyState, "EMPTY");
 
         card.add(tableContainer, BorderLayout.CENTER);
+        card.add(archiveBar, BorderLayout.EAST);
         refresh();
 
         return card;
     }
 
+    /*
+     * =====================================================
+     * SORTING
+     * =====================================================
+     */
+
+    /**
+     * Clicking a sortable header sorts by that column, and clicking it again
+     * flips the direction. The order comes from the task snapshot's indexes,
+     * so switching costs no sort.
+     */
+    private void installSorting(JTableHeader th) {
+        th.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        th.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = th.columnAtPoint(e.getPoint());
+                TaskQuery.SortKey key = column < 0 ? null : sortKeyFor(table.convertColumnIndexToModel(column));
+                if (key == null || archiveModel != null) {
+                    return;
+                }
+                sortDescending = key == sortKey && !sortDescending;
+                sortKey = key;
+                updateSortIndicators();
+                refresh();
+            }
+        });
+    }
+
+    private static TaskQuery.SortKey sortKeyFor(int column) {
+        return switch (column) {
+            case TaskTableModel.ID_COLUMN -> TaskQuery.SortKey.ID;
+            case 1 -> TaskQuery.SortKey.TITLE;
+            case TaskTableModel.STATUS_COLUMN -> TaskQuery.SortKey.STATUS;
+            case 4 -> TaskQuery.SortKey.ASSIGNEE;
+            case 5 -> TaskQuery.SortKey.CREATED;
+            default -> null;
+        };
+    }
+
+    private void updateSortIndicators() {
+        TableColumnModel columns = table.getColumnModel();
+        for (int i = 0; i < columns.getColumnCount(); i++) {
+            TableColumn column = columns.getColumn(i);
+            String name = TaskTableModel.COLUMNS[column.getModelIndex()];
+            // Archives are shown in file order.
+            boolean sorted = archiveModel == null && sortKey != null
+                    && sortKeyFor(column.getModelIndex()) == sortKey;
+            column.setHeaderValue(sorted ? name + (sortDescending ? "  \u25BC" : "  \u25B2") : name);
+        }
+        table.getTableHeader().repaint();
+    }
+
     /*
      * =====================================================
      * HOVER EFFECT
      * =====================================================
      */
 
+    /**
+     * Tracks the row under the mouse. Moves are applied at most once per
+     * display frame, and only the rows that gain or lose the highlight are
+     * repainted.
+     */
     private void installHoverEffect() {
+        hoverTimer = new Timer(frameIntervalMillis(), e -> {
+            if (hoverPoint != null) {
+                setHoveredRow(table.rowAtPoint(hoverPoint));
+            }
+        });
+        hoverTimer.setRepeats(false);
+
         table.addMouseMotionListener(new MouseMotionAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
-                int row = table.rowAtPoint(e.getPoint());
-                if (row != hoveredRow) {
-                    hoveredRow = row;
-                    table.repaint();
+                hoverPoint = e.getPoint();
+                if (!hoverTimer.isRunning()) {
+                    hoverTimer.start();
                 }
             }
         });
@@ -163,23 +355,55 @@ public class TaskListFrame {
         table.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseExited(MouseEvent e) {
-                hoveredRow = -1;
-                table.repaint();
+                hoverTimer.stop();
+                hoverPoint = null;
+                setHoveredRow(-1);
             }
         });
-        // Note: DefaultRenderer is now PaddedCellRenderer, which handles hover logic
-        // internally if needed,
-        // but since we are swapping renderers per column, we need to ensure they all
-        // handle background hover.
-        // We will inject hover logic into PaddedCellRenderer and StatusRenderer.
+    }
+
+    private void setHoveredRow(int row) {
+        if (row == hoveredRow) {
+            return;
+        }
+        Rectangle dirty = rowBounds(hoveredRow);
+        Rectangle next = rowBounds(row);
+        hoveredRow = row;
+        if (dirty == null) {
+            dirty = next;
+        } else if (next != null) {
+            dirty = dirty.union(next);
+        }
+        if (dirty != null) {
+            table.repaint(dirty);
+        }
+    }
+
+    private Rectangle rowBounds(int row) {
+        if (row < 0 || row >= table.getRowCount()) {
+            return null;
+        }
+        Rectangle bounds = table.getCellRect(row, 0, true);
+        bounds.x = 0;
+        bounds.width = table.getWidth();
+        return bounds;
+    }
+
+    private static int frameIntervalMillis() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_FRAME_MILLIS;
+        }
+        int hertz = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        return hertz > 0 ? Math.max(1, 1000 / hertz) : DEFAULT_FRAME_MILLIS;
     }
 
     // Helper to get hover color
     private Color getRowColor(int row, boolean isSelected) {
         if (isSelected)
-            return new Color(241, 245, 249); // Selected color
+            return SELECTED_ROW_COLOR;
         if (row == hoveredRow)
-            return new Color(248, 250, 252); // Hover color
+            return HOVER_ROW_COLOR;
         return Color.WHITE;
     }
 
@@ -189,34 +413,279 @@ public class TaskListFrame {
      * =====================================================
      */
 
+    /**
+     * Points the table at the view selected by the filters, search box and
+     * sort column. Only called when one of those changes, the search box
+     * after a pause in typing; task changes arrive from the change feed
+     * through {@link #tasksChanged(List)}. Views the snapshot answers
+     * directly go to the table model, which reads any that need a sort
+     * order in the background; anything that needs the query planner runs
+     * in the background too, see {@link #startSearch}.
+     */
     private void refresh() {
-        model.setRowCount(0);
-
-        List<Task> tasks = filterBox.getSelectedItem().equals("All Tasks")
-                ? taskManager.getAllTasks()
-                : taskManager.getTasksByStatus((String) filterBox.getSelectedItem());
-
-        for (Task t : tasks) {
-            model.addRow(new Object[] {
-                    t.getId(),
-                    t.getTitle(),
-                    t.getDescription(),
-                    t.getStatus(),
-                    t.getAssignedTo(),
-                    t.getCreatedDate(),
-                    ""
-            });
+        Object selected = filterBox.getSelectedItem();
+        TaskStatus status = selected instanceof TaskStatus ? (TaskStatus) selected : null;
+        String assignee = assigneeBox.getSelectedIndex() > 0 ? (String) assigneeBox.getSelectedItem() : null;
+        String query = asTyped(searchField.getText()).trim();
+        TaskQuery.SortKey key = sortKey != null ? sortKey
+                : query.isEmpty() ? TaskQuery.SortKey.ID : TaskQuery.SortKey.RELEVANCE;
+        boolean descending = sortDescending;
+        boolean idOrdered = key == TaskQuery.SortKey.ID && !descending;
+
+        searchTimer.stop();
+        if (query.isEmpty() && assignee == null && status == null) {
+            cancelSearch();
+            model.setView(snapshot -> snapshot.getTasksSortedBy(key, descending), idOrdered);
+        } else if (query.isEmpty() && assignee == null && idOrdered) {
+            cancelSearch();
+            model.setView(snapshot -> snapshot.getTasksByStatus(status), true);
+        } else {
+            startSearch(new TaskQuery()
+                    .text(query.isEmpty() ? null : query)
+                    .status(status)
+                    .assignedTo(assignee)
+                    .sortBy(key, descending)
+                    .limit(query.isEmpty() ? Integer.MAX_VALUE : SEARCH_LIMIT));
+        }
+    }
+
+    /**
+     * Treats the word being typed as a prefix, so results follow each
+     * keystroke instead of waiting for whole words. A trailing space ends
+     * the word and makes it exact again.
+     */
+    private static String asTyped(String text) {
+        if (text.isEmpty() || Character.isWhitespace(text.charAt(text.length() - 1))) {
+            return text;
+        }
+        String word = text.substring(text.lastIndexOf(' ') + 1);
+        return word.equals("OR") || word.endsWith("*") ? text : text + "*";
+    }
+
+    /**
+     * Runs {@code filter} in the background, cancelling the search it
+     * replaces, and shows the result once it is done unless a newer search
+     * has started by then. The previous result is passed along so the
+     * planner can narrow it while the query is being extended.
+     */
+    private void startSearch(TaskQuery filter) {
+        cancelSearch();
+        searching = true;
+        TaskQueryResult previous = lastResult;
+        search = new SwingWorker<>() {
+            @Override
+            protected TaskQueryResult doInBackground() {
+                return taskManager.query(filter, previous);
+            }
+
+            @Override
+            protected void done() {
+                if (search != this || isCancelled()) {
+                    return;
+                }
+                search = null;
+                try {
+                    lastResult = get();
+                    model.setRows(lastResult.getTasks());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        };
+        search.execute();
+    }
+
+    /**
+     * Drops the search for the old text at once, so it cannot show its rows
+     * after the edit, and starts the pause before searching the new text.
+     */
+    private void searchEdited() {
+        cancelSearch();
+        searchTimer.restart();
+    }
+
+    private void cancelSearch() {
+        searching = false;
+        if (search != null) {
+            search.cancel(true);
+            search = null;
+        }
+    }
+
+    /**
+     * Applies a batch from the change feed: snapshot views update in place,
+     * search results are recomputed after the same pause as a keystroke,
+     * so a burst of changes costs one search.
+     */
+    private void tasksChanged(List<TaskChange> changes) {
+        model.tasksChanged(changes);
+        if (searching && archiveModel == null) {
+            searchTimer.restart();
+        }
+    }
+
+    private void updateAssignees() {
+        Object selected = assigneeBox.getSelectedItem();
+        DefaultComboBoxModel<String> names = new DefaultComboBoxModel<>();
+        names.addElement(ALL_ASSIGNEES);
+        for (String name : taskManager.snapshot().getStats().getAssigneeCounts().keySet()) {
+            if (name != null) {
+                names.addElement(name);
+            }
         }
+        names.setSelectedItem(names.getIndexOf(selected) >= 0 ? selected : ALL_ASSIGNEES);
+        assigneeBox.setModel(names);
+    }
 
+    private void updateEmptyState() {
         // Switch view based on count
         CardLayout cl = (CardLayout) tableContainer.getLayout();
-        if (tasks.isEmpty()) {
+        if (table.getModel().getRowCount() == 0) {
+            emptyState.setLoading(archiveModel == null && taskManager.isLoading());
             cl.show(tableContainer, "EMPTY");
         } else {
             cl.show(tableContainer, "TABLE");
         }
     }
 
+    /*
+     * =====================================================
+     * ARCHIVE
+     * =====================================================
+     */
+
+    /**
+     * In archive mode the table holds only the rows that fit the viewport,
+     * and this bar, counting archive rows, picks which ones. The scroll
+     * pane's own bar and wheel handling step aside meanwhile.
+     */
+    private void installArchiveScrolling() {
+        archiveBar = new JScrollBar(JScrollBar.VERTICAL);
+        archiveBar.setVisible(false);
+        archiveBar.addAdjustmentListener(e -> {
+            if (archiveModel != null) {
+                archiveModel.setWindow(e.getValue(), windowRows());
+            }
+        });
+
+        scroll.addMouseWheelListener(e -> {
+            if (archiveModel != null) {
+                archiveBar.setValue(archiveBar.getValue() + e.getUnitsToScroll());
+            }
+        });
+
+        scroll.getViewport().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                updateArchiveWindow();
+            }
+        });
+    }
+
+    private void chooseArchive() {
+        JFileChooser chooser = new JFileChooser(Path.of("").toAbsolutePath().toFile());
+        chooser.setFileFilter(new FileNameExtensionFilter("Task snapshots", "snapshot"));
+        if (chooser.showOpenDialog(contentPanel) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = chooser.getSelectedFile().toPath();
+        archiveBtn.setEnabled(false);
+        archiveBtn.setText("Indexing...");
+
+        // The first open of an archive indexes every row.
+        new SwingWorker<TaskArchive, Void>() {
+            @Override
+            protected TaskArchive doInBackground() throws IOException {
+                return TaskArchive.open(path);
+            }
+
+            @Override
+            protected void done() {
+                archiveBtn.setEnabled(true);
+                archiveBtn.setText("Open Archive");
+                try {
+                    showArchive(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    JOptionPane.showMessageDialog(contentPanel,
+                            "Could not open archive: " + e.getCause().getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    private void showArchive(TaskArchive archive) {
+        closeArchive();
+        archiveModel = new ArchiveTableModel(archive);
+        archiveModel.addTableModelListener(e -> updateEmptyState());
+        table.setModel(archiveModel);
+
+        scroll.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_NEVER);
+        scroll.setWheelScrollingEnabled(false);
+        archiveBar.setValue(0);
+        archiveBar.setVisible(true);
+        titleLabel.setText("Archive: " + archive.getPath().getFileName());
+        archiveBtn.setText("Close Archive");
+        filterBox.setEnabled(false);
+        assigneeBox.setEnabled(false);
+        searchField.setEnabled(false);
+        addBtn.setEnabled(false);
+        updateSortIndicators();
+        updateArchiveWindow();
+    }
+
+    private void closeArchive() {
+        if (archiveModel == null) {
+            return;
+        }
+        try {
+            archiveModel.getArchive().close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        archiveModel = null;
+        table.setModel(model);
+
+        scroll.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
+        scroll.setWheelScrollingEnabled(true);
+        archiveBar.setVisible(false);
+        titleLabel.setText("Tasks");
+        archiveBtn.setText("Open Archive");
+        filterBox.setEnabled(true);
+        assigneeBox.setEnabled(true);
+        searchField.setEnabled(true);
+        addBtn.setEnabled(true);
+        updateSortIndicators();
+        refresh();
+    }
+
+    /**
+     * Sizes the archive window to the viewport. Called when either changes.
+     */
+    private void updateArchiveWindow() {
+        if (archiveModel == null) {
+            return;
+        }
+        // The window includes the row cut off at the bottom; the bar's
+        // extent does not, so scrolling to the end shows the last row whole.
+        int whole = Math.max(1, scroll.getViewport().getHeight() / table.getRowHeight());
+        int rows = archiveModel.getArchive().size();
+        archiveBar.setUnitIncrement(1);
+        archiveBar.setBlockIncrement(whole);
+        archiveBar.setValues(Math.min(archiveBar.getValue(), Math.max(0, rows - whole)), whole, 0, rows);
+        archiveModel.setWindow(archiveBar.getValue(), windowRows());
+    }
+
+    private int windowRows() {
+        int rowHeight = table.getRowHeight();
+        return Math.max(1, (scroll.getViewport().getHeight() + rowHeight - 1) / rowHeight);
+    }
+
     /*
      * =====================================================
      * BUTTON FACTORY
@@ -255,54 +724,90 @@ public class TaskListFrame {
      * =====================================================
      */
 
-    class StatusRenderer extends JPanel implements TableCellRenderer {
+    /**
+     * Paints the badge itself instead of laying out a new label per cell.
+     * Each status is measured once, so a cell paint fills two rectangles
+     * and draws one string.
+     */
+    class StatusRenderer extends JComponent implements TableCellRenderer {
+        private static final int PAD_X = 10;
+        private static final int PAD_Y = 4;
+
+        private final Color[] badgeBackgrounds = new Color[TaskStatus.values().length];
+        private final Color[] badgeForegrounds = new Color[TaskStatus.values().length];
+        private final int[] badgeWidths = new int[TaskStatus.values().length];
+        private final int badgeHeight;
+        private final int baseline;
+        private TaskStatus status;
 
         public StatusRenderer() {
-            super(new FlowLayout(FlowLayout.CENTER, 0, 0));
             setOpaque(true);
+            setFont(UIConstants.FONT_SMALL);
+            FontMetrics metrics = getFontMetrics(UIConstants.FONT_SMALL);
+            badgeHeight = metrics.getHeight() + 2 * PAD_Y;
+            baseline = PAD_Y + metrics.getAscent();
+
+            for (TaskStatus s : TaskStatus.values()) {
+                int i = s.ordinal();
+                badgeWidths[i] = metrics.stringWidth(s.getLabel()) + 2 * PAD_X;
+                switch (s) {
+                    case PENDING -> {
+                        badgeBackgrounds[i] = new Color(254, 243, 199);
+                        badgeForegrounds[i] = new Color(180, 83, 9);
+                    }
+                    case PROGRESS -> {
+                        badgeBackgrounds[i] = new Color(219, 234, 254);
+                        badgeForegrounds[i] = new Color(30, 64, 175);
+                    }
+                    case DONE -> {
+                        badgeBackgrounds[i] = new Color(220, 252, 231);
+                        badgeForegrounds[i] = new Color(21, 128, 61);
+                    }
+                }
+            }
         }
 
         @Override
         public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
                 int row, int column) {
-            removeAll();
-
             // Handle selection colors
-            if (isSelected) {
-                setBackground(table.getSelectionBackground());
-            } else {
-                setBackground(table.getBackground());
-            }
+            setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
+            status = value instanceof TaskStatus s ? s : null;
+            return this;
+        }
 
-            if (value == null)
-                return this;
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            if (status == null)
+                return;
+
+            int i = status.ordinal();
+            int x = (getWidth() - badgeWidths[i]) / 2;
+            g.setColor(badgeBackgrounds[i]);
+            g.fillRect(x, 0, badgeWidths[i], badgeHeight);
+            g.setColor(badgeForegrounds[i]);
+            g.setFont(UIConstants.FONT_SMALL);
+            BasicGraphicsUtils.drawString(this, (Graphics2D) g, status.getLabel(), x + PAD_X, baseline);
+        }
 
-            JLabel badge = new JLabel(value.toString());
-            badge.setFont(UIConstants.FONT_SMALL);
-            badge.setBorder(new EmptyBorder(4, 10, 4, 10));
-            badge.setOpaque(true);
+        // Only ever painted through the table's CellRendererPane, so skip
+        // the repaint and event work, as DefaultTableCellRenderer does.
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {
+        }
 
-            switch (value.toString()) {
-                case "Pending" -> {
-                    badge.setBackground(new Color(254, 243, 199));
-                    badge.setForeground(new Color(180, 83, 9));
-                }
-                case "Progress" -> {
-                    badge.setBackground(new Color(219, 234, 254));
-                    badge.setForeground(new Color(30, 64, 175));
-                }
-                case "Done" -> {
-                    badge.setBackground(new Color(220, 252, 231));
-                    badge.setForeground(new Color(21, 128, 61));
-                }
-                default -> {
-                    badge.setBackground(new Color(241, 245, 249));
-                    badge.setForeground(new Color(100, 116, 139));
-                }
-            }
+        @Override
+        public void repaint(Rectangle r) {
+        }
 
-            add(badge);
-            return this;
+        @Override
+        public void revalidate() {
+        }
+
+        @Override
+        protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
         }
     }
 
@@ -319,16 +824,31 @@ public class TaskListFrame {
      */
 
     class PaddedCellRenderer extends DefaultTableCellRenderer {
+
+        public PaddedCellRenderer() {
+            // Cells hold user text, which should never be read as HTML. With
+            // HTML off nothing needs to hear about text changes, so each cell
+            // can skip the change event DefaultTableCellRenderer would fire.
+            putClientProperty("html.disable", Boolean.TRUE);
+        }
+
         @Override
         public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
                 int row, int column) {
             super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
             setFont(UIConstants.FONT_REGULAR);
-            setBorder(new EmptyBorder(0, 10, 0, 10)); // Horizontal Padding
+            setBorder(CELL_PADDING); // Horizontal Padding
             setForeground(UIConstants.TEXT_PRIMARY);
             setBackground(getRowColor(row, isSelected));
             return this;
         }
+
+        @Override
+        protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+            if (!"text".equals(propertyName)) {
+                super.firePropertyChange(propertyName, oldValue, newValue);
+            }
+        }
     }
 
     /*
@@ -338,6 +858,9 @@ public class TaskListFrame {
      */
 
     class EmptyStatePanel extends JPanel {
+        private final JLabel title;
+        private final JLabel sub;
+
         public EmptyStatePanel() {
             setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
             setBackground(Color.WHITE);
@@ -347,12 +870,12 @@ public class TaskListFrame {
             icon.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 48));
             icon.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-            JLabel title = new JLabel("No tasks found");
+            title = new JLabel("No tasks found");
             title.setFont(new Font("Inter", Font.BOLD, 16));
             title.setForeground(UIConstants.TEXT_PRIMARY);
             title.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-            JLabel sub = new JLabel("Get started by creating a new task.");
+            sub = new JLabel("Get started by creating a new task.");
             sub.setFont(UIConstants.FONT_REGULAR);
             sub.setForeground(UIConstants.TEXT_SECONDARY);
             sub.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -363,6 +886,11 @@ public class TaskListFrame {
             add(Box.createRigidArea(new Dimension(0, 8)));
             add(sub);
         }
+
+        void setLoading(boolean loading) {
+            title.setText(loading ? "Loading tasks..." : "No tasks found");
+            sub.setText(loading ? "Rows appear here as they are read." : "Get started by creating a new task.");
+        }
     }
 
     /*
@@ -372,9 +900,15 @@ public class TaskListFrame {
      */
 
     class ActionRenderer extends JPanel implements TableCellRenderer {
+        private boolean showButtons;
+
         public ActionRenderer() {
             setOpaque(false);
             setLayout(new FlowLayout(FlowLayout.CENTER, 6, 8));
+
+            // Built once; only the hovered row paints them.
+            add(createMiniButton("Edit", UIConstants.PRIMARY_COLOR));
+            add(createMiniButton("Delete", UIConstants.DANGER_COLOR));
         }
 
         @Override
@@ -382,18 +916,16 @@ public class TaskListFrame {
                 JTable table, Object value, boolean isSelected,
                 boolean hasFocus, int row, int column) {
 
-            removeAll();
             setBackground(getRowColor(row, isSelected));
+            showButtons = row == hoveredRow && table.getModel().isCellEditable(row, column);
+            return this;
+        }
 
-            if (row == hoveredRow) {
-                JButton edit = createMiniButton("Edit", new Color(59, 130, 246));
-                JButton del = createMiniButton("Delete", UIConstants.DANGER_COLOR);
-                // del.setPreferredSize(new Dimension(32, 32)); // Removed fixed size for text
-
-                add(edit);
-                add(del);
+        @Override
+        protected void paintChildren(Graphics g) {
+            if (showButtons) {
+                super.paintChildren(g);
             }
-            return this;
         }
     }
 
@@ -406,7 +938,7 @@ public class TaskListFrame {
             super(new JCheckBox());
             panel.setOpaque(false);
 
-            JButton edit = createMiniButton("Edit", new Color(59, 130, 246));
+            JButton edit = createMiniButton("Edit", UIConstants.PRIMARY_COLOR);
             JButton del = createMiniButton("Delete", UIConstants.DANGER_COLOR);
             // del.setPreferredSize(new Dimension(32, 32)); // Removed fixed size for text
 
@@ -439,19 +971,19 @@ public class TaskListFrame {
      */
 
     private void showAddTaskDialog() {
-        new TaskFormDialog(
+        TaskFormDialog dialog = new TaskFormDialog(
                 (JFrame) SwingUtilities.getWindowAncestor(contentPanel),
-                taskManager, null).setVisible(true);
-        refresh();
+                taskManager, null);
+        dialog.setVisible(true);
     }
 
     private void showEditTaskDialog(int id) {
         Task t = taskManager.getTaskById(id);
         if (t != null) {
-            new TaskFormDialog(
+            TaskFormDialog dialog = new TaskFormDialog(
                     (JFrame) SwingUtilities.getWindowAncestor(contentPanel),
-                    taskManager, t).setVisible(true);
-            refresh();
+                    taskManager, t);
+            dialog.setVisible(true);
         }
     }
 
@@ -460,9 +992,10 @@ public class TaskListFrame {
                 contentPanel,
                 "Delete this task?",
                 "Confirm",
-                JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
-            taskManager.deleteTask(id);
-            refresh();
+                JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION
+                && !taskManager.deleteTask(id)) {
+            JOptionPane.showMessageDialog(contentPanel, "The task could not be deleted.", "Error",
+                    JOptionPane.ERROR_MESSAGE);
         }
     }
 
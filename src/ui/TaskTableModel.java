@@ -0,0 +1,282 @@
+package ui;
+
+import model.Task;
+import service.TaskChange;
+import service.TaskFileManager;
+import service.TaskSnapshot;
+
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Table model that reads its cells straight from a view of the task store
+ * instead of copying every task into row arrays. A view is a function of
+ * a snapshot, such as "all tasks" or "tasks with status X"; when the change
+ * feed reports changed tasks the model re-reads the view from the new
+ * snapshot and fires events for those rows only, so the table keeps its
+ * scroll position and selection. Views in any order but ascending id may
+ * have to build a sort order first, so they are read on a worker and the
+ * table keeps its rows until they arrive. Lists computed elsewhere, such
+ * as search results, are shown through {@link #setRows} instead.
+ */
+class TaskTableModel extends AbstractTableModel {
+
+    static final int ID_COLUMN = 0;
+    static final int STATUS_COLUMN = 3;
+    static final int ACTION_COLUMN = 6;
+
+    // Past this many changes one full redraw is cheaper than row events.
+    private static final int MAX_ROW_EVENTS = 256;
+
+    static final String[] COLUMNS = { "ID", "Title", "Description", "Status", "Assigned", "Created", "" };
+
+    private final TaskFileManager taskManager;
+    private Function<TaskSnapshot, List<Task>> view = TaskSnapshot::getAllTasks;
+    private boolean idOrdered = true;
+    private List<Task> rows = List.of();
+    // Reads the view off the EDT; see readView(). A change that arrives
+    // meanwhile marks it stale and is read once it is done.
+    private SwingWorker<List<Task>, Void> reading;
+    private boolean readAgain;
+
+    // JTable paints row by row, so one decoded task serves a whole row.
+    private int cachedRow = -1;
+    private Task cachedTask;
+
+    TaskTableModel(TaskFileManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
+    /**
+     * Switches to another view and redraws the whole table. Views marked
+     * {@code idOrdered} list tasks by ascending id, which lets single-task
+     * changes find their row by binary search; they are read at once. Other
+     * views are read in the background.
+     */
+    void setView(Function<TaskSnapshot, List<Task>> view, boolean idOrdered) {
+        this.view = view;
+        this.idOrdered = idOrdered;
+        reading = null;
+        readAgain = false;
+        if (idOrdered) {
+            show(view.apply(taskManager.snapshot()));
+        } else {
+            readView();
+        }
+    }
+
+    /**
+     * Shows a list computed off the EDT and redraws the whole table. The
+     * change feed leaves it alone until the next {@link #setView}: whoever
+     * computed the list is expected to compute it again.
+     */
+    void setRows(List<Task> rows) {
+        view = null;
+        idOrdered = false;
+        reading = null;
+        readAgain = false;
+        show(rows);
+    }
+
+    private void show(List<Task> rows) {
+        this.rows = rows;
+        clearCache();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Reads the current view from the latest snapshot on a worker and shows
+     * it, unless the view was replaced in the meantime. Building a sort
+     * order, such as the title order after a reload, can take a good part
+     * of a second on a large store, which would freeze the EDT.
+     */
+    private void readView() {
+        if (reading != null) {
+            readAgain = true;
+            return;
+        }
+        Function<TaskSnapshot, List<Task>> current = view;
+        reading = new SwingWorker<>() {
+            @Override
+            protected List<Task> doInBackground() {
+                return current.apply(taskManager.snapshot());
+            }
+
+            @Override
+            protected void done() {
+                if (reading != this) {
+                    return;
+                }
+                reading = null;
+                try {
+                    show(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+                if (readAgain) {
+                    readAgain = false;
+                    readView();
+                }
+            }
+        };
+        reading.execute();
+    }
+
+    /**
+     * Re-reads the view after a batch from the change feed and fires an
+     * insert, update or delete per changed row. Walking the changed ids in
+     * ascending order keeps every event's index valid: rows before the id
+     * being handled already match the new view, rows after it still match
+     * the old one. Views in any other order may move several rows for one
+     * change; they are read again in the background and redrawn whole.
+     * Reloads and batches too large to be worth replaying are redrawn whole
+     * too, and so is a batch that is not the latest: the current snapshot
+     * then holds changes of later batches, whose rows would appear or vanish
+     * without an event and leave the table's row indexes behind.
+     */
+    void tasksChanged(List<TaskChange> changes) {
+        if (view == null) {
+            return;
+        }
+        if (!idOrdered) {
+            readView();
+            return;
+        }
+        TaskSnapshot current = taskManager.snapshot();
+        List<Task> next = view.apply(current);
+        int[] ids = changedIds(changes);
+        if (ids == null || current.getVersion() != lastVersion(changes)) {
+            show(next);
+            return;
+        }
+        List<Task> previous = rows;
+        rows = next;
+        clearCache();
+
+        Arrays.sort(ids);
+        for (int id : ids) {
+            boolean wasShown = indexOf(previous, id) >= 0;
+            int at = lowerBound(next, id);
+            boolean isShown = at < next.size() && next.get(at).getId() == id;
+            if (wasShown && isShown) {
+                fireTableRowsUpdated(at, at);
+            } else if (wasShown) {
+                fireTableRowsDeleted(at, at);
+            } else if (isShown) {
+                fireTableRowsInserted(at, at);
+            }
+        }
+    }
+
+    /**
+     * Returns the task ids of {@code changes}, or {@code null} when the
+     * batch calls for a full redraw.
+     */
+    private static int[] changedIds(List<TaskChange> changes) {
+        if (changes.size() > MAX_ROW_EVENTS) {
+            return null;
+        }
+        int[] ids = new int[changes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            if (changes.get(i).getKind() == TaskChange.Kind.RELOADED) {
+                return null;
+            }
+            ids[i] = changes.get(i).getTaskId();
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the version of the snapshot that {@code changes} leads up to.
+     */
+    private static long lastVersion(List<TaskChange> changes) {
+        long version = Long.MIN_VALUE;
+        for (TaskChange change : changes) {
+            version = Math.max(version, change.getVersion());
+        }
+        return version;
+    }
+
+    Task getTaskAt(int row) {
+        if (row != cachedRow) {
+            cachedTask = rows.get(row);
+            cachedRow = row;
+        }
+        return cachedTask;
+    }
+
+    /**
+     * Binary search by id over an id-ordered view; decodes only the tasks
+     * it probes.
+     */
+    private static int indexOf(List<Task> tasks, int id) {
+        int at = lowerBound(tasks, id);
+        return at < tasks.size() && tasks.get(at).getId() == id ? at : -1;
+    }
+
+    /**
+     * Returns the position of the first task whose id is not below
+     * {@code id}.
+     */
+    private static int lowerBound(List<Task> tasks, int id) {
+        int low = 0;
+        int high = tasks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tasks.get(mid).getId() < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void clearCache() {
+        cachedRow = -1;
+        cachedTask = null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == ACTION_COLUMN;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return columnValue(getTaskAt(row), column);
+    }
+
+    static Object columnValue(Task task, int column) {
+        return switch (column) {
+            case ID_COLUMN -> task.getId();
+            case 1 -> task.getTitle();
+            case 2 -> task.getDescription();
+            case STATUS_COLUMN -> task.getStatus();
+            case 4 -> task.getAssignedTo();
+            case 5 -> TaskFileManager.DATE_FORMAT.format(task.getCreatedDate());
+            default -> "";
+        };
+    }
+}
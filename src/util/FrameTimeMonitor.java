@@ -0,0 +1,73 @@
+package util;
+
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repaint manager that times each paint pass on the EDT and prints a
+ * summary every few seconds: frame count, mean, 95th percentile and
+ * worst frame. Enabled with {@code -Dflowtask.frameTimes=true}.
+ */
+public class FrameTimeMonitor extends RepaintManager {
+    public static final String PROPERTY = "flowtask.frameTimes";
+
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    private static final int MAX_SAMPLES = 4096;
+
+    private final long[] samples = new long[MAX_SAMPLES];
+    private int count;
+    private long total;
+    private long worst;
+    private long windowStart = System.nanoTime();
+
+    /**
+     * Installs the monitor as the current repaint manager if the system
+     * property is set. Call on the EDT before the first window is shown.
+     */
+    public static void installIfEnabled() {
+        if (Boolean.getBoolean(PROPERTY)) {
+            RepaintManager.setCurrentManager(new FrameTimeMonitor());
+        }
+    }
+
+    @Override
+    public void paintDirtyRegions() {
+        long start = System.nanoTime();
+        super.paintDirtyRegions();
+        long end = System.nanoTime();
+        record(end - start);
+        if (end - windowStart >= REPORT_INTERVAL) {
+            report();
+            windowStart = end;
+        }
+    }
+
+    private void record(long nanos) {
+        if (count < MAX_SAMPLES) {
+            samples[count] = nanos;
+        }
+        count++;
+        total += nanos;
+        worst = Math.max(worst, nanos);
+    }
+
+    private void report() {
+        if (count == 0) {
+            return;
+        }
+        int kept = Math.min(count, MAX_SAMPLES);
+        long[] sorted = Arrays.copyOf(samples, kept);
+        Arrays.sort(sorted);
+        long p95 = sorted[Math.min(kept - 1, (int) (kept * 0.95))];
+        System.out.printf("EDT frames: %d, mean %.2f ms, p95 %.2f ms, max %.2f ms%n",
+                count, millis(total / count), millis(p95), millis(worst));
+        count = 0;
+        total = 0;
+        worst = 0;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -7,10 +7,14 @@ import java.awt.*;
 public class RoundedButtonUI extends BasicButtonUI {
 
     private final Color baseColor;
+    private final Color pressedColor;
+    private final Color rolloverColor;
     private final int radius;
 
     public RoundedButtonUI(Color baseColor, int radius) {
         this.baseColor = baseColor;
+        this.pressedColor = baseColor.darker();
+        this.rolloverColor = baseColor.brighter();
         this.radius = radius;
     }
 
@@ -23,9 +27,9 @@ public class RoundedButtonUI extends BasicButtonUI {
 
         Color bg = baseColor;
         if (b.getModel().isPressed()) {
-            bg = baseColor.darker();
+            bg = pressedColor;
         } else if (b.getModel().isRollover()) {
-            bg = baseColor.brighter();
+            bg = rolloverColor;
         }
 
         g2.setColor(bg);
@@ -0,0 +1,18 @@
+#!/bin/bash
+mkdir -p bin-test
+javac -d bin-test -sourcepath src test/service/*.java test/ui/*.java || exit 1
+java -cp bin-test service.QueryPlannerTest || exit 1
+java -cp bin-test service.TextIndexTest || exit 1
+java -cp bin-test service.TaskJournalTest || exit 1
+java -cp bin-test service.MappedTaskLoaderTest || exit 1
+java -cp bin-test service.TaskSnapshotFileTest || exit 1
+java -cp bin-test service.TaskSnapshotTest || exit 1
+java -cp bin-test service.TaskChangeFeedTest || exit 1
+java -cp bin-test service.TaskArchiveTest || exit 1
+# Works on tasks.csv in the current directory, so it runs in an empty one.
+classes="$PWD/bin-test"
+dir=$(mktemp -d) || exit 1
+(cd "$dir" && java -Djava.awt.headless=true -cp "$classes" ui.TaskTableModelTest)
+status=$?
+rm -rf "$dir"
+exit $status
@@ -0,0 +1,147 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that the parallel loader reads tasks.csv into the same tasks, in id
+ * order, whatever chunks the file is split into: rows with CRLF endings,
+ * multi-byte text and a last line without a newline are read, malformed
+ * rows, unknown statuses and impossible dates are skipped, and only an
+ * id-ordered lead chunk is offered as a prefix. Run it with
+ * {@code ./test.sh}.
+ */
+public class MappedTaskLoaderTest {
+    private static final String HEADER = "id,title,description,status,assignedTo,createdDate";
+    private static final String[] MALFORMED = { "", "7,too,few,Pending,Ayu", "8,too,many,fields,Pending,Ayu,2024-01-01",
+            "9,title,,Blocked,Ayu,2024-01-01", "10,title,,Pending,Ayu,2024-02-30", "11,title,,Pending,Ayu,2024-1-05",
+            "x12,title,,Pending,Ayu,2024-01-01", "-13,title,,Pending,Ayu,2024-01-01",
+            "1234567890,title,,Pending,Ayu,2024-01-01" };
+
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("loader-test");
+        Path csv = dir.resolve("tasks.csv");
+        try {
+            Random random = new Random(3);
+            // Large enough for the lead chunk and several pool chunks.
+            List<Task> tasks = generate(60_000, random);
+            loads("ordered", csv, tasks, tasks, random, true);
+
+            List<Task> shuffled = new ArrayList<>(tasks);
+            Collections.shuffle(shuffled, random);
+            loads("shuffled", csv, shuffled, tasks, random, false);
+
+            // Out of order past the lead chunk only.
+            List<Task> swapped = new ArrayList<>(tasks);
+            Collections.swap(swapped, 5_000, 40_000);
+            loads("swapped", csv, swapped, tasks, random, true);
+
+            List<Task> few = tasks.subList(0, 3);
+            loads("small", csv, few, few, random, false);
+
+            Files.writeString(csv, HEADER, StandardCharsets.UTF_8);
+            MappedTaskLoader.Result empty = MappedTaskLoader.load(csv, LoadListener.NONE);
+            check(empty.tasks.isEmpty() && empty.maxId == 0, "a header without rows loads nothing");
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(dir);
+        }
+
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes {@code rows} with malformed lines mixed in, loads them and
+     * compares the result with {@code expected}, which is in id order.
+     */
+    private static void loads(String name, Path csv, List<Task> rows, List<Task> expected, Random random,
+                              boolean prefixed) throws IOException {
+        StringBuilder text = new StringBuilder(HEADER).append("\r\n");
+        for (Task task : rows) {
+            if (random.nextInt(50) == 0) {
+                text.append(MALFORMED[random.nextInt(MALFORMED.length)]).append('\n');
+            }
+            text.append(TaskFileManager.formatTask(task)).append(random.nextBoolean() ? "\r\n" : "\n");
+        }
+        // The last row ends without a newline.
+        text.setLength(text.length() - (text.charAt(text.length() - 2) == '\r' ? 2 : 1));
+        Files.writeString(csv, text, StandardCharsets.UTF_8);
+
+        AtomicInteger progress = new AtomicInteger();
+        List<List<String>> prefixes = Collections.synchronizedList(new ArrayList<>());
+        MappedTaskLoader.Result result = MappedTaskLoader.load(csv, new LoadListener() {
+            @Override
+            public void progress(int percent) {
+                progress.accumulateAndGet(percent, Math::max);
+            }
+
+            @Override
+            public void prefix(List<Task> tasks) {
+                prefixes.add(rows(tasks));
+            }
+        });
+
+        List<String> loaded = rows(result.tasks);
+        check(loaded.equals(rows(expected)), name + ": loads every well-formed row in id order ("
+                + loaded.size() + " of " + expected.size() + ")");
+        int maxId = expected.stream().mapToInt(Task::getId).max().orElse(0);
+        check(result.maxId == maxId, name + ": max id " + result.maxId + ", expected " + maxId);
+        check(progress.get() == 100, name + ": progress reaches 100%, not " + progress.get() + "%");
+        if (prefixed) {
+            check(prefixes.size() == 1 && !prefixes.get(0).isEmpty()
+                    && prefixes.get(0).equals(loaded.subList(0, prefixes.get(0).size())),
+                    name + ": the lead chunk is offered as a prefix of the result");
+        } else {
+            check(prefixes.isEmpty(), name + ": no prefix is offered when the lead chunk is out of order or "
+                    + "is the whole file");
+        }
+    }
+
+    private static List<Task> generate(int count, Random random) {
+        String[] titles = { "Fix login", "Laporan ekspor", "Überprüfung", "日本語のタスク", "" };
+        String[] assignees = { "Sarah", "budi", "Ayu", "Zoë", "" };
+        LocalDate start = LocalDate.of(2023, 12, 25);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            tasks.add(new Task(id, titles[random.nextInt(titles.length)] + " " + id,
+                    random.nextBoolean() ? "" : "Deskripsi tugas " + id,
+                    TaskStatus.values()[random.nextInt(TaskStatus.values().length)],
+                    assignees[random.nextInt(assignees.length)], start.plusDays(random.nextInt(400))));
+        }
+        tasks.sort(Comparator.comparingInt(Task::getId));
+        return tasks;
+    }
+
+    private static List<String> rows(List<Task> tasks) {
+        List<String> rows = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            rows.add(TaskFileManager.formatTask(task));
+        }
+        return rows;
+    }
+
+    private static void check(boolean passed, String what) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED " + what);
+        }
+    }
+}
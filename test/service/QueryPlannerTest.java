@@ -0,0 +1,295 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Checks that every plan the {@link QueryPlanner} picks returns the same
+ * rows, in the same order, as filtering and sorting all tasks one by one,
+ * and that it drives from the criterion the fewest tasks match. Runs over
+ * every combination of status, assignee, text and created-date criteria
+ * with each sort order, and again for only the best matches of a text,
+ * which the index ranks itself. Then replays a search being typed so the
+ * narrowed text matches are checked too. Run it with {@code ./test.sh}.
+ */
+public class QueryPlannerTest {
+    private static final String[] WORDS = { "fix", "login", "bug", "report", "export", "db", "cache", "ui" };
+    // Skewed, like statuses below, so that each criterion is the most
+    // selective one in some combination.
+    private static final String[] ASSIGNEES = { "Sarah", "Sarah", "Sarah", "Sarah", "budi", "budi", "Ayu", "Ayu",
+            "Zed", "rina" };
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private static final Map<String, Map<Integer, Integer>> SCORES = new HashMap<>();
+    private static final Map<String, Integer> MATCH_COUNTS = new HashMap<>();
+    private static final Set<QueryPlan.Access> DRIVERS = EnumSet.noneOf(QueryPlan.Access.class);
+
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) {
+        TaskSnapshot tasks = TaskSnapshot.empty().reload(generate(2000, new Random(42)));
+        SnapshotTextIndex text = index(tasks);
+        QueryPlanner planner = new QueryPlanner();
+
+        String[] texts = { null, "login", "ex*", "fix bug", "b*", "cache OR ui", "report e*", "nothing" };
+        String[] assignees = { null, "Sarah", "rina", "nobody" };
+        LocalDate[][] ranges = { null, { START.plusDays(10), START.plusDays(40) }, { null, START.plusDays(5) },
+                { START.plusDays(80), null }, { START.plusDays(30), START.plusDays(30) } };
+        for (String query : texts) {
+            SnapshotTextIndex.Matches matches = query == null ? null : text.match(query, null);
+            for (TaskStatus status : statuses()) {
+                for (String assignee : assignees) {
+                    for (LocalDate[] range : ranges) {
+                        for (TaskQuery.SortKey key : TaskQuery.SortKey.values()) {
+                            for (int limit : new int[] { Integer.MAX_VALUE, 7 }) {
+                                TaskQuery q = new TaskQuery().text(query).status(status).assignedTo(assignee)
+                                        .sortBy(key, limit == 7).limit(limit);
+                                if (range != null) {
+                                    q.createdBetween(range[0], range[1]);
+                                }
+                                TaskQueryResult result = planner.execute(q, tasks, matches);
+                                check(ids(result.getTasks()).equals(scan(tasks, q)), q, result);
+                                check(drivesFromFewest(tasks, q, result.getPlan()), q, result);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // The best matches of a text: ranked by the index, filtered by the
+        // other criteria.
+        for (int t = 1; t < texts.length; t++) {
+            for (TaskStatus status : statuses()) {
+                for (String assignee : assignees) {
+                    for (LocalDate[] range : ranges) {
+                        for (int limit : new int[] { 1, 7, 500 }) {
+                            TaskQuery q = new TaskQuery().text(texts[t]).status(status).assignedTo(assignee)
+                                    .sortBy(TaskQuery.SortKey.RELEVANCE, false).limit(limit);
+                            if (range != null) {
+                                q.createdBetween(range[0], range[1]);
+                            }
+                            TaskQueryResult result = planner.ranked(q,
+                                    text.rank(texts[t], limit, snapshot -> QueryPlanner.filter(q, snapshot)));
+                            check(QueryPlanner.isRankedText(q) && ids(result.getTasks()).equals(scan(tasks, q)),
+                                    q, result);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Typing "report export": each step may narrow the previous matches.
+        String typed = "report export";
+        TaskQueryResult previous = null;
+        for (int n = 1; n <= typed.length(); n++) {
+            String query = typed.substring(0, n).trim() + (typed.charAt(n - 1) == ' ' ? "" : "*");
+            TaskQuery q = new TaskQuery().text(query).sortBy(TaskQuery.SortKey.RELEVANCE, false);
+            TaskQueryResult result = planner.execute(q, tasks, text.match(query, previous));
+            check(ids(result.getTasks()).equals(scan(tasks, q)), q, result);
+            previous = result;
+        }
+
+        checks++;
+        if (!DRIVERS.equals(EnumSet.allOf(QueryPlan.Access.class))) {
+            failures++;
+            System.out.println("FAILED only these drivers were chosen: " + DRIVERS);
+        }
+
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static List<Task> generate(int count, Random random) {
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            int status = random.nextInt(10);
+            tasks.add(new Task(id, words(random, 1 + random.nextInt(3)), words(random, random.nextInt(5)),
+                    status < 6 ? TaskStatus.PENDING : status < 9 ? TaskStatus.PROGRESS : TaskStatus.DONE,
+                    ASSIGNEES[random.nextInt(ASSIGNEES.length)], START.plusDays(random.nextInt(120))));
+        }
+        return tasks;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static SnapshotTextIndex index(TaskSnapshot tasks) {
+        Supplier<TaskSnapshot> current = () -> tasks;
+        SnapshotTextIndex text = new SnapshotTextIndex(current);
+        text.reset(tasks.getVersion());
+        return text;
+    }
+
+    private static TaskStatus[] statuses() {
+        TaskStatus[] statuses = new TaskStatus[TaskStatus.values().length + 1];
+        System.arraycopy(TaskStatus.values(), 0, statuses, 1, TaskStatus.values().length);
+        return statuses;
+    }
+
+    /**
+     * The expected answer: every task tested against every criterion, then
+     * sorted with the snapshot's comparators.
+     */
+    private static List<Integer> scan(TaskSnapshot tasks, TaskQuery q) {
+        List<Task> matches = new ArrayList<>();
+        for (Task task : tasks.getAllTasks()) {
+            int score = q.getText() == null ? 0 : scores(tasks, q.getText()).get(task.getId());
+            boolean matched = (q.getStatus() == null || task.getStatus() == q.getStatus())
+                    && (q.getAssignedTo() == null || q.getAssignedTo().equals(task.getAssignedTo()))
+                    && (q.getCreatedFrom() == null || !task.getCreatedDate().isBefore(q.getCreatedFrom()))
+                    && (q.getCreatedTo() == null || !task.getCreatedDate().isAfter(q.getCreatedTo()))
+                    && (q.getText() == null || score > 0);
+            if (matched) {
+                matches.add(task);
+            }
+        }
+
+        Comparator<Task> order;
+        if (q.getSortKey() == TaskQuery.SortKey.RELEVANCE && q.getText() != null) {
+            Map<Integer, Integer> scores = scores(tasks, q.getText());
+            order = Comparator.<Task>comparingInt(task -> -scores.get(task.getId()))
+                    .thenComparingInt(Task::getId);
+        } else {
+            order = TaskSnapshot.comparator(q.getSortKey());
+        }
+        matches.sort(q.isDescending() ? order.reversed() : order);
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < Math.min(matches.size(), q.getLimit()); i++) {
+            ids.add(matches.get(i).getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Whether {@code plan} drives from a criterion that no other criterion
+     * of the query beats on the number of tasks it matches alone, and probes
+     * all the others; a query without criteria must scan.
+     */
+    private static boolean drivesFromFewest(TaskSnapshot tasks, TaskQuery q, QueryPlan plan) {
+        Map<QueryPlan.Access, Integer> counts = new EnumMap<>(QueryPlan.Access.class);
+        if (q.getStatus() != null) {
+            counts.put(QueryPlan.Access.STATUS_INDEX, matchCount(tasks, "status " + q.getStatus(),
+                    task -> task.getStatus() == q.getStatus()));
+        }
+        if (q.getAssignedTo() != null) {
+            counts.put(QueryPlan.Access.ASSIGNEE_INDEX, matchCount(tasks, "assignee " + q.getAssignedTo(),
+                    task -> q.getAssignedTo().equals(task.getAssignedTo())));
+        }
+        if (q.getCreatedFrom() != null || q.getCreatedTo() != null) {
+            counts.put(QueryPlan.Access.CREATED_INDEX, matchCount(tasks,
+                    "created " + q.getCreatedFrom() + " " + q.getCreatedTo(),
+                    task -> (q.getCreatedFrom() == null || !task.getCreatedDate().isBefore(q.getCreatedFrom()))
+                            && (q.getCreatedTo() == null || !task.getCreatedDate().isAfter(q.getCreatedTo()))));
+        }
+        if (q.getText() != null) {
+            Map<Integer, Integer> scores = scores(tasks, q.getText());
+            counts.put(QueryPlan.Access.TEXT_INDEX, matchCount(tasks, "text " + q.getText(),
+                    task -> scores.get(task.getId()) > 0));
+        }
+        DRIVERS.add(plan.getDriver());
+        if (counts.isEmpty()) {
+            return plan.isFullScan();
+        }
+        Integer driven = counts.get(plan.getDriver());
+        Set<QueryPlan.Access> probed = new HashSet<>(counts.keySet());
+        probed.remove(plan.getDriver());
+        return driven != null && driven == Collections.min(counts.values())
+                && plan.getCandidateCount() == driven
+                && new HashSet<>(plan.getIntersections()).equals(probed);
+    }
+
+    private static int matchCount(TaskSnapshot tasks, String criterion, Predicate<Task> matches) {
+        return MATCH_COUNTS.computeIfAbsent(criterion, key -> {
+            int count = 0;
+            for (Task task : tasks.getAllTasks()) {
+                if (matches.test(task)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    private static Map<Integer, Integer> scores(TaskSnapshot tasks, String query) {
+        return SCORES.computeIfAbsent(query, text -> {
+            Map<Integer, Integer> scores = new HashMap<>();
+            for (Task task : tasks.getAllTasks()) {
+                scores.put(task.getId(), score(task, text));
+            }
+            return scores;
+        });
+    }
+
+    /**
+     * Scores a task the way the text index does: clauses separated by OR
+     * add up, and a clause scores the summed frequency of its terms when
+     * every term occurs, a trailing * matching any word it starts.
+     */
+    private static int score(Task task, String query) {
+        List<String> tokens = new ArrayList<>();
+        TextIndex.tokenize(task.getTitle(), tokens);
+        TextIndex.tokenize(task.getDescription(), tokens);
+        int total = 0;
+        for (String clause : query.split(" OR ")) {
+            int score = 0;
+            boolean all = true;
+            for (String term : clause.trim().split("\\s+")) {
+                boolean prefix = term.endsWith("*");
+                String word = (prefix ? term.substring(0, term.length() - 1) : term).toLowerCase();
+                int frequency = 0;
+                for (String token : tokens) {
+                    if (prefix ? token.startsWith(word) : token.equals(word)) {
+                        frequency++;
+                    }
+                }
+                all &= frequency > 0;
+                score += frequency;
+            }
+            total += all ? score : 0;
+        }
+        return total;
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    private static void check(boolean passed, TaskQuery q, TaskQueryResult result) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED text=" + q.getText() + " status=" + q.getStatus() + " assignee="
+                    + q.getAssignedTo() + " created=" + q.getCreatedFrom() + ".." + q.getCreatedTo()
+                    + " sort=" + q.getSortKey() + (q.isDescending() ? " desc" : "") + " limit=" + q.getLimit()
+                    + " plan=" + result.getPlan());
+        }
+    }
+}
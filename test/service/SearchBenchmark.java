@@ -0,0 +1,66 @@
+package service;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Times full-text searches on a text index of synthetic tasks, a million
+ * by default: ANDs of terms that a third to all of the tasks contain,
+ * prefixes, and OR. Each query asks for the 500 best matches, as the
+ * search box does. All queries run a few rounds before any is timed, so
+ * the JIT has compiled every path they take. Run it with
+ * {@code ./bench.sh}, or pass a task count, e.g. {@code java -Xmx3g -cp
+ * bin-test service.SearchBenchmark 1000000}.
+ */
+public class SearchBenchmark {
+    private static final int LIMIT = 500;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int RUNS = 25;
+    private static final String[] WORDS = { "fix", "login", "bug", "report", "export", "db", "cache", "ui",
+            "deploy", "review", "crash", "invoice", "sync", "mobile", "import", "search" };
+    private static final String[] QUERIES = { "invoice crash", "export*", "login OR deploy", "mobile sync db",
+            "task description", "task description review", "task* description", "de*" };
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(11);
+        TextIndex index = new TextIndex();
+        long start = System.nanoTime();
+        for (int id = 1; id <= count; id++) {
+            // Every task says "task" in its title and its description, some
+            // of them more than once, and "description" once.
+            index.put(id, "Task " + words(random, 1 + random.nextInt(3)),
+                    "Description of the task " + id + " " + words(random, 3 + random.nextInt(8))
+                            + (random.nextInt(50) == 0 ? " task" : ""));
+        }
+        System.out.printf("%,d tasks indexed in %,d ms%n", count, (System.nanoTime() - start) / 1_000_000);
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (String query : QUERIES) {
+                for (int run = 0; run < RUNS; run++) {
+                    index.search(query, LIMIT);
+                }
+            }
+        }
+        for (String query : QUERIES) {
+            long[] nanos = new long[RUNS];
+            int found = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long began = System.nanoTime();
+                found = index.search(query, LIMIT).length;
+                nanos[run] = System.nanoTime() - began;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("%-28s %3d hits   median %,8d us   worst %,8d us%n", '"' + query + '"', found,
+                    nanos[RUNS / 2] / 1_000, nanos[RUNS - 1] / 1_000);
+        }
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
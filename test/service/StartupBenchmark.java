@@ -0,0 +1,114 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the two ways {@link TaskFileManager#loadTasks()} reads its base
+ * tasks at startup: parsing tasks.csv and reading tasks.snapshot. Each run
+ * reads the file and builds the task snapshot from it, as loading does;
+ * the first run of each is cold, the rest show the warmed-up cost. Writes
+ * its files to a temporary directory. Run it with {@code ./bench.sh}, or
+ * pass a row count, e.g. {@code java -Xmx3g -cp bin-test
+ * service.StartupBenchmark 1000000}.
+ */
+public class StartupBenchmark {
+    private static final int RUNS = 6;
+    private static final String[] WORDS = { "fix", "login", "bug", "report", "export", "db", "cache", "ui",
+            "deploy", "review" };
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path dir = Files.createTempDirectory("startup-benchmark");
+        Path csv = dir.resolve("tasks.csv");
+        Path snapshot = dir.resolve("tasks.snapshot");
+        try {
+            List<Task> tasks = generate(rows, new Random(7));
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+                writer.println("id,title,description,status,assignedTo,createdDate");
+                for (Task task : tasks) {
+                    writer.println(TaskFileManager.formatTask(task));
+                }
+            }
+            TaskSnapshotFile.write(snapshot, tasks, rows);
+
+            System.out.printf("%,d tasks: tasks.csv %,d KB, tasks.snapshot %,d KB%n", rows,
+                    Files.size(csv) >> 10, Files.size(snapshot) >> 10);
+            long[] fromCsv = new long[RUNS];
+            long[] fromSnapshot = new long[RUNS];
+            // Alternate the two so neither is always measured on a warmer JIT.
+            for (int run = 0; run < RUNS; run++) {
+                fromCsv[run] = time(() -> MappedTaskLoader.load(csv, LoadListener.NONE), rows);
+                fromSnapshot[run] = time(() -> TaskSnapshotFile.read(snapshot, LoadListener.NONE), rows);
+            }
+            report("tasks.csv", fromCsv);
+            report("tasks.snapshot", fromSnapshot);
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private interface Read {
+        MappedTaskLoader.Result read() throws IOException;
+    }
+
+    /**
+     * Returns the nanoseconds taken to read the base tasks and build the
+     * snapshot that {@code loadTasks} would publish from them.
+     */
+    private static long time(Read base, int rows) throws IOException {
+        System.gc();
+        long start = System.nanoTime();
+        List<Task> tasks = new ArrayList<>(base.read().tasks);
+        tasks.sort(Comparator.comparingInt(Task::getId));
+        TaskSnapshot loaded = TaskSnapshot.empty().reload(tasks);
+        long elapsed = System.nanoTime() - start;
+        if (loaded.size() != rows) {
+            throw new IllegalStateException("Read " + loaded.size() + " of " + rows + " tasks");
+        }
+        return elapsed;
+    }
+
+    private static void report(String source, long[] nanos) {
+        long[] warm = Arrays.copyOfRange(nanos, 1, nanos.length);
+        Arrays.sort(warm);
+        System.out.printf("%-15s cold %,6d ms   warm median %,6d ms   best %,6d ms%n", source,
+                nanos[0] / 1_000_000, warm[warm.length / 2] / 1_000_000, warm[0] / 1_000_000);
+    }
+
+    private static List<Task> generate(int count, Random random) {
+        String[] assignees = new String[200];
+        for (int i = 0; i < assignees.length; i++) {
+            assignees[i] = "user" + i;
+        }
+        LocalDate start = LocalDate.of(2023, 1, 1);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            tasks.add(new Task(id, words(random, 2 + random.nextInt(4)), words(random, 5 + random.nextInt(10)),
+                    TaskStatus.values()[random.nextInt(TaskStatus.values().length)],
+                    assignees[random.nextInt(assignees.length)], start.plusDays(random.nextInt(730))));
+        }
+        return tasks;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
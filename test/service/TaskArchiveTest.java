@@ -0,0 +1,157 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Checks that an archive reads any range of rows exactly as they were
+ * written, through its row index, from one thread or many; rows longer
+ * than a read block are included. Also checks that the index is built once
+ * and reused, rebuilt when the archive changes, and that a damaged archive
+ * fails to open without leaving an index behind. Run it with
+ * {@code ./test.sh}.
+ */
+public class TaskArchiveTest {
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("archive-test");
+        Path file = dir.resolve("archive.snapshot");
+        Path index = dir.resolve("archive.snapshot.rows");
+        try {
+            Random random = new Random(17);
+            List<Task> tasks = generate(30_000, random);
+            TaskSnapshotFile.write(file, tasks, tasks.get(tasks.size() - 1).getId());
+            try (TaskArchive archive = TaskArchive.open(file)) {
+                check(Files.exists(index), "opening builds the row index");
+                readsRows(archive, tasks, random);
+            }
+
+            FileTime built = FileTime.fromMillis(0);
+            Files.setLastModifiedTime(index, built);
+            try (TaskArchive archive = TaskArchive.open(file)) {
+                check(Files.getLastModifiedTime(index).equals(built), "a current index is reused");
+                check(rows(archive.read(0, 10)).equals(rows(tasks.subList(0, 10))), "the reused index reads rows");
+            }
+
+            // Same rows, so the same length; only the modification time differs.
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5_000));
+            try (TaskArchive archive = TaskArchive.open(file)) {
+                check(!Files.getLastModifiedTime(index).equals(built), "a changed archive rebuilds its index");
+                check(archive.size() == tasks.size(), "the rebuilt index covers every row");
+            }
+
+            List<Task> fewer = tasks.subList(0, 1_000);
+            TaskSnapshotFile.write(file, fewer, fewer.get(fewer.size() - 1).getId());
+            try (TaskArchive archive = TaskArchive.open(file)) {
+                check(archive.size() == fewer.size()
+                        && rows(archive.read(0, fewer.size())).equals(rows(fewer)),
+                        "an archive rewritten with other rows is read from a new index");
+            }
+
+            byte[] damaged = Files.readAllBytes(file);
+            damaged[damaged.length / 2] ^= 0x01;
+            Files.write(file, damaged);
+            Files.delete(index);
+            boolean refused = false;
+            try (TaskArchive archive = TaskArchive.open(file)) {
+                archive.size();
+            } catch (IOException e) {
+                refused = true;
+            }
+            check(refused, "a damaged archive fails to open");
+            try (var files = Files.list(dir)) {
+                check(files.count() == 1, "a failed open leaves no index behind");
+            }
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path path : files.toList()) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(dir);
+        }
+
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void readsRows(TaskArchive archive, List<Task> tasks, Random random) throws IOException {
+        int size = tasks.size();
+        check(archive.size() == size, "the archive has " + archive.size() + " rows, not " + size);
+        check(rows(archive.read(0, size)).equals(rows(tasks)), "every row reads back in file order");
+        check(archive.read(size, size).isEmpty() && archive.read(0, 0).isEmpty(), "empty ranges read nothing");
+        check(rows(archive.read(size - 1, size)).equals(rows(tasks.subList(size - 1, size))), "the last row reads");
+
+        int mismatched = 0;
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(size);
+            int to = Math.min(size, from + random.nextInt(200));
+            mismatched += rows(archive.read(from, to)).equals(rows(tasks.subList(from, to))) ? 0 : 1;
+        }
+        check(mismatched == 0, "random ranges read the rows written there; " + mismatched + " did not");
+
+        long concurrentMismatches = IntStream.range(0, size / 50).parallel().filter(page -> {
+            try {
+                return !rows(archive.read(page * 50, page * 50 + 50))
+                        .equals(rows(tasks.subList(page * 50, page * 50 + 50)));
+            } catch (IOException e) {
+                return true;
+            }
+        }).count();
+        check(concurrentMismatches == 0, "pages read from many threads at once are intact");
+
+        for (int[] range : new int[][] { { -1, 5 }, { 0, size + 1 }, { 10, 9 } }) {
+            boolean refused = false;
+            try {
+                archive.read(range[0], range[1]);
+            } catch (IndexOutOfBoundsException e) {
+                refused = true;
+            }
+            check(refused, "rows " + range[0] + " to " + range[1] + " are refused");
+        }
+    }
+
+    private static List<Task> generate(int count, Random random) {
+        String[] assignees = { "Sarah", "budi", "Ayu", "Zoë" };
+        List<Task> tasks = new ArrayList<>(count);
+        int id = 0;
+        for (int i = 0; i < count; i++) {
+            id += 1 + random.nextInt(4);
+            // A few rows are larger than the 64 KB blocks the index is built from.
+            String description = i % 7_000 == 3_000 ? "x".repeat(150_000) : "Deskripsi tugas " + id;
+            tasks.add(new Task(id, "Arsip " + id, description,
+                    TaskStatus.values()[random.nextInt(TaskStatus.values().length)],
+                    assignees[random.nextInt(assignees.length)], LocalDate.of(2020, 1, 1).plusDays(id % 1_500)));
+        }
+        return tasks;
+    }
+
+    private static List<String> rows(List<Task> tasks) {
+        List<String> rows = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            rows.add(TaskFileManager.formatTask(task));
+        }
+        return rows;
+    }
+
+    private static void check(boolean passed, String what) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED " + what);
+        }
+    }
+}
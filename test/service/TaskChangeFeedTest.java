@@ -0,0 +1,193 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Checks how the change feed coalesces what piles up before delivery: each
+ * task arrives once with its net change, changes that cancel out vanish, a
+ * reload or an overflowing queue collapses everything into one reload, and
+ * batches never overlap. Delivery runs on an executor the test drains by
+ * hand, so what counts as "before delivery" is exact. Run it with
+ * {@code ./test.sh}.
+ */
+public class TaskChangeFeedTest {
+    private static final Queue<Runnable> EXECUTOR = new ArrayDeque<>();
+    private static final Executor QUEUED = EXECUTOR::add;
+
+    private static int checks;
+    private static int failures;
+    private static long version;
+
+    public static void main(String[] args) {
+        coalescesPerTask();
+        collapsesIntoReload();
+        deliversOneBatchAtATime();
+        stopsAfterClose();
+
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void coalescesPerTask() {
+        TaskChangeFeed feed = new TaskChangeFeed();
+        List<List<TaskChange>> batches = new ArrayList<>();
+        feed.subscribe(QUEUED, 100, batches::add);
+
+        Task one = task(1, "one");
+        Task two = task(2, "two");
+        feed.publish(TaskChange.of(1, one, task(1, "one, first edit"), ++version));
+        feed.publish(TaskChange.of(2, null, two, ++version));
+        feed.publish(TaskChange.of(3, null, task(3, "three"), ++version));
+        for (int edit = 2; edit <= 10; edit++) {
+            feed.publish(TaskChange.of(1, task(1, "one, edit " + (edit - 1)), task(1, "one, edit " + edit),
+                    ++version));
+        }
+        feed.publish(TaskChange.of(3, task(3, "three"), null, ++version));
+        feed.publish(TaskChange.of(2, two, task(2, "two, edited"), ++version));
+        feed.publish(TaskChange.of(4, task(4, "four"), task(4, "four, edited"), ++version));
+        feed.publish(TaskChange.of(4, task(4, "four, edited"), null, ++version));
+        check(batches.isEmpty() && EXECUTOR.size() == 1, "nothing is delivered before the executor runs, and "
+                + "delivery is scheduled once");
+        drain();
+
+        check(batches.size() == 1, "changes before delivery arrive as one batch: " + batches.size());
+        List<TaskChange> batch = batches.get(0);
+        check(batch.size() == 3, "one change per task, none for a task added and deleted: " + describe(batch));
+        TaskChange edited = find(batch, 1);
+        check(edited != null && edited.getKind() == TaskChange.Kind.UPDATED && edited.getBefore() == one
+                && edited.getAfter().getTitle().equals("one, edit 10"),
+                "ten edits arrive as one update from the first before to the last after");
+        TaskChange added = find(batch, 2);
+        check(added != null && added.getKind() == TaskChange.Kind.ADDED && added.getBefore() == null
+                && added.getAfter().getTitle().equals("two, edited"), "an add then an edit arrives as an add");
+        TaskChange deleted = find(batch, 4);
+        check(deleted != null && deleted.getKind() == TaskChange.Kind.DELETED
+                && deleted.getBefore().getTitle().equals("four") && deleted.getAfter() == null,
+                "an edit then a delete arrives as a delete of the original");
+        check(find(batch, 3) == null, "a task added and deleted before delivery is not reported");
+        boolean ascending = true;
+        for (int i = 1; i < batch.size(); i++) {
+            ascending &= batch.get(i - 1).getVersion() < batch.get(i).getVersion();
+        }
+        check(ascending && batch.get(batch.size() - 1).getVersion() == version,
+                "each change carries its task's last version, in order: " + describe(batch));
+
+        // Changes that cancel out entirely deliver nothing.
+        feed.publish(TaskChange.of(5, null, task(5, "five"), ++version));
+        feed.publish(TaskChange.of(5, task(5, "five"), null, ++version));
+        drain();
+        check(batches.size() == 1, "an empty batch is not delivered");
+    }
+
+    private static void collapsesIntoReload() {
+        TaskChangeFeed feed = new TaskChangeFeed();
+        List<List<TaskChange>> small = new ArrayList<>();
+        List<List<TaskChange>> large = new ArrayList<>();
+        feed.subscribe(QUEUED, 3, small::add);
+        feed.subscribe(QUEUED, 10, large::add);
+        for (int id = 1; id <= 4; id++) {
+            feed.publish(TaskChange.of(id, null, task(id, "task"), ++version));
+        }
+        drain();
+        check(small.size() == 1 && isReload(small.get(0), version),
+                "a queue past its capacity collapses into one reload at the last version");
+        check(large.size() == 1 && large.get(0).size() == 4, "each subscriber coalesces against its own capacity");
+
+        feed.publish(TaskChange.of(1, task(1, "task"), task(1, "edited"), ++version));
+        feed.publish(TaskChange.reloaded(++version));
+        feed.publish(TaskChange.of(2, task(2, "task"), task(2, "edited"), ++version));
+        drain();
+        check(large.size() == 2 && isReload(large.get(1), version),
+                "a reload absorbs the changes before and after it: " + describe(large.get(large.size() - 1)));
+    }
+
+    private static void deliversOneBatchAtATime() {
+        TaskChangeFeed feed = new TaskChangeFeed();
+        List<List<TaskChange>> batches = new ArrayList<>();
+        boolean[] inside = new boolean[1];
+        boolean[] overlapped = new boolean[1];
+        feed.subscribe(QUEUED, 100, batch -> {
+            overlapped[0] |= inside[0];
+            inside[0] = true;
+            batches.add(batch);
+            if (batches.size() == 1) {
+                feed.publish(TaskChange.of(7, null, task(7, "seven"), ++version));
+                // Nothing else may run this subscriber's delivery meanwhile.
+                drain();
+            }
+            inside[0] = false;
+        });
+        feed.publish(TaskChange.of(6, null, task(6, "six"), ++version));
+        drain();
+        check(!overlapped[0], "a batch is never delivered while the previous one is in its listener");
+        check(batches.size() == 2 && find(batches.get(1), 7) != null,
+                "changes published during a callback arrive as the next batch");
+    }
+
+    private static void stopsAfterClose() {
+        TaskChangeFeed feed = new TaskChangeFeed();
+        List<List<TaskChange>> batches = new ArrayList<>();
+        TaskChangeFeed.Subscription subscription = feed.subscribe(QUEUED, 100, batches::add);
+        feed.publish(TaskChange.of(8, null, task(8, "eight"), ++version));
+        subscription.close();
+        drain();
+        check(batches.isEmpty() && !feed.hasSubscribers(), "a batch scheduled before close is dropped");
+
+        boolean refused = false;
+        try {
+            feed.subscribe(QUEUED, 0, batches::add);
+        } catch (IllegalArgumentException e) {
+            refused = true;
+        }
+        check(refused, "a subscription needs room for at least one change");
+    }
+
+    private static void drain() {
+        while (!EXECUTOR.isEmpty()) {
+            EXECUTOR.poll().run();
+        }
+    }
+
+    private static boolean isReload(List<TaskChange> batch, long version) {
+        return batch.size() == 1 && batch.get(0).getKind() == TaskChange.Kind.RELOADED
+                && batch.get(0).getTaskId() == -1 && batch.get(0).getVersion() == version;
+    }
+
+    private static TaskChange find(List<TaskChange> batch, int taskId) {
+        for (TaskChange change : batch) {
+            if (change.getTaskId() == taskId) {
+                return change;
+            }
+        }
+        return null;
+    }
+
+    private static String describe(List<TaskChange> batch) {
+        List<String> changes = new ArrayList<>();
+        for (TaskChange change : batch) {
+            changes.add(change.getKind() + " " + change.getTaskId() + "@" + change.getVersion());
+        }
+        return changes.toString();
+    }
+
+    private static Task task(int id, String title) {
+        return new Task(id, title, "", TaskStatus.PENDING, "Ayu", LocalDate.of(2024, 2, 1));
+    }
+
+    private static void check(boolean passed, String what) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED " + what);
+        }
+    }
+}
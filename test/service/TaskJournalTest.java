@@ -0,0 +1,192 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Checks that replaying the journal rebuilds exactly the mutations appended
+ * to it, across a compaction and after a crash during one, and that damaged
+ * journals lose only the damaged records: a record whose length or checksum
+ * does not match is skipped, and a half-written last record is dropped and
+ * cut off, so a torn {@code DEL,123} never deletes task 12. Run it with
+ * {@code ./test.sh}.
+ */
+public class TaskJournalTest {
+    private static final LocalDate CREATED = LocalDate.of(2024, 3, 1);
+
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("journal-test");
+        File file = dir.resolve("tasks.journal").toFile();
+        File compacting = new File(file.getPath() + ".compacting");
+        try {
+            replaysAppends(file);
+            compacts(file, compacting);
+            skipsCorruptRecords(file);
+            dropsHalfWrittenTail(file);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+            Files.deleteIfExists(compacting.toPath());
+            Files.deleteIfExists(dir);
+        }
+
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void replaysAppends(File file) throws IOException {
+        TaskJournal journal = new TaskJournal(file, 0);
+        journal.appendPut(task(1, "first"));
+        journal.appendPut(task(2, "second"));
+        journal.appendPut(task(1, "first edited"));
+        journal.appendDelete(2);
+        journal.appendPut(task(3, "third"));
+        journal.flush().join();
+        journal.close();
+
+        TaskTable tasks = new TaskTable(4);
+        TaskJournal reopened = new TaskJournal(file, 0);
+        reopened.replay(tasks);
+        check(rows(tasks).equals(List.of("1,first edited", "3,third")), "replay applies puts, updates and deletes "
+                + rows(tasks));
+        check(reopened.getRecordCount() == 5, "replay counts records: " + reopened.getRecordCount());
+
+        // Records are upserts and deletes, so a second replay changes nothing.
+        reopened.replay(tasks);
+        check(rows(tasks).equals(List.of("1,first edited", "3,third")), "replaying twice is harmless");
+        reopened.close();
+        Files.delete(file.toPath());
+    }
+
+    private static void compacts(File file, File compacting) throws IOException {
+        TaskJournal journal = new TaskJournal(file, 0);
+        journal.appendPut(task(1, "before"));
+        journal.appendPut(task(2, "before"));
+        journal.flush().join();
+        journal.beginCompaction();
+        check(!file.exists() && compacting.exists(), "compaction moves the journal aside");
+        check(journal.getRecordCount() == 0, "compaction resets the record count");
+
+        journal.appendPut(task(2, "during"));
+        journal.appendDelete(1);
+        journal.flush().join();
+
+        // A crash before the compaction finishes leaves both files behind.
+        TaskTable crashed = new TaskTable(4);
+        new TaskJournal(file, 0).replay(crashed);
+        check(rows(crashed).equals(List.of("2,during")), "replay after a crash applies both journals in order "
+                + rows(crashed));
+
+        journal.finishCompaction();
+        check(!compacting.exists(), "finishing the compaction deletes the old journal");
+        TaskTable base = new TaskTable(4);
+        base.put(task(2, "before"));
+        base.put(task(1, "before"));
+        new TaskJournal(file, 0).replay(base);
+        check(rows(base).equals(List.of("2,during")), "the fresh journal applies on top of the new base "
+                + rows(base));
+        journal.close();
+        Files.delete(file.toPath());
+    }
+
+    private static void skipsCorruptRecords(File file) throws IOException {
+        String put = "PUT," + TaskFileManager.formatTask(task(1, "kept"));
+        String corrupt = "PUT," + TaskFileManager.formatTask(task(2, "corrupt"));
+        String lines = framed(put)
+                // Checksum of the record before one byte flipped on disk.
+                + framed(corrupt).replace("corrupt", "corrupu")
+                // Length of a longer record.
+                + framed("DEL,1").replaceFirst("^5,", "6,")
+                + "garbage\n"
+                + "\n"
+                + "9,00000000\n"
+                // Written before records were framed.
+                + "PUT," + TaskFileManager.formatTask(task(3, "legacy")) + "\n"
+                + framed("PUT,4,bad date,,Pending,Ayu,2024-13-01")
+                + framed("DEL,x");
+        Files.writeString(file.toPath(), lines, StandardCharsets.UTF_8);
+
+        TaskTable tasks = new TaskTable(4);
+        TaskJournal journal = new TaskJournal(file, 0);
+        journal.replay(tasks);
+        check(rows(tasks).equals(List.of("1,kept", "3,legacy")), "only intact records are applied " + rows(tasks));
+        check(journal.getRecordCount() == 2, "skipped records are not counted: " + journal.getRecordCount());
+        check(Files.readString(file.toPath(), StandardCharsets.UTF_8).equals(lines),
+                "skipped records are left in place");
+        journal.close();
+        Files.delete(file.toPath());
+    }
+
+    private static void dropsHalfWrittenTail(File file) throws IOException {
+        String intact = framed("PUT," + TaskFileManager.formatTask(task(12, "twelve")));
+        String torn = framed("DEL,123");
+        // The crash cut the record after "DEL,12", before its last digit and newline.
+        Files.writeString(file.toPath(), intact + torn.substring(0, torn.length() - 2), StandardCharsets.UTF_8);
+
+        TaskTable tasks = new TaskTable(4);
+        TaskJournal journal = new TaskJournal(file, 0);
+        journal.replay(tasks);
+        check(rows(tasks).equals(List.of("12,twelve")), "a torn DEL,123 does not delete task 12 " + rows(tasks));
+        check(Files.readString(file.toPath(), StandardCharsets.UTF_8).equals(intact),
+                "the half-written record is cut off");
+
+        journal.appendDelete(12);
+        journal.flush().join();
+        journal.close();
+        TaskTable reopened = new TaskTable(4);
+        reopened.put(task(12, "twelve"));
+        new TaskJournal(file, 0).replay(reopened);
+        check(rows(reopened).isEmpty(), "the next append starts on a line of its own " + rows(reopened));
+
+        // A record without a newline is torn even if it happens to be whole.
+        Files.writeString(file.toPath(), intact + torn.strip(), StandardCharsets.UTF_8);
+        TaskTable unterminated = new TaskTable(4);
+        new TaskJournal(file, 0).replay(unterminated);
+        check(rows(unterminated).equals(List.of("12,twelve")), "a record without its newline is not applied");
+        Files.delete(file.toPath());
+    }
+
+    /**
+     * Frames {@code record} the way the journal writes it.
+     */
+    private static String framed(String record) {
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return bytes.length + "," + Long.toHexString(crc.getValue()) + "," + record + "\n";
+    }
+
+    private static Task task(int id, String title) {
+        return new Task(id, title, "", TaskStatus.PENDING, "Ayu", CREATED);
+    }
+
+    private static List<String> rows(TaskTable tasks) {
+        List<String> rows = new ArrayList<>();
+        for (Task task : tasks.toList()) {
+            rows.add(task.getId() + "," + task.getTitle());
+        }
+        rows.sort(null);
+        return rows;
+    }
+
+    private static void check(boolean passed, String what) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED " + what);
+        }
+    }
+}
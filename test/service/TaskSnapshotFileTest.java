@@ -0,0 +1,168 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that tasks written to a snapshot file read back unchanged, both
+ * whole and row by row as archives read them, and that a snapshot with any
+ * byte flipped or cut off fails to read instead of yielding wrong tasks.
+ * Also checks that a task with a field the files cannot store is refused
+ * before it reaches them. Run it with {@code ./test.sh}.
+ */
+public class TaskSnapshotFileTest {
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("snapshot-test");
+        Path file = dir.resolve("tasks.snapshot");
+        try {
+            List<Task> tasks = generate(5_000, new Random(11));
+            roundTrips(file, tasks, 9_000);
+            roundTrips(file, List.of(), 0);
+            failsWhenDamaged(file, tasks.subList(0, 50));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+        refusesIncompleteTasks();
+
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void roundTrips(Path file, List<Task> tasks, int maxId) throws IOException {
+        TaskSnapshotFile.write(file, tasks, maxId);
+        List<Integer> prefixes = new ArrayList<>();
+        MappedTaskLoader.Result read = TaskSnapshotFile.read(file, new LoadListener() {
+            @Override
+            public void progress(int percent) {
+            }
+
+            @Override
+            public void prefix(List<Task> prefix) {
+                prefixes.add(prefix.size());
+            }
+        });
+        check(rows(read.tasks).equals(rows(tasks)), tasks.size() + " tasks read back unchanged");
+        check(read.maxId == maxId, "the max id is kept: " + read.maxId);
+        for (int i = 0; i < prefixes.size(); i++) {
+            check(prefixes.get(i) <= tasks.size() / 2 && (i == 0 || prefixes.get(i) > prefixes.get(i - 1)),
+                    "prefixes grow and stop at half the rows: " + prefixes);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            TaskSnapshotFile.Header header = TaskSnapshotFile.readHeader(channel, file);
+            List<Long> offsets = new ArrayList<>();
+            TaskSnapshotFile.scanRows(channel, header, file, offsets::add);
+            check(header.count == tasks.size() && offsets.size() == tasks.size() + 1,
+                    "the scan finds every row: " + offsets.size());
+            List<Task> decoded = new ArrayList<>();
+            for (int i = 0; i + 1 < offsets.size(); i++) {
+                int length = (int) (offsets.get(i + 1) - offsets.get(i));
+                decoded.addAll(TaskSnapshotFile.decodeRows(TaskSnapshotFile.read(channel, offsets.get(i), length),
+                        1, header, file));
+            }
+            check(rows(decoded).equals(rows(tasks)), "rows decode one at a time from their offsets");
+        }
+    }
+
+    private static void failsWhenDamaged(Path file, List<Task> tasks) throws IOException {
+        TaskSnapshotFile.write(file, tasks, tasks.size());
+        byte[] intact = Files.readAllBytes(file);
+        int undetected = 0;
+        for (int i = 0; i < intact.length; i++) {
+            byte[] damaged = intact.clone();
+            damaged[i] ^= 0x10;
+            Files.write(file, damaged);
+            undetected += reads(file) ? 1 : 0;
+        }
+        check(undetected == 0, "every flipped byte fails the checksum; " + undetected + " did not");
+
+        int truncated = 0;
+        for (int length = 0; length < intact.length; length += 7) {
+            Files.write(file, Arrays.copyOf(intact, length));
+            truncated += reads(file) ? 1 : 0;
+        }
+        check(truncated == 0, "every truncated snapshot fails to read; " + truncated + " did not");
+    }
+
+    /**
+     * Whether the snapshot both reads whole and scans row by row without
+     * failing.
+     */
+    private static boolean reads(Path file) {
+        try {
+            TaskSnapshotFile.read(file, LoadListener.NONE);
+        } catch (IOException e) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            TaskSnapshotFile.Header header = TaskSnapshotFile.readHeader(channel, file);
+            TaskSnapshotFile.scanRows(channel, header, file, offset -> { });
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private static void refusesIncompleteTasks() {
+        // Never loaded, so nothing is read or written; mutations would queue.
+        TaskFileManager taskManager = new TaskFileManager();
+        LocalDate today = LocalDate.of(2024, 5, 1);
+        check(!taskManager.addTask(new Task(0, "Title", "", TaskStatus.PENDING, null, today)),
+                "a task without an assignee is refused");
+        check(!taskManager.addTask(new Task(0, null, "", TaskStatus.PENDING, "Ayu", today)),
+                "a task without a title is refused");
+        check(!taskManager.updateTask(new Task(1, "Title", null, TaskStatus.PENDING, "Ayu", today)),
+                "an update without a description is refused");
+        check(taskManager.addTask(new Task(0, "Title", "", TaskStatus.PENDING, "Ayu", today)),
+                "a complete task is accepted");
+        taskManager.close();
+    }
+
+    private static List<Task> generate(int count, Random random) {
+        String[] titles = { "Fix login", "Überprüfung", "日本語のタスク", "", "x".repeat(300) };
+        String[] assignees = { "Sarah", "budi", "Ayu", "Zoë", "" };
+        List<Task> tasks = new ArrayList<>(count);
+        int id = 0;
+        for (int i = 0; i < count; i++) {
+            id += 1 + random.nextInt(3);
+            tasks.add(new Task(id, titles[random.nextInt(titles.length)], "Deskripsi " + id,
+                    TaskStatus.values()[random.nextInt(TaskStatus.values().length)],
+                    assignees[random.nextInt(assignees.length)],
+                    // Dates before the epoch take negative epoch days.
+                    LocalDate.of(1960, 1, 1).plusDays(random.nextInt(30_000))));
+        }
+        return tasks;
+    }
+
+    private static List<String> rows(List<Task> tasks) {
+        List<String> rows = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            rows.add(TaskFileManager.formatTask(task));
+        }
+        return rows;
+    }
+
+    private static void check(boolean passed, String what) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED " + what);
+        }
+    }
+}
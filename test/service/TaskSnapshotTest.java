@@ -0,0 +1,168 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Checks that every snapshot derived by adding, updating and deleting tasks
+ * answers every read like a plain sorted map of its tasks would, and keeps
+ * answering the same after later snapshots are derived from it: writers
+ * copy what they change, so a reader holding an old snapshot never sees a
+ * later change. Title sorts are taken along the way so the title order is
+ * carried into derived snapshots as well as rebuilt. Run it with
+ * {@code ./test.sh}.
+ */
+public class TaskSnapshotTest {
+    private static final String[] ASSIGNEES = { "Sarah", "sarah", "budi", "Ayu", "Zed", "" };
+    private static final String[] TITLES = { "fix login", "Fix login", "report", "Report", "deploy", "" };
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) {
+        Random random = new Random(5);
+        List<TaskSnapshot> snapshots = new ArrayList<>();
+        List<TreeMap<Integer, Task>> expected = new ArrayList<>();
+
+        TreeMap<Integer, Task> tasks = new TreeMap<>();
+        for (int id = 1; id <= 300; id++) {
+            tasks.put(id, task(id, random));
+        }
+        TaskSnapshot snapshot = TaskSnapshot.empty().reload(new ArrayList<>(tasks.values()));
+        snapshots.add(snapshot);
+        expected.add(new TreeMap<>(tasks));
+
+        for (int step = 0; step < 600; step++) {
+            int id = 1 + random.nextInt(400);
+            TaskSnapshot next;
+            if (random.nextInt(3) == 0) {
+                next = snapshot.without(id);
+                check(tasks.remove(id) != null ? next.getVersion() == snapshot.getVersion() + 1 : next == snapshot,
+                        "deleting task " + id + " derives a new version only if it exists");
+            } else {
+                Task task = task(id, random);
+                tasks.put(id, task);
+                Task given = new Task(id, task.getTitle(), task.getDescription(), task.getStatus(),
+                        task.getAssignedTo(), task.getCreatedDate());
+                next = snapshot.with(given);
+                check(next.getVersion() == snapshot.getVersion() + 1, "each change derives the next version");
+                // The snapshot stores its own copy of what it was given.
+                given.setTitle("changed after the write");
+                given.setStatus(TaskStatus.DONE);
+            }
+            snapshot = next;
+            if (random.nextInt(20) == 0) {
+                snapshot.getTasksSortedBy(TaskQuery.SortKey.TITLE, false);
+            }
+            if (step % 10 == 0) {
+                snapshots.add(snapshot);
+                expected.add(new TreeMap<>(tasks));
+            }
+        }
+        snapshots.add(snapshot);
+        expected.add(new TreeMap<>(tasks));
+
+        // Every snapshot is checked only now, after all later ones were derived.
+        for (int i = 0; i < snapshots.size(); i++) {
+            matches(snapshots.get(i), expected.get(i), "snapshot " + i);
+        }
+
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Task task(int id, Random random) {
+        return new Task(id, TITLES[random.nextInt(TITLES.length)] + " " + random.nextInt(5), "",
+                TaskStatus.values()[random.nextInt(TaskStatus.values().length)],
+                ASSIGNEES[random.nextInt(ASSIGNEES.length)], START.plusDays(random.nextInt(60)));
+    }
+
+    private static void matches(TaskSnapshot snapshot, TreeMap<Integer, Task> tasks, String name) {
+        List<Task> all = new ArrayList<>(tasks.values());
+        check(snapshot.size() == all.size(), name + " has " + snapshot.size() + " tasks, not " + all.size());
+        check(rows(snapshot.getAllTasks()).equals(rows(all)), name + " lists its tasks by id");
+        for (int id = 0; id <= 401; id++) {
+            Task task = snapshot.getTaskById(id);
+            check(task == null ? !tasks.containsKey(id) : row(task).equals(row(tasks.get(id))),
+                    name + " finds task " + id);
+        }
+
+        for (TaskQuery.SortKey key : TaskQuery.SortKey.values()) {
+            List<Task> sorted = new ArrayList<>(all);
+            Comparator<Task> order = TaskSnapshot.comparator(key);
+            sorted.sort(order);
+            check(rows(snapshot.getTasksSortedBy(key, false)).equals(rows(sorted)), name + " sorts by " + key);
+            sorted.sort(order.reversed());
+            check(rows(snapshot.getTasksSortedBy(key, true)).equals(rows(sorted)), name + " sorts by " + key
+                    + " descending");
+        }
+
+        TaskStats stats = snapshot.getStats();
+        for (TaskStatus status : TaskStatus.values()) {
+            List<Task> matching = filter(all, task -> task.getStatus() == status);
+            check(rows(snapshot.getTasksByStatus(status)).equals(rows(matching))
+                    && snapshot.countByStatus(status) == matching.size()
+                    && stats.getCount(status) == matching.size(), name + " groups status " + status);
+        }
+        Map<String, Integer> counts = new TreeMap<>(AssigneeIndex.ORDER);
+        for (String assignee : ASSIGNEES) {
+            List<Task> matching = filter(all, task -> task.getAssignedTo().equals(assignee));
+            check(rows(snapshot.getTasksByUser(assignee)).equals(rows(matching)), name + " groups assignee '"
+                    + assignee + "'");
+            if (!matching.isEmpty()) {
+                counts.put(assignee, matching.size());
+            }
+        }
+        check(new ArrayList<>(stats.getAssigneeCounts().entrySet()).equals(new ArrayList<>(counts.entrySet()))
+                && stats.getTotal() == all.size(), name + " counts " + stats.getAssigneeCounts() + ", not " + counts);
+
+        LocalDate from = START.plusDays(10);
+        LocalDate to = START.plusDays(25);
+        List<Task> created = filter(all, task -> !task.getCreatedDate().isBefore(from)
+                && !task.getCreatedDate().isAfter(to));
+        created.sort(TaskSnapshot.comparator(TaskQuery.SortKey.CREATED));
+        check(rows(snapshot.getTasksCreatedBetween(from, to)).equals(rows(created))
+                && snapshot.countCreatedBetween(from, to) == created.size(), name + " finds a created range");
+    }
+
+    private static List<Task> filter(List<Task> tasks, Predicate<Task> matches) {
+        List<Task> matching = new ArrayList<>();
+        for (Task task : tasks) {
+            if (matches.test(task)) {
+                matching.add(task);
+            }
+        }
+        return matching;
+    }
+
+    private static List<String> rows(List<Task> tasks) {
+        List<String> rows = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            rows.add(row(task));
+        }
+        return rows;
+    }
+
+    private static String row(Task task) {
+        return TaskFileManager.formatTask(task);
+    }
+
+    private static void check(boolean passed, String what) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED " + what);
+        }
+    }
+}
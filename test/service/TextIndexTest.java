@@ -0,0 +1,176 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks that a search returns exactly the best matches that scoring every
+ * task one by one would, in the same order, for every limit: common terms
+ * whose clauses are intersected through bitmaps, rare terms, OR, prefixes,
+ * and frequencies spread so that some blocks are skipped and others are
+ * not. The checks are repeated after tasks are inserted out of id order,
+ * edited and removed, so the block maxima and bitmaps must follow every
+ * change. Run it with {@code ./test.sh}.
+ */
+public class TextIndexTest {
+    private static final String[] COMMON = { "fix", "login", "bug", "report" };
+    private static final String[] RARE = { "export", "exporter", "db", "cache", "ui", "deploy" };
+    private static final String[] QUERIES = { "fix", "fix bug", "fix bug login", "login OR report",
+            "fix bug OR login report", "db", "db fix", "cache OR ui OR deploy", "export*", "export* bug",
+            "ex* OR fix", "b* l*", "nothing", "fix nothing", "nothing OR ui" };
+    private static final int[] LIMITS = { 1, 7, 500, 100_000 };
+
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) {
+        Random random = new Random(23);
+        TextIndex index = new TextIndex();
+        Map<Integer, String> texts = new HashMap<>();
+
+        // Ids with gaps, some put after higher ones.
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1, i = 0; i < 20_000; i++, id += 1 + random.nextInt(3)) {
+            ids.add(id);
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            int at = i > 0 && random.nextInt(20) == 0 ? i - 1 - random.nextInt(Math.min(i, 50)) : i;
+            int id = ids.get(at);
+            ids.set(at, ids.get(i));
+            ids.set(i, id);
+            put(index, texts, id, text(random, 6));
+        }
+        searches(index, texts, "a new index");
+
+        List<Integer> present = new ArrayList<>(texts.keySet());
+        // Edited tasks may repeat words more than any task did, so the top
+        // matches come from edits.
+        for (int i = 0; i < 3_000; i++) {
+            int id = present.get(random.nextInt(present.size()));
+            put(index, texts, id, text(random, 12));
+        }
+        // Last of all, one task in the middle outscores every other.
+        put(index, texts, present.get(present.size() / 2), "task" + " fix".repeat(20) + " bug login");
+        searches(index, texts, "edits");
+
+        for (int i = 0; i < 6_000; i++) {
+            int id = present.get(random.nextInt(present.size()));
+            index.remove(id);
+            texts.remove(id);
+        }
+        int next = Collections.max(present) + 1;
+        for (int i = 0; i < 2_000; i++) {
+            put(index, texts, next + i * 2, text(random, 12));
+        }
+        searches(index, texts, "removals and appends");
+
+        index.clear();
+        texts.clear();
+        searches(index, texts, "clear");
+
+        System.out.println(checks + " checks, " + failures + " failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void put(TextIndex index, Map<Integer, String> texts, int id, String text) {
+        int split = text.indexOf(' ');
+        index.put(id, split < 0 ? text : text.substring(0, split), split < 0 ? "" : text.substring(split));
+        texts.put(id, text);
+    }
+
+    /**
+     * Common words in most tasks, each repeated up to {@code maxRepeats}
+     * times now and then, and a rare word in some.
+     */
+    private static String text(Random random, int maxRepeats) {
+        StringBuilder text = new StringBuilder("task");
+        for (String word : COMMON) {
+            if (random.nextInt(10) < 8) {
+                int repeats = random.nextInt(40) == 0 ? 2 + random.nextInt(maxRepeats - 1) : 1;
+                for (int i = 0; i < repeats; i++) {
+                    text.append(' ').append(word);
+                }
+            }
+        }
+        if (random.nextInt(4) == 0) {
+            text.append(' ').append(RARE[random.nextInt(RARE.length)]);
+        }
+        return text.toString();
+    }
+
+    private static void searches(TextIndex index, Map<Integer, String> texts, String after) {
+        for (String query : QUERIES) {
+            Map<Integer, Integer> scores = new HashMap<>();
+            texts.forEach((id, text) -> {
+                int score = score(text, query);
+                if (score > 0) {
+                    scores.put(id, score);
+                }
+            });
+            List<Integer> ranked = new ArrayList<>(scores.keySet());
+            ranked.sort((a, b) -> scores.get(a).equals(scores.get(b))
+                    ? Integer.compare(a, b)
+                    : Integer.compare(scores.get(b), scores.get(a)));
+            for (int limit : LIMITS) {
+                int[] expected = ranked.subList(0, Math.min(limit, ranked.size())).stream()
+                        .mapToInt(Integer::intValue).toArray();
+                int[] found = index.search(query, limit);
+                check(Arrays.equals(found, expected), "after " + after + " \"" + query + "\" limit " + limit
+                        + " returns " + head(found) + ", not " + head(expected));
+            }
+            IntIntHashMap matched = index.match(query);
+            boolean same = matched.size() == scores.size();
+            for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+                same &= matched.get(entry.getKey(), 0) == entry.getValue();
+            }
+            check(same, "after " + after + " \"" + query + "\" matches every task with its score");
+        }
+    }
+
+    /**
+     * Scores a text the way the index does: clauses separated by OR add up,
+     * and a clause scores the summed frequency of its terms when every term
+     * occurs, a trailing * matching any word it starts.
+     */
+    private static int score(String text, String query) {
+        String[] tokens = text.split(" ");
+        int total = 0;
+        for (String clause : query.split(" OR ")) {
+            int score = 0;
+            boolean all = true;
+            for (String term : clause.split(" ")) {
+                boolean prefix = term.endsWith("*");
+                String word = prefix ? term.substring(0, term.length() - 1) : term;
+                int frequency = 0;
+                for (String token : tokens) {
+                    if (prefix ? token.startsWith(word) : token.equals(word)) {
+                        frequency++;
+                    }
+                }
+                all &= frequency > 0;
+                score += frequency;
+            }
+            total += all ? score : 0;
+        }
+        return total;
+    }
+
+    private static String head(int[] ids) {
+        return Arrays.toString(Arrays.copyOf(ids, Math.min(ids.length, 10))) + (ids.length > 10 ? "..." : "");
+    }
+
+    private static void check(boolean passed, String what) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED " + what);
+        }
+    }
+}
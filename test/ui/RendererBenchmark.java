@@ -0,0 +1,171 @@
+package ui;
+
+import model.Task;
+import model.TaskStatus;
+import service.TaskFileManager;
+import javax.swing.CellRendererPane;
+import javax.swing.JComponent;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.TableCellRenderer;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures what painting the task table allocates. Scrolls a viewport of
+ * the task list's table over generated rows, with one row hovered so the
+ * action buttons are painted too, and paints each frame into an image the
+ * way {@code BasicTableUI} does: prepare each cell's renderer, then stamp
+ * it through a {@link CellRendererPane}. Without a screen there is no peer
+ * to lay renderers out while they are stamped, so the benchmark lays them
+ * out itself, as {@code validate()} would.
+ *
+ * <p>Reports bytes and time per frame, next to the same frame stamped with
+ * an empty component, which is what Swing itself allocates to paint the
+ * cells; and per column the bytes a cell's renderer allocates beyond what
+ * the model allocates to produce the cell's value. Run it with
+ * {@code ./bench.sh}.
+ */
+public class RendererBenchmark {
+    private static final int ROWS = 1_000;
+    private static final int VISIBLE_ROWS = 15;
+    private static final int WIDTH = 1200;
+    private static final int WARMUP_FRAMES = 2_000;
+    private static final int FRAMES = 3_000;
+    private static final int HOVERED_ROW = 2;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        // Nothing is loaded or written; the table is given its rows directly.
+        TaskFileManager taskManager = new TaskFileManager();
+        JTable[] table = new JTable[1];
+        SwingUtilities.invokeAndWait(() -> {
+            TaskListFrame frame = new TaskListFrame(taskManager, null);
+            table[0] = find(frame.getContentPanel(), JTable.class);
+            ((TaskTableModel) table[0].getModel()).setRows(generate(ROWS));
+            table[0].setSize(WIDTH, ROWS * table[0].getRowHeight());
+            table[0].doLayout();
+            Rectangle hovered = table[0].getCellRect(HOVERED_ROW, 0, true);
+            table[0].dispatchEvent(new MouseEvent(table[0], MouseEvent.MOUSE_MOVED, System.currentTimeMillis(), 0,
+                    hovered.x + 1, hovered.y + 1, 0, false));
+        });
+        // Let the hover timer apply the move.
+        Thread.sleep(200);
+        SwingUtilities.invokeAndWait(() -> measure(table[0]));
+        taskManager.close();
+        System.exit(0);
+    }
+
+    private static void measure(JTable table) {
+        CellRendererPane pane = new CellRendererPane();
+        table.add(pane);
+        BufferedImage image = new BufferedImage(WIDTH, VISIBLE_ROWS * table.getRowHeight(),
+                BufferedImage.TYPE_INT_ARGB);
+
+        JComponent empty = new JComponent() {
+        };
+        System.out.printf("%d x %d cells per frame:%n", VISIBLE_ROWS, table.getColumnCount());
+        for (JComponent stamp : new JComponent[] { null, empty }) {
+            paintFrames(table, pane, image, stamp, WARMUP_FRAMES);
+            long bytes = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            paintFrames(table, pane, image, stamp, FRAMES);
+            long elapsed = System.nanoTime() - start;
+            bytes = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+            System.out.printf("  %-24s %,7d bytes %,5.0f us%n",
+                    stamp == null ? "task table renderers" : "empty component", bytes / FRAMES, elapsed / 1e3 / FRAMES);
+        }
+
+        for (int column = 0; column < table.getColumnCount(); column++) {
+            int cells = FRAMES * VISIBLE_ROWS;
+            long prepared = allocatedPerCell(table, column, true);
+            long values = allocatedPerCell(table, column, false);
+            System.out.printf("  %-12s renderer %,5d bytes/cell   (cell value %,d bytes)%n",
+                    table.getColumnName(column).isEmpty() ? "Actions" : table.getColumnName(column),
+                    (prepared - values) / cells, values / cells);
+        }
+    }
+
+    /**
+     * Paints {@code frames} frames, scrolling down one row per frame. Every
+     * cell is painted by {@code stamp} instead of its renderer unless it is
+     * {@code null}.
+     */
+    private static void paintFrames(JTable table, CellRendererPane pane, BufferedImage image, JComponent stamp,
+                                    int frames) {
+        int rowHeight = table.getRowHeight();
+        for (int frame = 0; frame < frames; frame++) {
+            int first = frame % (ROWS - VISIBLE_ROWS);
+            Graphics2D g = image.createGraphics();
+            g.translate(0, -first * rowHeight);
+            for (int row = first; row < first + VISIBLE_ROWS; row++) {
+                for (int column = 0; column < table.getColumnCount(); column++) {
+                    Rectangle cell = table.getCellRect(row, column, false);
+                    Component renderer = stamp != null ? stamp
+                            : table.prepareRenderer(table.getCellRenderer(row, column), row, column);
+                    renderer.setBounds(0, 0, cell.width, cell.height);
+                    if (renderer instanceof Container container) {
+                        container.doLayout();
+                    }
+                    pane.paintComponent(g, renderer, table, cell.x, cell.y, cell.width, cell.height, true);
+                }
+            }
+            g.dispose();
+        }
+    }
+
+    /**
+     * Returns the bytes allocated over {@link #FRAMES} frames by preparing
+     * the cells of {@code column}, or by only reading their values.
+     */
+    private static long allocatedPerCell(JTable table, int column, boolean prepare) {
+        TableCellRenderer renderer = table.getCellRenderer(0, column);
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            int first = frame % (ROWS - VISIBLE_ROWS);
+            for (int row = first; row < first + VISIBLE_ROWS; row++) {
+                if (prepare) {
+                    table.prepareRenderer(renderer, row, column);
+                } else {
+                    table.getValueAt(row, column);
+                }
+            }
+        }
+        return THREADS.getCurrentThreadAllocatedBytes() - bytes;
+    }
+
+    private static List<Task> generate(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            tasks.add(new Task(id, "Task " + id, "Description of task " + id,
+                    TaskStatus.values()[id % TaskStatus.values().length], "user" + id % 20,
+                    LocalDate.of(2025, 1, 1).plusDays(id % 365)));
+        }
+        return tasks;
+    }
+
+    private static <T> T find(Container container, Class<T> type) {
+        for (Component child : container.getComponents()) {
+            if (type.isInstance(child)) {
+                return type.cast(child);
+            }
+            if (child instanceof Container nested) {
+                T found = find(nested, type);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,295 @@
+package ui;
+
+import model.Task;
+import model.TaskStatus;
+import service.TaskChange;
+import service.TaskFileManager;
+import service.TaskQuery;
+import service.TaskSnapshot;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.Function;
+
+/**
+ * Checks the row events the task table model fires for batches from the
+ * change feed. A copy of the rows is kept up to date from the events alone,
+ * the way JTable keeps its selection and row heights, and must match the
+ * model after every batch; the model in turn must match its view of the
+ * current snapshot. Covers adds, edits and deletes in a filtered view, a
+ * batch that arrives after later changes were made, reloads and oversized
+ * batches, and views redrawn in the background.
+ *
+ * <p>Works on tasks.csv and its journal in the current directory, so
+ * {@code ./test.sh} runs it in an empty temporary one.
+ */
+public class TaskTableModelTest {
+    private static final Queue<Runnable> DELIVERIES = new ArrayDeque<>();
+    private static final List<List<TaskChange>> BATCHES = new ArrayList<>();
+
+    private static TaskFileManager taskManager;
+    private static TaskTableModel model;
+    private static Function<TaskSnapshot, List<Task>> view;
+    private static final List<Integer> MIRROR = new ArrayList<>();
+    private static final List<TableModelEvent> EVENTS = new ArrayList<>();
+
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        if (new File("tasks.csv").exists()) {
+            System.out.println("Run from an empty directory: this test writes tasks.csv; see test.sh");
+            System.exit(1);
+        }
+        taskManager = new TaskFileManager();
+        taskManager.loadTasks();
+        taskManager.subscribe(DELIVERIES::add, 1_000, BATCHES::add);
+
+        SwingUtilities.invokeAndWait(TaskTableModelTest::rowEvents);
+        backgroundViews();
+
+        taskManager.close();
+        System.out.println(checks + " checks, " + failures + " failed");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    private static void rowEvents() {
+        model = new TaskTableModel(taskManager);
+        model.addTableModelListener(TaskTableModelTest::replay);
+        setView(TaskSnapshot::getAllTasks);
+        matches("an empty store");
+
+        for (int i = 0; i < 20; i++) {
+            taskManager.addTask(task(i % 2 == 0 ? TaskStatus.PENDING : TaskStatus.DONE));
+        }
+        deliver();
+        check(EVENTS.size() == 20 && allOfType(TableModelEvent.INSERT), "twenty adds fire twenty inserts");
+        matches("twenty adds");
+
+        taskManager.updateTask(edited(5, TaskStatus.PROGRESS));
+        taskManager.deleteTask(7);
+        taskManager.addTask(task(TaskStatus.PENDING));
+        deliver();
+        check(EVENTS.size() == 3 && rowEvent(0, TableModelEvent.UPDATE, 4)
+                && rowEvent(1, TableModelEvent.DELETE, 6) && rowEvent(2, TableModelEvent.INSERT, 19),
+                "an edit, a delete and an add fire one event each at their rows: " + describe());
+        matches("an edit, a delete and an add");
+
+        // Odd ids are pending, but for 5, now in progress, and 7, deleted.
+        setView(snapshot -> snapshot.getTasksByStatus(TaskStatus.PENDING));
+        taskManager.updateTask(edited(3, TaskStatus.DONE));
+        taskManager.updateTask(edited(4, TaskStatus.PENDING));
+        taskManager.updateTask(edited(9, TaskStatus.DONE));
+        taskManager.updateTask(edited(1, TaskStatus.PENDING));
+        deliver();
+        check(EVENTS.size() == 4 && rowEvent(0, TableModelEvent.UPDATE, 0)
+                && rowEvent(1, TableModelEvent.DELETE, 1) && rowEvent(2, TableModelEvent.INSERT, 1)
+                && rowEvent(3, TableModelEvent.DELETE, 2),
+                "tasks leaving and entering a filtered view are deleted and inserted: " + describe());
+        matches("a filtered view");
+
+        // The second edit is made before the first one's batch is handled.
+        taskManager.updateTask(edited(11, TaskStatus.DONE));
+        DELIVERIES.poll().run();
+        List<TaskChange> stale = BATCHES.remove(0);
+        taskManager.deleteTask(13);
+        EVENTS.clear();
+        model.tasksChanged(stale);
+        check(EVENTS.size() == 1 && isFullRedraw(EVENTS.get(0)),
+                "a batch older than the current snapshot redraws the table: " + describe());
+        matches("a batch older than the current snapshot");
+        deliver();
+        matches("the batch after it");
+
+        try {
+            taskManager.loadTasks();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        deliver();
+        check(EVENTS.size() == 1 && isFullRedraw(EVENTS.get(0)), "a reload redraws the table: " + describe());
+        matches("a reload");
+
+        for (int i = 0; i < 300; i++) {
+            taskManager.addTask(task(TaskStatus.PENDING));
+        }
+        deliver();
+        check(EVENTS.size() == 1 && isFullRedraw(EVENTS.get(0)), "a batch of 300 changes redraws the table");
+        matches("a batch of 300 changes");
+
+        model.setRows(List.of(taskManager.getTaskById(1)));
+        view = null;
+        MIRROR.clear();
+        MIRROR.addAll(ids());
+        taskManager.deleteTask(1);
+        deliver();
+        check(EVENTS.isEmpty() && ids().equals(List.of(1)), "a list set directly ignores the change feed");
+    }
+
+    /**
+     * A view not in id order is read again on a worker and redrawn whole
+     * once the worker is done.
+     */
+    private static void backgroundViews() throws Exception {
+        Function<TaskSnapshot, List<Task>> byTitle = snapshot -> snapshot.getTasksSortedBy(TaskQuery.SortKey.TITLE,
+                true);
+        SwingUtilities.invokeAndWait(() -> {
+            model.setView(byTitle, false);
+            EVENTS.clear();
+        });
+        awaitRedraw();
+        SwingUtilities.invokeAndWait(() -> {
+            MIRROR.clear();
+            MIRROR.addAll(ids());
+            taskManager.updateTask(edited(2, TaskStatus.DONE));
+            EVENTS.clear();
+            deliver();
+            check(EVENTS.isEmpty(), "a view not in id order is not redrawn on the EDT");
+        });
+        awaitRedraw();
+        SwingUtilities.invokeAndWait(() -> {
+            check(EVENTS.size() == 1 && isFullRedraw(EVENTS.get(0)), "it is redrawn whole once read: "
+                    + describe());
+            check(ids().equals(idsOf(byTitle.apply(taskManager.snapshot()))), "the redrawn view is current");
+        });
+    }
+
+    /**
+     * Shows an id-ordered view and takes its rows as the starting point for
+     * the events that follow.
+     */
+    private static void setView(Function<TaskSnapshot, List<Task>> next) {
+        view = next;
+        model.setView(next, true);
+        MIRROR.clear();
+        MIRROR.addAll(ids());
+    }
+
+    private static void awaitRedraw() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            boolean[] redrawn = new boolean[1];
+            SwingUtilities.invokeAndWait(() -> redrawn[0] = !EVENTS.isEmpty());
+            if (redrawn[0]) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Runs the feed's pending delivery and hands each batch to the model,
+     * as TaskListFrame does, starting a fresh list of events.
+     */
+    private static void deliver() {
+        EVENTS.clear();
+        while (!DELIVERIES.isEmpty()) {
+            DELIVERIES.poll().run();
+        }
+        for (List<TaskChange> batch : BATCHES) {
+            model.tasksChanged(batch);
+        }
+        BATCHES.clear();
+    }
+
+    /**
+     * Applies {@code event} to the mirror the way JTable applies it to its
+     * row state.
+     */
+    private static void replay(TableModelEvent event) {
+        EVENTS.add(event);
+        if (isFullRedraw(event)) {
+            MIRROR.clear();
+            MIRROR.addAll(ids());
+            return;
+        }
+        for (int row = event.getFirstRow(); row <= event.getLastRow(); row++) {
+            switch (event.getType()) {
+                case TableModelEvent.INSERT -> MIRROR.add(row, id(row));
+                case TableModelEvent.DELETE -> MIRROR.remove(event.getFirstRow());
+                default -> MIRROR.set(row, id(row));
+            }
+        }
+    }
+
+    private static void matches(String after) {
+        check(MIRROR.equals(ids()), "after " + after + " the rows known from events are " + MIRROR
+                + ", the model has " + ids());
+        check(ids().equals(idsOf(view.apply(taskManager.snapshot()))),
+                "after " + after + " the model shows its view of the current snapshot");
+    }
+
+    private static boolean isFullRedraw(TableModelEvent event) {
+        return event.getFirstRow() == 0 && event.getLastRow() == Integer.MAX_VALUE;
+    }
+
+    private static boolean rowEvent(int index, int type, int row) {
+        TableModelEvent event = EVENTS.get(index);
+        return event.getType() == type && event.getFirstRow() == row && event.getLastRow() == row;
+    }
+
+    private static boolean allOfType(int type) {
+        for (TableModelEvent event : EVENTS) {
+            if (event.getType() != type || isFullRedraw(event)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describe() {
+        List<String> events = new ArrayList<>();
+        for (TableModelEvent event : EVENTS) {
+            events.add(isFullRedraw(event) ? "redraw" : switch (event.getType()) {
+                case TableModelEvent.INSERT -> "insert " + event.getFirstRow();
+                case TableModelEvent.DELETE -> "delete " + event.getFirstRow();
+                default -> "update " + event.getFirstRow();
+            });
+        }
+        return events.toString();
+    }
+
+    private static Task task(TaskStatus status) {
+        return new Task(0, "Task", "", status, "Ayu", LocalDate.of(2024, 4, 1));
+    }
+
+    private static Task edited(int id, TaskStatus status) {
+        Task task = taskManager.getTaskById(id);
+        return new Task(id, task.getTitle() + " edited", task.getDescription(), status, task.getAssignedTo(),
+                task.getCreatedDate());
+    }
+
+    private static int id(int row) {
+        return (Integer) model.getValueAt(row, TaskTableModel.ID_COLUMN);
+    }
+
+    private static List<Integer> ids() {
+        List<Integer> ids = new ArrayList<>();
+        for (int row = 0; row < model.getRowCount(); row++) {
+            ids.add(id(row));
+        }
+        return ids;
+    }
+
+    private static List<Integer> idsOf(List<Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    private static void check(boolean passed, String what) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.println("FAILED " + what);
+        }
+    }
+}